@@ -0,0 +1,436 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Simple wall-clock benchmarks for the heap implementations in this folder.  Each scenario is run a few
+ * times to let the JIT warm up before the measured runs are reported.  Usage:
+ *
+ *   java BinaryHeapBenchmarks [scenario] [size]
+ *
+ * where scenario is one of the names listed in main() (all scenarios run by default).
+ */
+public class BinaryHeapBenchmarks {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "all";
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        if (scenario.equals("all") || scenario.equals("bulkLoad")) {
+            bulkLoad(size);
+        }
+        if (scenario.equals("all") || scenario.equals("compare")) {
+            compareDispatch(size);
+        }
+        if (scenario.equals("all") || scenario.equals("metrics")) {
+            metricsOverhead(size);
+        }
+        if (scenario.equals("all") || scenario.equals("sort")) {
+            for (double fraction : new double[] {0.0001, 0.001, 0.01, 0.1, 1.0}) {
+                partialSort(Math.max(1, (int) (size * fraction)), size);
+            }
+        }
+        if (scenario.equals("all") || scenario.equals("dijkstra")) {
+            for (int vertices = 10_000; vertices <= size; vertices *= 10) {
+                dijkstra(vertices, 8);
+            }
+        }
+        if (scenario.equals("all") || scenario.equals("arity")) {
+            for (int n = 10_000; n <= size; n *= 10) {
+                removeHeavyByArity(n);
+            }
+        }
+        if (scenario.equals("all") || scenario.equals("batch")) {
+            for (int batchSize : new int[] {64, 1024}) {
+                batchRemoval(batchSize, size);
+            }
+        }
+        if (scenario.equals("all") || scenario.equals("merge")) {
+            mergePartitions(64, size);
+        }
+        if (scenario.equals("all") || scenario.equals("concurrent")) {
+            int maxThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+            for (int threads = 1; threads <= Math.max(4, maxThreads); threads *= 2) {
+                concurrentThroughput(threads, size);
+            }
+        }
+    }
+
+    /**
+     * Compares loading a heap one insert() at a time against the bottom-up build used by the Collection
+     * constructor, for both random input and descending input (the worst case for ascending inserts, since
+     * every new value has to bubble all the way up to the root)
+     */
+    static void bulkLoad(int size) {
+        List<Integer> randomValues = randomValues(size);
+        List<Integer> descendingValues = new ArrayList<>(randomValues);
+        descendingValues.sort(Comparator.reverseOrder());
+
+        for (String input : new String[] {"random", "descending"}) {
+            List<Integer> values = input.equals("random") ? randomValues : descendingValues;
+            time("bulkLoad/perElementInsert " + input + " n=" + size, () -> {
+                BinaryHeap<Integer> heap = new BinaryHeap<>();
+                values.forEach(heap::insert);
+                return heap.size();
+            });
+            time("bulkLoad/bottomUpBuild " + input + " n=" + size, () -> new BinaryHeap<>(values).size());
+        }
+    }
+
+    /**
+     * Inserts random values one at a time and then drains the heap with remove(), reporting ops/sec for
+     * natural ordering in both directions and the number of comparisons made through a counting comparator
+     */
+    static void compareDispatch(int size) {
+        List<Integer> values = randomValues(size);
+
+        for (BinaryHeap.HeapOrder order : BinaryHeap.HeapOrder.values()) {
+            time("compare/natural " + order + " n=" + size, () -> {
+                long start = System.nanoTime();
+                BinaryHeap<Integer> heap = new BinaryHeap<>(order);
+                values.forEach(heap::insert);
+                while (!heap.isEmpty()) {
+                    heap.remove();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                return String.format("%.2f Mops/sec", 2.0 * size / seconds / 1e6);
+            });
+        }
+
+        long[] comparisons = new long[1];
+        time("compare/countingComparator n=" + size, () -> {
+            comparisons[0] = 0;
+            BinaryHeap<Integer> heap = new BinaryHeap<>((i, j) -> {
+                comparisons[0]++;
+                return Integer.compare(i, j);
+            });
+            values.forEach(heap::insert);
+            while (!heap.isEmpty()) {
+                heap.remove();
+            }
+            return comparisons[0] + " comparisons";
+        });
+    }
+
+    /**
+     * Measures the cost of enabling HeapMetrics on an insert-then-drain workload, then prints the metrics
+     * collected for one run as an example of what they report
+     */
+    static void metricsOverhead(int size) {
+        List<Integer> values = randomValues(size);
+
+        for (boolean enabled : new boolean[] {false, true}) {
+            time("metrics/" + (enabled ? "enabled" : "disabled") + " n=" + size, () -> {
+                BinaryHeap<Integer> heap = new BinaryHeap<>();
+                if (enabled) {
+                    heap.enableMetrics();
+                }
+                values.forEach(heap::insert);
+                while (!heap.isEmpty()) {
+                    heap.remove();
+                }
+                return heap.size();
+            });
+        }
+
+        BinaryHeap<Integer> heap = new BinaryHeap<>();
+        HeapMetrics metrics = heap.enableMetrics();
+        values.forEach(heap::insert);
+        heap.removeN(size / 4);
+        System.out.println(metrics.snapshot());
+    }
+
+    /**
+     * Compares HeapSort.partialSort() against sorting the whole array with Arrays.sort() and keeping the
+     * first n elements, for both boxed Integers and primitive ints.  Each run sorts a fresh copy of the input
+     */
+    static void partialSort(int n, int size) {
+        Integer[] boxed = randomValues(size).toArray(new Integer[0]);
+        int[] primitive = Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+        String suffix = " n=" + n + " size=" + size;
+
+        time("sort/HeapSort.partialSort(Integer[])" + suffix, () -> {
+            Integer[] a = boxed.clone();
+            HeapSort.partialSort(a, n);
+            return a[n - 1];
+        });
+        time("sort/Arrays.sort(Integer[])+subList" + suffix, () -> {
+            Integer[] a = boxed.clone();
+            Arrays.sort(a);
+            return Arrays.asList(a).subList(0, n).get(n - 1);
+        });
+        time("sort/HeapSort.partialSort(int[])" + suffix, () -> {
+            int[] a = primitive.clone();
+            HeapSort.partialSort(a, n);
+            return a[n - 1];
+        });
+        time("sort/Arrays.sort(int[])" + suffix, () -> {
+            int[] a = primitive.clone();
+            Arrays.sort(a);
+            return a[n - 1];
+        });
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from vertex 0 of a random graph, with BinaryHeap and then RadixHeap as the
+     * priority queue.  Both use lazy deletion (a vertex is queued again whenever its distance improves and
+     * stale entries are skipped when removed), and each run returns the sum of the distances found so the
+     * two can be checked against each other
+     */
+    static void dijkstra(int vertices, int edgesPerVertex) {
+        Random r = new Random(42);
+        int[][] targets = new int[vertices][edgesPerVertex];
+        int[][] weights = new int[vertices][edgesPerVertex];
+        for (int v = 0; v < vertices; v++) {
+            for (int e = 0; e < edgesPerVertex; e++) {
+                targets[v][e] = r.nextInt(vertices);
+                weights[v][e] = 1 + r.nextInt(100);
+            }
+        }
+        String suffix = " V=" + vertices + " E=" + (vertices * edgesPerVertex);
+
+        time("dijkstra/BinaryHeap" + suffix, () -> {
+            BinaryHeap<QueueEntry> queue = new BinaryHeap<>(Comparator.comparingInt((QueueEntry q) -> q.distance));
+            return shortestPathTotal(targets, weights, queue::insert, queue::remove, queue::isEmpty);
+        });
+        time("dijkstra/RadixHeap" + suffix, () -> {
+            RadixHeap<QueueEntry> queue = new RadixHeap<>(q -> q.distance);
+            return shortestPathTotal(targets, weights, queue::insert, queue::remove, queue::isEmpty);
+        });
+    }
+
+    private static long shortestPathTotal(int[][] targets, int[][] weights, Consumer<QueueEntry> insert,
+                                          Supplier<QueueEntry> remove, BooleanSupplier isEmpty) {
+        int[] distances = new int[targets.length];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        distances[0] = 0;
+        insert.accept(new QueueEntry(0, 0));
+
+        while (!isEmpty.getAsBoolean()) {
+            QueueEntry entry = remove.get();
+            if (entry.distance > distances[entry.vertex]) {
+                continue;
+            }
+            for (int e = 0; e < targets[entry.vertex].length; e++) {
+                int target = targets[entry.vertex][e];
+                int distance = entry.distance + weights[entry.vertex][e];
+                if (distance < distances[target]) {
+                    distances[target] = distance;
+                    insert.accept(new QueueEntry(target, distance));
+                }
+            }
+        }
+
+        long total = 0;
+        for (int distance : distances) {
+            total += (distance == Integer.MAX_VALUE) ? 0 : distance;
+        }
+        return total;
+    }
+
+    private static class QueueEntry {
+        final int vertex;
+        final int distance;
+
+        QueueEntry(int vertex, int distance) {
+            this.vertex = vertex;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Fills a heap and then drains it completely, for each of several arities.  remove() dominates the
+     * run time, so this shows how much the shallower, wider layouts save in bubbleDown
+     */
+    static void removeHeavyByArity(int size) {
+        List<Integer> values = randomValues(size);
+
+        for (int arity : new int[] {2, 4, 8}) {
+            time("removeHeavy/arity=" + arity + " n=" + size, () -> {
+                BinaryHeap<Integer> heap = new BinaryHeap<>(null, BinaryHeap.HeapOrder.ASC, arity);
+                heap.insertAll(values);
+                long checksum = 0;
+                while (!heap.isEmpty()) {
+                    checksum += heap.remove();
+                }
+                return checksum;
+            });
+        }
+    }
+
+    /**
+     * Drains a heap in fixed-size batches, one remove() per element versus one drainTo() per batch.  A
+     * comparator that counts its calls is used so the number of comparisons can be reported as well
+     */
+    static void batchRemoval(int batchSize, int size) {
+        List<Integer> values = randomValues(size);
+        long[] comparisons = new long[1];
+        Comparator<Integer> countingComparator = (i, j) -> {
+            comparisons[0]++;
+            return Integer.compare(i, j);
+        };
+
+        time("batch/remove batch=" + batchSize + " n=" + size, () -> {
+            BinaryHeap<Integer> heap = new BinaryHeap<>(values, countingComparator, BinaryHeap.HeapOrder.ASC);
+            comparisons[0] = 0;
+            List<Integer> batch = new ArrayList<>(batchSize);
+            while (!heap.isEmpty()) {
+                batch.clear();
+                for (int i = 0; i < batchSize && !heap.isEmpty(); i++) {
+                    batch.add(heap.remove());
+                }
+            }
+            return comparisons[0] + " comparisons";
+        });
+        time("batch/drainTo batch=" + batchSize + " n=" + size, () -> {
+            BinaryHeap<Integer> heap = new BinaryHeap<>(values, countingComparator, BinaryHeap.HeapOrder.ASC);
+            comparisons[0] = 0;
+            List<Integer> batch = new ArrayList<>(batchSize);
+            while (!heap.isEmpty()) {
+                batch.clear();
+                heap.drainTo(batch, batchSize);
+            }
+            return comparisons[0] + " comparisons";
+        });
+    }
+
+    /**
+     * Builds a number of per-partition heaps, merges them all into the first one and then removes the first
+     * partition's worth of elements from the result.  BinaryHeaps have to be merged by draining one into the
+     * other, where PairingHeaps meld in O(1)
+     */
+    static void mergePartitions(int partitions, int size) {
+        List<Integer> values = randomValues(size);
+        int partitionSize = size / partitions;
+
+        time("merge/binaryHeapDrain partitions=" + partitions + " n=" + size, () -> {
+            List<BinaryHeap<Integer>> heaps = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                heaps.add(new BinaryHeap<>(values.subList(p * partitionSize, (p + 1) * partitionSize)));
+            }
+            BinaryHeap<Integer> merged = heaps.get(0);
+            for (int p = 1; p < partitions; p++) {
+                BinaryHeap<Integer> other = heaps.get(p);
+                while (!other.isEmpty()) {
+                    merged.insert(other.remove());
+                }
+            }
+            long checksum = 0;
+            for (int i = 0; i < partitionSize; i++) {
+                checksum += merged.remove();
+            }
+            return checksum;
+        });
+        time("merge/pairingHeapMeld partitions=" + partitions + " n=" + size, () -> {
+            List<PairingHeap<Integer>> heaps = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                PairingHeap<Integer> heap = new PairingHeap<>();
+                heap.insertAll(values.subList(p * partitionSize, (p + 1) * partitionSize));
+                heaps.add(heap);
+            }
+            PairingHeap<Integer> merged = heaps.get(0);
+            for (int p = 1; p < partitions; p++) {
+                merged.meld(heaps.get(p));
+            }
+            long checksum = 0;
+            for (int i = 0; i < partitionSize; i++) {
+                checksum += merged.remove();
+            }
+            return checksum;
+        });
+    }
+
+    /**
+     * Each thread alternates insert() and remove() against a shared queue, comparing a BinaryHeap guarded by
+     * a single synchronized block with the striped ConcurrentBinaryHeap.  Reported in total operations/sec
+     */
+    static void concurrentThroughput(int threads, int operationsPerThread) {
+        BinaryHeap<Integer> lockedHeap = new BinaryHeap<>();
+        ConcurrentBinaryHeap<Integer> concurrentHeap =
+                new ConcurrentBinaryHeap<>(2 * threads, null, BinaryHeap.HeapOrder.ASC);
+
+        runThreads("concurrent/synchronized", threads, operationsPerThread, value -> {
+            synchronized (lockedHeap) {
+                lockedHeap.insert(value);
+            }
+            synchronized (lockedHeap) {
+                return lockedHeap.remove();
+            }
+        });
+        runThreads("concurrent/striped", threads, operationsPerThread, value -> {
+            concurrentHeap.insert(value);
+            return concurrentHeap.remove();
+        });
+    }
+
+    private static void runThreads(String name, int threads, int operationsPerThread, IntFunction<Integer> operation) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            time(name + " threads=" + threads, () -> {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        Random r = new Random();
+                        for (int i = 0; i < operationsPerThread; i++) {
+                            operation.apply(r.nextInt());
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (InterruptedException | ExecutionException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                return String.format("%.2f Mops/sec", 2.0 * threads * operationsPerThread / seconds / 1e6);
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static List<Integer> randomValues(int size) {
+        Random r = new Random(42);
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(r.nextInt());
+        }
+        return values;
+    }
+
+    static void time(String name, Supplier<Object> operation) {
+        Object blackhole = null;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            blackhole = operation.get();
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            blackhole = operation.get();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+
+        System.out.printf("%-50s best %8.2f ms   avg %8.2f ms   (%s)%n",
+                name, best / 1e6, total / 1e6 / MEASURED_RUNS, blackhole);
+    }
+}
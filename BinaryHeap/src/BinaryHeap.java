@@ -5,19 +5,20 @@ import java.util.*;
 public class BinaryHeap<T> {
 
     private static final int DEFAULT_INITIAL_CAPACITY = 100;
+    private static final int DEFAULT_ARITY = 2;
     private List<T> nodes;
-    private HeapOrder ordering;
-    private Comparator<? super T> comparator;
+    // tracked here rather than left to ArrayList so that growth of the backing storage can be reported
+    private int capacity;
+    private final int arity;
+    // the comparator and HeapOrder folded into a single comparator once, at construction, so the sift loops
+    // don't have to re-check for a null comparator or apply the sort direction on every comparison.  Swapped
+    // for a counting wrapper if metrics are enabled
+    private Comparator<? super T> removalOrder;
+    private HeapMetrics metrics; // null unless enableMetrics() has been called
 
     public enum HeapOrder {
-        ASC(1),
-        DESC(-1);
-
-        private int orderModifier;
-
-        HeapOrder(int orderModifier) {
-            this.orderModifier = orderModifier;
-        }
+        ASC,
+        DESC
     }
 
     /**
@@ -28,10 +29,7 @@ public class BinaryHeap<T> {
      * @param ordering desired ordering of the returned elements (ascending or descending)
      */
     public BinaryHeap(HeapOrder ordering) {
-        nodes = new ArrayList<>(DEFAULT_INITIAL_CAPACITY);
-        this.ordering = ordering;
-        this.comparator = null;
-
+        this(null, ordering, DEFAULT_ARITY);
     }
 
     /**
@@ -42,8 +40,7 @@ public class BinaryHeap<T> {
      * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
      */
     public BinaryHeap(Comparator<? super T> comparator, HeapOrder ordering) {
-        this(ordering);
-        this.comparator = comparator;
+        this(comparator, ordering, DEFAULT_ARITY);
     }
 
     /**
@@ -53,8 +50,7 @@ public class BinaryHeap<T> {
      * If the elements' type does not implement {@link java.lang.Comparable}
      */
     public BinaryHeap() {
-        this(HeapOrder.ASC);
-        this.comparator = null;
+        this(null, HeapOrder.ASC, DEFAULT_ARITY);
     }
 
     /**
@@ -64,29 +60,145 @@ public class BinaryHeap<T> {
      * @param comparator Comparator to use for ordering elements returned by calls to remove()
      */
     public BinaryHeap(Comparator<? super T> comparator) {
-        this();
-        this.comparator = comparator;
+        this(comparator, HeapOrder.ASC, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs a heap in which each node has the provided number of children rather than two.  A wider
+     * node (e.g. 4 or 8) makes the heap shallower and keeps a node's children next to each other in the
+     * backing storage, so remove() touches fewer cache lines on large heaps at the cost of a few more
+     * comparisons per level.  Ordering semantics are identical to a binary heap
+     * @param comparator Comparator to use for ordering elements returned by calls to remove(), or null to
+     *                   use the elements' natural ordering
+     * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
+     * @param arity number of children per node, must be at least 2
+     */
+    public BinaryHeap(Comparator<? super T> comparator, HeapOrder ordering, int arity) {
+        this(comparator, ordering, arity, DEFAULT_INITIAL_CAPACITY);
     }
 
+    /**
+     * Constructs a heap with room for the provided number of elements before its backing storage has to
+     * grow.  HeapMetrics' peak size and growth events are a good guide to choosing this
+     * @param comparator Comparator to use for ordering elements returned by calls to remove(), or null to
+     *                   use the elements' natural ordering
+     * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
+     * @param arity number of children per node, must be at least 2
+     * @param initialCapacity number of elements to allocate room for up front
+     */
+    public BinaryHeap(Comparator<? super T> comparator, HeapOrder ordering, int arity, int initialCapacity) {
+        Preconditions.checkArgument(arity >= 2, "arity must be at least 2");
+        Preconditions.checkArgument(initialCapacity >= 0, "initialCapacity cannot be negative");
+        this.nodes = new ArrayList<>(initialCapacity);
+        this.capacity = initialCapacity;
+        this.arity = arity;
+        this.removalOrder = removalOrder(comparator, ordering);
+    }
+
+    /**
+     * Constructs a heap that already holds the provided values, ordered by their natural ordering with a
+     * default sort order of ascending.  The heap is built bottom-up in O(n) time rather than by inserting
+     * the values one at a time
+     * @param initialValues values the heap will initially hold
+     */
+    public BinaryHeap(Collection<? extends T> initialValues) {
+        this(initialValues, null, HeapOrder.ASC);
+    }
+
+    /**
+     * Constructs a heap that already holds the provided values, ordered by the provided comparator (or by
+     * the values' natural ordering if it is null) in the provided direction.  The heap is built bottom-up
+     * in O(n) time rather than by inserting the values one at a time
+     * @param initialValues values the heap will initially hold
+     * @param comparator Comparator to use for ordering elements returned by calls to remove(), may be null
+     * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
+     */
+    public BinaryHeap(Collection<? extends T> initialValues, Comparator<? super T> comparator, HeapOrder ordering) {
+        this(comparator, ordering, DEFAULT_ARITY, Math.max(DEFAULT_INITIAL_CAPACITY, initialValues.size()));
+        appendAndRebuild(initialValues);
+    }
+
+    /**
+     * Returns a heap built directly over the provided list, without copying it, after rearranging the list's
+     * elements into heap order.  Used to run the heap's sift logic over storage owned by someone else, such
+     * as HeapSort's views over a caller's array.  Nothing may be added to a heap built this way
+     */
+    static <E> BinaryHeap<E> over(List<E> view, Comparator<? super E> comparator, HeapOrder ordering) {
+        BinaryHeap<E> heap = new BinaryHeap<>(comparator, ordering, DEFAULT_ARITY, 0);
+        heap.nodes = view;
+        heap.capacity = view.size();
+        heap.rebuild();
+        return heap;
+    }
 
     public boolean isEmpty() {
         return nodes.isEmpty();
     }
 
-    public void insertAll(List<T> newValues) {
-        newValues.forEach(this::insert);
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Starts collecting metrics for this heap (if it isn't already) and returns them.  Only activity from
+     * this point on is counted.  A heap without metrics enabled pays nothing for them
+     */
+    public HeapMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new HeapMetrics(capacity, nodes.size());
+            removalOrder = metrics.counting(removalOrder);
+        }
+        return metrics;
+    }
+
+    /**
+     * Zeroes this heap's metrics, if they're enabled
+     */
+    public void resetMetrics() {
+        if (metrics != null) {
+            metrics.reset(nodes.size());
+        }
+    }
+
+    /**
+     * Inserts all of the provided values.  When the batch is at least as large as the heap it's being added to
+     * the values are appended as-is and the whole heap is rebuilt bottom-up (Floyd's method), which is O(n)
+     * rather than the O(k log n) cost of inserting the values one at a time
+     */
+    public void insertAll(Collection<? extends T> newValues) {
+        if (newValues.size() >= nodes.size()) {
+            appendAndRebuild(newValues);
+        } else {
+            newValues.forEach(this::insert);
+        }
     }
 
     public void insert(T newValue) {
         Preconditions.checkArgument(newValue != null, "newValue to insert into the heap cannot be NULL");
-        nodes.add(newValue);
+        addNode(newValue);
 
-        if (nodes.size() > 1) {
-            //move new value to proper location in BinaryHeap
-            heapify(nodes.size() - 1);
+        // the new value is a leaf, so it can only need to move up to its proper location
+        bubbleUp(nodes.size() - 1);
+
+        if (metrics != null) {
+            metrics.recordInserts(1, nodes.size());
         }
     }
 
+    /**
+     * Returns, without removing it, the root element of the BinaryHeap
+     *
+     * @return the minimum or maximum element remaining in the BinaryHeap, depending on the ordering specified
+     * at construction (HeapOrder.ASC or HeapOrder.DESC)
+     */
+    public T peek() {
+        if (isEmpty()) {
+            throw new IllegalStateException("peek() called on BinaryHeap while it is currently empty");
+        }
+
+        return nodes.get(0);
+    }
+
     /**
      * Removes and returns the root element from the BinaryHeap.  Depending on the ordering specified during
      * the BinaryHeap's construction this will either be the minimum or maximum element remaining in the heap
@@ -100,33 +212,152 @@ public class BinaryHeap<T> {
             throw new IllegalStateException("remove() called on BinaryHeap while it is currently empty");
         }
 
-        T result = nodes.get(0); // this is what we'll return at the end of this method
+        return removeRoot();
+    }
+
+    /**
+     * Removes up to n elements from the BinaryHeap and returns them in the order successive calls to remove()
+     * would have
+     *
+     * @return a list of min(n, size()) elements, in removal order
+     */
+    public List<T> removeN(int n) {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(n, nodes.size())));
+        drainTo(result, n);
+        return result;
+    }
+
+    /**
+     * Removes up to maxElements elements from the BinaryHeap and adds them to the provided collection in the
+     * order successive calls to remove() would have returned them.
+     *
+     * When the batch is at least half of the heap it's cheaper to sort every element once than to bubble down
+     * after each removal, and since a sorted list is already a valid heap the elements left behind need no
+     * further work.  Smaller batches are removed one root at a time
+     *
+     * @return the number of elements moved into the collection
+     */
+    public int drainTo(Collection<? super T> destination, int maxElements) {
+        Preconditions.checkArgument(destination != null, "destination cannot be NULL");
+        Preconditions.checkArgument(maxElements >= 0, "maxElements cannot be negative");
+
+        int count = Math.min(maxElements, nodes.size());
+        if (count > 0 && count >= nodes.size() / 2) {
+            List<T> sorted = new ArrayList<>(nodes);
+            sorted.sort(removalOrder);
+            destination.addAll(sorted.subList(0, count));
+
+            clearNodes();
+            sorted.subList(count, sorted.size()).forEach(this::addNode);
+
+            if (metrics != null) {
+                metrics.recordRemoves(count);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                destination.add(removeRoot());
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Removes and returns the element at the provided location in the BinaryHeap, moving the last element
+     * into the vacated slot and then bubbling it up or down to its proper location
+     */
+    T removeAt(int index) {
+        T result = nodes.get(index); // this is what we'll return at the end of this method
         T last = nodes.remove(nodes.size() - 1);
 
-        if (result == last) {
-            return result; //only one item in heap, so just return it
+        if (metrics != null) {
+            metrics.recordRemoves(1);
+        }
+
+        if (index == nodes.size()) {
+            return result; //removed the last item in the heap, so nothing needs to move
         }
 
-        // otherwise, move what is now the last node to the top of the heap and then bubble down to it's proper location
+        // otherwise, move what is now the last node into the vacated slot and then bubble it to its proper location
 
-        nodes.set(0, last);
+        setNode(index, last);
 
         if (nodes.size() > 1) {
-            heapify(0);
+            heapify(index);
         }
 
         return result;
     }
 
-    private void heapify(int outOfPlaceNodeIndex) {
-        T outOfPlaceNode = nodes.get(outOfPlaceNodeIndex);
+    /**
+     * Removes and returns the root using bottom-up deletion: the hole left at the root is walked all the way
+     * down to a leaf by promoting the best child at each level, and only then is the last node dropped into
+     * it and bubbled up.  The last node almost always belongs near the bottom, so this skips the comparison
+     * against the sinking node that bubbleDown() makes at every level.  The heap must not be empty
+     */
+    T removeRoot() {
+        T result = nodes.get(0);
+        T last = nodes.remove(nodes.size() - 1);
 
-        int parentIndex = getParentIndex(outOfPlaceNodeIndex);
-        if (isIndexValid(parentIndex) && compare(outOfPlaceNode, nodes.get(parentIndex)) <= 0) {
-            // node is <= its parent, so need to bubble it up
-            bubbleUp(outOfPlaceNodeIndex);
-        } else {
-            // node is potentially > one of its children, so may need to bubble it down
+        if (metrics != null) {
+            metrics.recordRemoves(1);
+        }
+        if (nodes.isEmpty()) {
+            return result;
+        }
+
+        int holeIndex = 0;
+        int levels = 0;
+        int firstChildIndex = getFirstChildIndex(holeIndex);
+        while (isIndexValid(firstChildIndex)) {
+            int smallestChildIndex = firstChildIndex;
+            T smallestChild = nodes.get(firstChildIndex);
+            int lastChildIndex = Math.min(firstChildIndex + arity, nodes.size()) - 1;
+            for (int childIndex = firstChildIndex + 1; childIndex <= lastChildIndex; childIndex++) {
+                T child = nodes.get(childIndex);
+                if (compare(child, smallestChild) < 0) {
+                    smallestChildIndex = childIndex;
+                    smallestChild = child;
+                }
+            }
+            setNode(holeIndex, smallestChild);
+            holeIndex = smallestChildIndex;
+            firstChildIndex = getFirstChildIndex(holeIndex);
+            levels++;
+        }
+
+        if (metrics != null) {
+            metrics.recordBubbleDown(levels);
+        }
+        setNode(holeIndex, last);
+        bubbleUp(holeIndex);
+        return result;
+    }
+
+    private void appendAndRebuild(Collection<? extends T> newValues) {
+        // validate everything up front so a bad value can't leave the heap half-built
+        newValues.forEach(newValue ->
+                Preconditions.checkArgument(newValue != null, "newValue to insert into the heap cannot be NULL"));
+        newValues.forEach(this::addNode);
+        if (metrics != null) {
+            metrics.recordInserts(newValues.size(), nodes.size());
+        }
+
+        rebuild();
+    }
+
+    private void rebuild() {
+        // every node past the last parent is a leaf and so is trivially a valid heap; working backwards from
+        // the last parent, bubble each node down so the subtree rooted there becomes a valid heap as well
+        for (int i = getParentIndex(nodes.size() - 1); i >= 0; i--) {
+            bubbleDown(i);
+        }
+    }
+
+    void heapify(int outOfPlaceNodeIndex) {
+        // if the node doesn't belong above its parent then it's potentially below one of its children, so may
+        // need to bubble it down instead
+        if (bubbleUp(outOfPlaceNodeIndex) == outOfPlaceNodeIndex) {
             bubbleDown(outOfPlaceNodeIndex);
         }
     }
@@ -138,39 +369,46 @@ public class BinaryHeap<T> {
             throw new IllegalArgumentException("nodeToBubbleDownIndex must point to a valid, non-null location in the BinaryHeap");
         }
 
-        int leftChildIndex = getLeftChildIndex(nodeToBubbleDownIndex);
-        int rightChildIndex = getRightChildIndex(nodeToBubbleDownIndex);
-
-        if ((isIndexValid(leftChildIndex) && compare(nodes.get(leftChildIndex), nodeToBubbleDown) <= 0)
-                || (isIndexValid(rightChildIndex) && compare(nodes.get(rightChildIndex), nodeToBubbleDown) <= 0)) {
-            // node is greater than one of its children, so bubble it down
-            // now, drop down to right location in BinaryHeap
-
-            int finalIndexForNodeToBubbleDown = nodeToBubbleDownIndex;
-
-            // Shift nodes up as long as they are greater than the node to bubble down, then once we find where
-            // the node to bubble down goes we copy it in.  This saves some copies by avoiding repeated swaps of the
-            // node to bubble down
-            while ((isIndexValid(leftChildIndex) && compare(nodeToBubbleDown, nodes.get(leftChildIndex)) > 0)
-                    || (isIndexValid(rightChildIndex) && compare(nodeToBubbleDown, nodes.get(rightChildIndex)) > 0)) {
-                if (isIndexValid(leftChildIndex)
-                        && (!isIndexValid(rightChildIndex)
-                            || compare(nodes.get(leftChildIndex), nodes.get(rightChildIndex))<=0)) {
-                    nodes.set(finalIndexForNodeToBubbleDown, nodes.get(leftChildIndex));
-                    finalIndexForNodeToBubbleDown = leftChildIndex;
-                } else {
-                    nodes.set(finalIndexForNodeToBubbleDown, nodes.get(rightChildIndex));
-                    finalIndexForNodeToBubbleDown = rightChildIndex;
+        int finalIndexForNodeToBubbleDown = nodeToBubbleDownIndex;
+        int firstChildIndex = getFirstChildIndex(finalIndexForNodeToBubbleDown);
+        int levels = 0;
+
+        // Shift the smallest child up as long as it is less than the node to bubble down, then once we find where
+        // the node to bubble down goes we copy it in.  This saves some copies by avoiding repeated swaps of the
+        // node to bubble down
+        while (isIndexValid(firstChildIndex)) {
+            int smallestChildIndex = firstChildIndex;
+            T smallestChild = nodes.get(firstChildIndex);
+            int lastChildIndex = Math.min(firstChildIndex + arity, nodes.size()) - 1;
+            for (int childIndex = firstChildIndex + 1; childIndex <= lastChildIndex; childIndex++) {
+                T child = nodes.get(childIndex);
+                if (compare(child, smallestChild) < 0) {
+                    smallestChildIndex = childIndex;
+                    smallestChild = child;
                 }
-
-                leftChildIndex = getLeftChildIndex(finalIndexForNodeToBubbleDown);
-                rightChildIndex = getRightChildIndex(finalIndexForNodeToBubbleDown);
             }
-            nodes.set(finalIndexForNodeToBubbleDown, nodeToBubbleDown);
+            if (compare(nodeToBubbleDown, smallestChild) <= 0) {
+                break;
+            }
+
+            setNode(finalIndexForNodeToBubbleDown, smallestChild);
+            finalIndexForNodeToBubbleDown = smallestChildIndex;
+            firstChildIndex = getFirstChildIndex(finalIndexForNodeToBubbleDown);
+            levels++;
+        }
+
+        if (finalIndexForNodeToBubbleDown != nodeToBubbleDownIndex) {
+            setNode(finalIndexForNodeToBubbleDown, nodeToBubbleDown);
+        }
+        if (metrics != null) {
+            metrics.recordBubbleDown(levels);
         }
     }
 
-    void bubbleUp(int nodeToBubbleUpIndex) {
+    /**
+     * @return the index the node ended up at
+     */
+    int bubbleUp(int nodeToBubbleUpIndex) {
         // Shift nodes down as long as they are greater than the node to bubble up, then once we find where
         // the node to bubble up goes we copy it in.  This saves some copies by avoiding repeated swaps of the
         // node to bubble up
@@ -180,14 +418,52 @@ public class BinaryHeap<T> {
         }
 
         int finalIndexForNodeToBubbleUp = nodeToBubbleUpIndex;
+        int parentIndex = getParentIndex(finalIndexForNodeToBubbleUp);
+        int levels = 0;
+
+        while (isIndexValid(parentIndex) && compare(nodeToBubbleUp, nodes.get(parentIndex)) < 0) {
+            setNode(finalIndexForNodeToBubbleUp, nodes.get(parentIndex));
+            finalIndexForNodeToBubbleUp = parentIndex;
+            parentIndex = getParentIndex(finalIndexForNodeToBubbleUp);
+            levels++;
+        }
 
-        while (isIndexValid(getParentIndex(finalIndexForNodeToBubbleUp))
-                && compare(nodeToBubbleUp, nodes.get(getParentIndex(finalIndexForNodeToBubbleUp))) <= 0) {
-            nodes.set(finalIndexForNodeToBubbleUp, nodes.get(getParentIndex(finalIndexForNodeToBubbleUp)));
-            finalIndexForNodeToBubbleUp = getParentIndex(finalIndexForNodeToBubbleUp);
+        if (finalIndexForNodeToBubbleUp != nodeToBubbleUpIndex) {
+            setNode(finalIndexForNodeToBubbleUp, nodeToBubbleUp);
+        }
+        if (metrics != null) {
+            metrics.recordBubbleUp(levels);
         }
+        return finalIndexForNodeToBubbleUp;
+    }
+
+    /**
+     * All writes into the backing list funnel through this method and addNode(), so that subclasses can
+     * track where each element currently lives
+     */
+    void setNode(int index, T value) {
+        nodes.set(index, value);
+    }
+
+    void addNode(T value) {
+        if (nodes.size() == capacity) {
+            growCapacity();
+        }
+        nodes.add(value);
+    }
+
+    void clearNodes() {
+        nodes.clear();
+    }
 
-        nodes.set(finalIndexForNodeToBubbleUp, nodeToBubbleUp);
+    private void growCapacity() {
+        // grow by half again, as ArrayList itself would, but explicitly so that the growth can be counted
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity + 1L, capacity + (capacity >> 1)));
+        ((ArrayList<T>) nodes).ensureCapacity(newCapacity); // only views are anything else, and they never grow
+        capacity = newCapacity;
+        if (metrics != null) {
+            metrics.recordGrowth(newCapacity);
+        }
     }
 
     private T getNodeSafely(int nodeIndex) {
@@ -198,24 +474,49 @@ public class BinaryHeap<T> {
         return index >= 0 && index < nodes.size();
     }
 
-    private int getLeftChildIndex(int parent) {
-        return (2 * parent) + 1;
-    }
-
-    private int getRightChildIndex(int parent) {
-        return (2 * parent) + 2;
+    private int getFirstChildIndex(int parent) {
+        // guard against overflow for parents deep in very large heaps, since the result is only ever
+        // compared against the current size
+        long firstChild = ((long) arity * parent) + 1;
+        return (firstChild > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) firstChild);
     }
 
     private int getParentIndex(int child) {
         int intermediateResult = (child - 1);
-        return (intermediateResult < 0 ? intermediateResult : intermediateResult / 2);
+        return (intermediateResult < 0 ? intermediateResult : intermediateResult / arity);
+    }
+
+    /**
+     * Returns a snapshot of the elements currently in the heap, in heap (not sorted) order
+     */
+    List<T> elements() {
+        return new ArrayList<>(nodes);
+    }
+
+    /**
+     * Replaces the root of the heap with the provided element and moves it to its proper location, which is
+     * cheaper than a remove() followed by an insert()
+     * @return the element that was previously the root
+     */
+    T replaceRoot(T newRoot) {
+        T oldRoot = nodes.get(0);
+        setNode(0, newRoot);
+        bubbleDown(0);
+        return oldRoot;
+    }
+
+    /**
+     * Returns a comparator that orders elements the way a heap built with the provided comparator (or
+     * natural ordering, if it is null) and HeapOrder would return them, i.e. first-to-be-removed first
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Comparator<? super E> removalOrder(Comparator<? super E> comparator, HeapOrder ordering) {
+        Comparator<? super E> baseComparator = (comparator != null)
+                ? comparator : (Comparator<? super E>) (Comparator) Comparator.naturalOrder();
+        return (ordering == HeapOrder.DESC) ? baseComparator.reversed() : baseComparator;
     }
 
     private int compare(T e1, T e2) {
-        if (this.comparator != null) {
-            return ordering.orderModifier * this.comparator.compare(e1, e2);
-        } else {
-            return ordering.orderModifier * ((Comparable) e1).compareTo(e2);
-        }
+        return removalOrder.compare(e1, e2);
     }
 }
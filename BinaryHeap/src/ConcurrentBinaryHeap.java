@@ -0,0 +1,190 @@
+import com.google.common.base.Preconditions;
+
+import java.util.Comparator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe priority queue built from several independently locked BinaryHeaps (a "MultiQueue").
+ * Producers insert into a randomly chosen stripe, and consumers look at the roots of two randomly chosen
+ * stripes and remove the better of the two, so threads rarely contend for the same lock.
+ *
+ * The price of that scalability is relaxed ordering: remove() returns an element that is near the front
+ * of the queue with high probability, but it is not guaranteed to be the global minimum (or maximum) the
+ * way it is for a single BinaryHeap.  With one stripe the ordering is exact.
+ */
+public class ConcurrentBinaryHeap<T> {
+
+    private final BinaryHeap<T>[] stripes;
+    private final ReentrantLock[] locks;
+    // the current root of each stripe, published after every change so consumers can pick a stripe
+    // without taking its lock
+    private final AtomicReferenceArray<T> roots;
+    // one permit per element in the queue; released after an insert completes and acquired before a
+    // removal starts, so a consumer holding a permit is guaranteed to find an element in some stripe
+    private final Semaphore available = new Semaphore(0);
+    private final Comparator<? super T> ranking;
+
+    /**
+     * Constructs a concurrent heap with the provided number of stripes, ordering elements with the provided
+     * comparator (or by their natural ordering if it is null) in the provided direction
+     * @param stripes number of independently locked heaps, typically a small multiple of the thread count
+     * @param comparator Comparator to use for ordering elements returned by calls to remove(), may be null
+     * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentBinaryHeap(int stripes, Comparator<? super T> comparator, BinaryHeap.HeapOrder ordering) {
+        Preconditions.checkArgument(stripes >= 1, "stripes must be at least 1");
+
+        this.stripes = new BinaryHeap[stripes];
+        this.locks = new ReentrantLock[stripes];
+        this.roots = new AtomicReferenceArray<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new BinaryHeap<>(comparator, ordering);
+            this.locks[i] = new ReentrantLock();
+        }
+
+        this.ranking = BinaryHeap.removalOrder(comparator, ordering);
+    }
+
+    /**
+     * Constructs a concurrent heap that orders elements by their natural ordering, ascending, with two
+     * stripes per available processor
+     */
+    public ConcurrentBinaryHeap() {
+        this(2 * Runtime.getRuntime().availableProcessors(), null, BinaryHeap.HeapOrder.ASC);
+    }
+
+    public boolean isEmpty() {
+        return available.availablePermits() == 0;
+    }
+
+    public int size() {
+        return available.availablePermits();
+    }
+
+    public void insert(T newValue) {
+        Preconditions.checkArgument(newValue != null, "newValue to insert into the heap cannot be NULL");
+
+        int stripe = lockRandomStripe();
+        try {
+            stripes[stripe].insert(newValue);
+            roots.set(stripe, stripes[stripe].peek());
+        } finally {
+            locks[stripe].unlock();
+        }
+
+        available.release();
+    }
+
+    /**
+     * Removes and returns an element from the front of the queue without blocking
+     *
+     * @return an element at or near the front of the queue (see the class comment on relaxed ordering)
+     * @throws IllegalStateException if the queue is currently empty
+     */
+    public T remove() {
+        if (!available.tryAcquire()) {
+            throw new IllegalStateException("remove() called on ConcurrentBinaryHeap while it is currently empty");
+        }
+
+        return removeAcquired();
+    }
+
+    /**
+     * Removes and returns an element from the front of the queue, waiting up to the provided timeout for one
+     * to become available
+     *
+     * @return an element at or near the front of the queue, or null if the timeout elapsed first
+     */
+    public T take(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) {
+            return null;
+        }
+
+        return removeAcquired();
+    }
+
+    /**
+     * Removes and returns an element from the front of the queue, waiting as long as necessary for one to
+     * become available
+     */
+    public T take() throws InterruptedException {
+        available.acquire();
+        return removeAcquired();
+    }
+
+    private T removeAcquired() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (true) {
+            // pick the better root of two random stripes ("power of two choices"), then fall back to waiting on
+            // each stripe in turn in case the element this thread is owed is sitting somewhere neither sample saw
+            int first = random.nextInt(stripes.length);
+            int second = random.nextInt(stripes.length);
+            T firstRoot = roots.get(first);
+            T secondRoot = roots.get(second);
+
+            int stripe;
+            if (firstRoot == null) {
+                stripe = second;
+            } else if (secondRoot == null) {
+                stripe = first;
+            } else {
+                stripe = (ranking.compare(firstRoot, secondRoot) <= 0) ? first : second;
+            }
+
+            T result = removeFrom(stripe, false);
+            for (int i = 0; result == null && i < stripes.length; i++) {
+                result = removeFrom(i, true);
+            }
+
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    private T removeFrom(int stripe, boolean waitForLock) {
+        if (roots.get(stripe) == null) {
+            return null;
+        }
+        if (waitForLock) {
+            locks[stripe].lock();
+        } else if (!locks[stripe].tryLock()) {
+            return null;
+        }
+
+        try {
+            BinaryHeap<T> heap = stripes[stripe];
+            if (heap.isEmpty()) {
+                return null;
+            }
+
+            T result = heap.remove();
+            roots.set(stripe, heap.isEmpty() ? null : heap.peek());
+            return result;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    private int lockRandomStripe() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // a few attempts to find an uncontended stripe, then just wait for one
+        for (int attempt = 0; attempt < stripes.length; attempt++) {
+            int stripe = random.nextInt(stripes.length);
+            if (locks[stripe].tryLock()) {
+                return stripe;
+            }
+        }
+
+        int stripe = random.nextInt(stripes.length);
+        locks[stripe].lock();
+        return stripe;
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Counters describing how a BinaryHeap has been used, for working out whether its cost comes from the
+ * comparator, from deep sifts or from growing the backing storage.  Metrics are off by default and are
+ * switched on per heap with BinaryHeap.enableMetrics(); a heap that never enables them doesn't touch any of
+ * this.
+ *
+ * Like BinaryHeap itself this class is not thread-safe.  Use snapshot() to take an immutable copy of the
+ * counters for reporting.
+ */
+public class HeapMetrics {
+
+    // sift depths are bounded by the height of the heap, which is under 32 levels for any heap that fits
+    // in an int-indexed list, so each level gets its own bucket
+    static final int LEVEL_BUCKETS = 32;
+
+    private long inserts;
+    private long removes;
+    private long comparisons;
+    private final long[] bubbleUpLevels = new long[LEVEL_BUCKETS];
+    private final long[] bubbleDownLevels = new long[LEVEL_BUCKETS];
+    private long growthEvents;
+    private int capacity;
+    private int peakSize;
+
+    HeapMetrics(int capacity, int size) {
+        this.capacity = capacity;
+        this.peakSize = size;
+    }
+
+    /**
+     * Returns an immutable copy of the counters as they are right now
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Zeroes every counter.  The current capacity is kept, and the peak size restarts from the provided size
+     */
+    void reset(int size) {
+        inserts = 0;
+        removes = 0;
+        comparisons = 0;
+        Arrays.fill(bubbleUpLevels, 0);
+        Arrays.fill(bubbleDownLevels, 0);
+        growthEvents = 0;
+        peakSize = size;
+    }
+
+    void recordInserts(int count, int newSize) {
+        inserts += count;
+        peakSize = Math.max(peakSize, newSize);
+    }
+
+    void recordRemoves(int count) {
+        removes += count;
+    }
+
+    void recordBubbleUp(int levels) {
+        bubbleUpLevels[Math.min(levels, LEVEL_BUCKETS - 1)]++;
+    }
+
+    void recordBubbleDown(int levels) {
+        bubbleDownLevels[Math.min(levels, LEVEL_BUCKETS - 1)]++;
+    }
+
+    void recordGrowth(int newCapacity) {
+        growthEvents++;
+        capacity = newCapacity;
+    }
+
+    /**
+     * Wraps the provided comparator so that every comparison it makes is counted
+     */
+    <T> Comparator<T> counting(Comparator<T> comparator) {
+        return (e1, e2) -> {
+            comparisons++;
+            return comparator.compare(e1, e2);
+        };
+    }
+
+    /**
+     * An immutable copy of a heap's metrics at a point in time
+     */
+    public static final class Snapshot {
+        private final long inserts;
+        private final long removes;
+        private final long comparisons;
+        private final long[] bubbleUpLevels;
+        private final long[] bubbleDownLevels;
+        private final long growthEvents;
+        private final int capacity;
+        private final int peakSize;
+
+        private Snapshot(HeapMetrics metrics) {
+            this.inserts = metrics.inserts;
+            this.removes = metrics.removes;
+            this.comparisons = metrics.comparisons;
+            this.bubbleUpLevels = metrics.bubbleUpLevels.clone();
+            this.bubbleDownLevels = metrics.bubbleDownLevels.clone();
+            this.growthEvents = metrics.growthEvents;
+            this.capacity = metrics.capacity;
+            this.peakSize = metrics.peakSize;
+        }
+
+        public long getInserts() {
+            return inserts;
+        }
+
+        public long getRemoves() {
+            return removes;
+        }
+
+        /**
+         * Returns the number of times the heap's comparator was called, including the sort done by drainTo()
+         */
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        /**
+         * Returns a histogram of bubble-up sifts by the number of levels the node moved: element i counts
+         * the sifts that moved i levels, with the last element also counting anything deeper
+         */
+        public long[] getBubbleUpLevels() {
+            return bubbleUpLevels.clone();
+        }
+
+        /**
+         * Returns a histogram of bubble-down sifts by the number of levels the node (or, for remove(), the
+         * hole left at the root) moved, in the same form as getBubbleUpLevels()
+         */
+        public long[] getBubbleDownLevels() {
+            return bubbleDownLevels.clone();
+        }
+
+        /**
+         * Returns the number of times the backing storage had to grow to make room for more elements
+         */
+        public long getGrowthEvents() {
+            return growthEvents;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Returns the largest number of elements the heap has held since metrics were enabled or last reset
+         */
+        public int getPeakSize() {
+            return peakSize;
+        }
+
+        @Override
+        public String toString() {
+            return "HeapMetrics.Snapshot{inserts=" + inserts
+                    + ", removes=" + removes
+                    + ", comparisons=" + comparisons
+                    + ", bubbleUpLevels=" + histogramToString(bubbleUpLevels)
+                    + ", bubbleDownLevels=" + histogramToString(bubbleDownLevels)
+                    + ", growthEvents=" + growthEvents
+                    + ", capacity=" + capacity
+                    + ", peakSize=" + peakSize + "}";
+        }
+
+        private static String histogramToString(long[] histogram) {
+            // leave off the empty buckets past the deepest sift so the output stays readable
+            int length = histogram.length;
+            while (length > 0 && histogram[length - 1] == 0) {
+                length--;
+            }
+            return Arrays.toString(Arrays.copyOf(histogram, length));
+        }
+    }
+}
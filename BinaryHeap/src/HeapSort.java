@@ -0,0 +1,188 @@
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+
+/**
+ * In-place heap sort and partial sort of arrays, using the same sift logic as the heaps in this folder run
+ * directly over the caller's array: nothing is copied into an intermediate list, and the int[] and long[]
+ * overloads never box their values.
+ *
+ * partialSort() is the one to reach for when only the first n elements of a large array are needed.  It
+ * keeps the n smallest elements seen so far in a heap at the front of the array, so it runs in
+ * O(size log n) time rather than the O(size log size) of sorting everything.  Neither sort is stable.
+ *
+ * A full heap sort is several times slower than Arrays.sort(), whose cache-friendlier sorts win once most
+ * of the array has to be ordered anyway; on an array of a million values partialSort() was faster for n up
+ * to around a tenth of the array (see the "sort" scenario in BinaryHeapBenchmarks).
+ */
+public final class HeapSort {
+
+    private HeapSort() {
+    }
+
+    /**
+     * Sorts the array into ascending order according to the provided comparator, or the elements' natural
+     * ordering if it is null.  The array cannot contain nulls
+     */
+    public static <T> void sort(T[] a, Comparator<? super T> comparator) {
+        partialSort(a, Integer.MAX_VALUE, comparator);
+    }
+
+    /**
+     * Sorts the array into ascending order according to the elements' natural ordering.  The array cannot
+     * contain nulls
+     */
+    public static <T extends Comparable<? super T>> void sort(T[] a) {
+        sort(a, null);
+    }
+
+    public static void sort(int[] a) {
+        partialSort(a, Integer.MAX_VALUE);
+    }
+
+    public static void sort(long[] a) {
+        partialSort(a, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rearranges the array so that its first n elements are the n smallest according to the provided
+     * comparator (or the elements' natural ordering if it is null), in ascending order.  The order of the
+     * remaining elements is unspecified.  The array cannot contain nulls
+     * @param n number of elements to sort into place; if larger than the array the whole array is sorted
+     */
+    public static <T> void partialSort(T[] a, int n, Comparator<? super T> comparator) {
+        Preconditions.checkArgument(a != null, "array to sort cannot be NULL");
+        Preconditions.checkArgument(n >= 0, "n cannot be negative");
+        for (T element : a) {
+            Preconditions.checkArgument(element != null, "array to sort cannot contain NULL elements");
+        }
+
+        int count = Math.min(n, a.length);
+        if (count == 0) {
+            return;
+        }
+
+        // a descending heap over the front of the array keeps the largest of the smallest elements seen so
+        // far at its root, ready to be swapped out for anything smaller further along
+        BinaryHeap<T> heap = BinaryHeap.over(new ArrayView<>(a, count), comparator, BinaryHeap.HeapOrder.DESC);
+        Comparator<? super T> ascending = BinaryHeap.removalOrder(comparator, BinaryHeap.HeapOrder.ASC);
+        for (int i = count; i < a.length; i++) {
+            if (ascending.compare(a[i], heap.peek()) < 0) {
+                a[i] = heap.replaceRoot(a[i]);
+            }
+        }
+
+        // each remove() frees up the slot just past the end of the shrinking heap, which is exactly where the
+        // largest remaining element belongs
+        while (heap.size() > 1) {
+            T largest = heap.remove();
+            a[heap.size()] = largest;
+        }
+    }
+
+    /**
+     * Rearranges the array so that its first n elements are the n smallest according to their natural
+     * ordering, in ascending order.  The order of the remaining elements is unspecified.  The array cannot
+     * contain nulls
+     * @param n number of elements to sort into place; if larger than the array the whole array is sorted
+     */
+    public static <T extends Comparable<? super T>> void partialSort(T[] a, int n) {
+        partialSort(a, n, null);
+    }
+
+    /**
+     * Rearranges the array so that its first n values are the n smallest, in ascending order.  The order of
+     * the remaining values is unspecified
+     * @param n number of values to sort into place; if larger than the array the whole array is sorted
+     */
+    public static void partialSort(int[] a, int n) {
+        Preconditions.checkArgument(a != null, "array to sort cannot be NULL");
+        Preconditions.checkArgument(n >= 0, "n cannot be negative");
+
+        int count = Math.min(n, a.length);
+        if (count == 0) {
+            return;
+        }
+
+        IntBinaryHeap heap = new IntBinaryHeap(a, count, BinaryHeap.HeapOrder.DESC);
+        for (int i = count; i < a.length; i++) {
+            if (a[i] < heap.peek()) {
+                a[i] = heap.replaceRoot(a[i]);
+            }
+        }
+
+        while (heap.size() > 1) {
+            int largest = heap.remove();
+            a[heap.size()] = largest;
+        }
+    }
+
+    /**
+     * Rearranges the array so that its first n values are the n smallest, in ascending order.  The order of
+     * the remaining values is unspecified
+     * @param n number of values to sort into place; if larger than the array the whole array is sorted
+     */
+    public static void partialSort(long[] a, int n) {
+        Preconditions.checkArgument(a != null, "array to sort cannot be NULL");
+        Preconditions.checkArgument(n >= 0, "n cannot be negative");
+
+        int count = Math.min(n, a.length);
+        if (count == 0) {
+            return;
+        }
+
+        LongBinaryHeap heap = new LongBinaryHeap(a, count, BinaryHeap.HeapOrder.DESC);
+        for (int i = count; i < a.length; i++) {
+            if (a[i] < heap.peek()) {
+                a[i] = heap.replaceRoot(a[i]);
+            }
+        }
+
+        while (heap.size() > 1) {
+            long largest = heap.remove();
+            a[heap.size()] = largest;
+        }
+    }
+
+    /**
+     * A fixed window onto the front of an array that a BinaryHeap can use as its backing list.  The only
+     * structural change supported is removing the last element, which just shrinks the window and leaves
+     * the array slot untouched
+     */
+    private static class ArrayView<T> extends AbstractList<T> {
+        private final T[] array;
+        private int size;
+
+        ArrayView(T[] array, int size) {
+            this.array = array;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            return array[index];
+        }
+
+        @Override
+        public T set(int index, T element) {
+            T previous = array[index];
+            array[index] = element;
+            return previous;
+        }
+
+        @Override
+        public T remove(int index) {
+            if (index != size - 1) {
+                throw new UnsupportedOperationException("only the last element can be removed from an ArrayView");
+            }
+            size--;
+            return array[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
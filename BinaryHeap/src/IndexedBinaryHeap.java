@@ -0,0 +1,186 @@
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A BinaryHeap that tracks the current location of every element it holds, which allows elements to be
+ * looked up in O(1) and removed or re-prioritized in O(log n) without having to drain the heap.  This is
+ * intended for Dijkstra-style workloads where an element's priority changes while it is in the heap:
+ * rather than inserting a duplicate and filtering out stale copies later, the caller updates whatever
+ * the heap's comparator looks at and then calls {@link #decreaseKey(Object)} or {@link #increaseKey(Object)}.
+ *
+ * The elements themselves act as their own handles, found through a HashMap from each element to its
+ * position.  Elements that are equal by equals() are therefore the same element as far as the heap is
+ * concerned, so two of them can't be in the heap at once, and the fields equals() and hashCode() look at
+ * must not change while an element is in the heap; keep an element's priority in other fields.  Each
+ * element's position is a mutable int held by the map, so moving an element during a sift updates it in
+ * place rather than boxing a new Integer.
+ */
+public class IndexedBinaryHeap<T> extends BinaryHeap<T> {
+
+    private final Map<T, Position> positions = new HashMap<>();
+
+    /**
+     * The index in the heap of the element it is mapped from, updated in place as the element moves
+     */
+    private static class Position {
+        private int index;
+
+        Position(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * Constructs an indexed heap that uses the provided sort order (ascending or descending) and
+     * the elements' natural ordering
+     * @param ordering desired ordering of the returned elements (ascending or descending)
+     */
+    public IndexedBinaryHeap(HeapOrder ordering) {
+        super(ordering);
+    }
+
+    /**
+     * Constructs an indexed heap that uses the provided comparator and sort order (ascending or descending)
+     * @param comparator Comparator to use for ordering elements returned by calls to remove()
+     * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
+     */
+    public IndexedBinaryHeap(Comparator<? super T> comparator, HeapOrder ordering) {
+        super(comparator, ordering);
+    }
+
+    /**
+     * Constructs an indexed heap that orders elements by their natural ordering, ascending
+     */
+    public IndexedBinaryHeap() {
+        super();
+    }
+
+    /**
+     * Constructs an indexed heap that orders elements with the provided comparator, ascending
+     * @param comparator Comparator to use for ordering elements returned by calls to remove()
+     */
+    public IndexedBinaryHeap(Comparator<? super T> comparator) {
+        super(comparator);
+    }
+
+    public boolean contains(T element) {
+        return positions.containsKey(element);
+    }
+
+    @Override
+    public void insert(T newValue) {
+        Preconditions.checkArgument(newValue != null, "newValue to insert into the heap cannot be NULL");
+        Preconditions.checkArgument(!contains(newValue), "newValue is already present in the heap");
+        super.insert(newValue);
+    }
+
+    @Override
+    public void insertAll(Collection<? extends T> newValues) {
+        Set<T> distinctNewValues = new HashSet<>(newValues);
+        Preconditions.checkArgument(distinctNewValues.size() == newValues.size(),
+                "newValues cannot contain the same element more than once");
+        distinctNewValues.forEach(newValue ->
+                Preconditions.checkArgument(!contains(newValue), "newValue is already present in the heap"));
+        super.insertAll(newValues);
+    }
+
+    /**
+     * Removes the provided element from the heap, wherever it currently is
+     * @return true if the element was present in the heap, false otherwise
+     */
+    public boolean remove(T element) {
+        Position position = positions.get(element);
+        if (position == null) {
+            return false;
+        }
+
+        removeAt(position.index);
+        return true;
+    }
+
+    /**
+     * Restores the heap order after the provided element's priority has been lowered, i.e. it now
+     * compares lower than it did before (under HeapOrder.ASC it can only move toward the root)
+     */
+    public void decreaseKey(T element) {
+        reposition(element);
+    }
+
+    /**
+     * Restores the heap order after the provided element's priority has been raised, i.e. it now
+     * compares higher than it did before (under HeapOrder.ASC it can only move away from the root)
+     */
+    public void increaseKey(T element) {
+        reposition(element);
+    }
+
+    /**
+     * Swaps an element in the heap for a replacement (e.g. an immutable value with a new priority) and moves
+     * the replacement to its proper location
+     */
+    public void replace(T existing, T replacement) {
+        Preconditions.checkArgument(replacement != null, "replacement cannot be NULL");
+        Preconditions.checkArgument(existing.equals(replacement) || !contains(replacement),
+                "replacement is already present in the heap");
+        int position = getPosition(existing);
+
+        positions.remove(existing);
+        setNode(position, replacement);
+        heapify(position);
+    }
+
+    private void reposition(T element) {
+        heapify(getPosition(element));
+    }
+
+    private int getPosition(T element) {
+        Position position = positions.get(element);
+        if (position == null) {
+            throw new IllegalArgumentException("element " + element + " is not present in the heap");
+        }
+        return position.index;
+    }
+
+    @Override
+    T removeAt(int index) {
+        T result = super.removeAt(index);
+        positions.remove(result);
+        return result;
+    }
+
+    @Override
+    T removeRoot() {
+        T result = super.removeRoot();
+        positions.remove(result);
+        return result;
+    }
+
+    @Override
+    void setNode(int index, T value) {
+        super.setNode(index, value);
+        Position position = positions.get(value);
+        if (position == null) {
+            positions.put(value, new Position(index)); // a replacement, the only element set before it is added
+        } else {
+            position.index = index;
+        }
+    }
+
+    @Override
+    void addNode(T value) {
+        positions.put(value, new Position(size()));
+        super.addNode(value);
+    }
+
+    @Override
+    void clearNodes() {
+        super.clearNodes();
+        positions.clear();
+    }
+}
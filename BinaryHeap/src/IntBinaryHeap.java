@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * A BinaryHeap specialized for primitive int values.  Elements are kept in a raw int[] that doubles in size
+ * whenever it fills up, so once the heap has grown to its working size the insert() and remove() operations
+ * allocate nothing and never box their values.  Ordering follows the same {@link BinaryHeap.HeapOrder}
+ * semantics as {@link BinaryHeap}: ascending by default (each call to remove() returns the current minimum).
+ */
+public class IntBinaryHeap {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 100;
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // the largest array some VMs can allocate
+    private int[] nodes;
+    private int size;
+    private final boolean ascending;
+
+    /**
+     * Constructs a heap that returns values in the provided sort order (ascending or descending)
+     * @param ordering desired ordering of the returned values (ascending or descending)
+     * @param initialCapacity number of values the heap can hold before it first needs to grow
+     */
+    public IntBinaryHeap(BinaryHeap.HeapOrder ordering, int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be at least 1");
+        }
+        nodes = new int[initialCapacity];
+        size = 0;
+        ascending = (ordering == BinaryHeap.HeapOrder.ASC);
+    }
+
+    /**
+     * Constructs a heap that returns values in the provided sort order (ascending or descending)
+     * @param ordering desired ordering of the returned values (ascending or descending)
+     */
+    public IntBinaryHeap(BinaryHeap.HeapOrder ordering) {
+        this(ordering, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a heap that returns values in ascending order
+     */
+    public IntBinaryHeap() {
+        this(BinaryHeap.HeapOrder.ASC);
+    }
+
+    /**
+     * Constructs a heap directly over the first size values of the provided array, without copying it, and
+     * rearranges those values into heap order.  Used by HeapSort to sift a caller's array in place; nothing
+     * may be inserted into a heap built this way, since growing would copy it away from the caller's array
+     */
+    IntBinaryHeap(int[] values, int size, BinaryHeap.HeapOrder ordering) {
+        nodes = values;
+        this.size = size;
+        ascending = (ordering == BinaryHeap.HeapOrder.ASC);
+        for (int i = (size / 2) - 1; i >= 0; i--) {
+            bubbleDown(i);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void insertAll(int[] newValues) {
+        for (int newValue : newValues) {
+            insert(newValue);
+        }
+    }
+
+    public void insert(int newValue) {
+        if (size == nodes.length) {
+            if (size == MAX_CAPACITY) {
+                throw new IllegalStateException("IntBinaryHeap cannot hold more than " + MAX_CAPACITY + " values");
+            }
+            nodes = Arrays.copyOf(nodes, grownCapacity(nodes.length));
+        }
+        nodes[size] = newValue;
+        bubbleUp(size++);
+    }
+
+    /**
+     * Returns, without removing it, the root value of the heap
+     *
+     * @return the minimum or maximum value remaining in the heap, depending on the ordering specified
+     * at construction (HeapOrder.ASC or HeapOrder.DESC)
+     */
+    public int peek() {
+        if (isEmpty()) {
+            throw new IllegalStateException("peek() called on IntBinaryHeap while it is currently empty");
+        }
+        return nodes[0];
+    }
+
+    /**
+     * Removes and returns the root value from the heap.  Depending on the ordering specified during
+     * the heap's construction this will either be the minimum or maximum value remaining in the heap
+     *
+     * @return the minimum or maximum value remaining in the heap, depending on the ordering specified
+     * at construction (HeapOrder.ASC or HeapOrder.DESC)
+     */
+    public int remove() {
+        if (isEmpty()) {
+            throw new IllegalStateException("remove() called on IntBinaryHeap while it is currently empty");
+        }
+
+        int result = nodes[0];
+        int last = nodes[--size];
+
+        if (size > 0) {
+            // move what was the last node to the top of the heap and then bubble down to its proper location
+            nodes[0] = last;
+            bubbleDown(0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Replaces the root of the heap with the provided value and moves it to its proper location, which is
+     * cheaper than a remove() followed by an insert().  The heap must not be empty
+     * @return the value that was previously the root
+     */
+    int replaceRoot(int newRoot) {
+        int oldRoot = nodes[0];
+        nodes[0] = newRoot;
+        bubbleDown(0);
+        return oldRoot;
+    }
+
+    void bubbleDown(int nodeToBubbleDownIndex) {
+        // Shift the better child up as long as it belongs above the node to bubble down, then once we find where
+        // the node to bubble down goes we copy it in.  This saves copies by avoiding repeated swaps.
+        int nodeToBubbleDown = nodes[nodeToBubbleDownIndex];
+        int finalIndex = nodeToBubbleDownIndex;
+
+        int childIndex = firstChildIndex(finalIndex);
+        while (childIndex < size) {
+            int rightChildIndex = childIndex + 1;
+            if (rightChildIndex < size && precedes(nodes[rightChildIndex], nodes[childIndex])) {
+                childIndex = rightChildIndex;
+            }
+
+            if (!precedes(nodes[childIndex], nodeToBubbleDown)) {
+                break;
+            }
+
+            nodes[finalIndex] = nodes[childIndex];
+            finalIndex = childIndex;
+            childIndex = firstChildIndex(finalIndex);
+        }
+
+        nodes[finalIndex] = nodeToBubbleDown;
+    }
+
+    void bubbleUp(int nodeToBubbleUpIndex) {
+        // Shift parents down as long as the node to bubble up belongs above them, then copy it into the
+        // final slot
+        int nodeToBubbleUp = nodes[nodeToBubbleUpIndex];
+        int finalIndex = nodeToBubbleUpIndex;
+
+        while (finalIndex > 0) {
+            int parentIndex = (finalIndex - 1) / 2;
+            if (!precedes(nodeToBubbleUp, nodes[parentIndex])) {
+                break;
+            }
+            nodes[finalIndex] = nodes[parentIndex];
+            finalIndex = parentIndex;
+        }
+
+        nodes[finalIndex] = nodeToBubbleUp;
+    }
+
+    /**
+     * Returns the capacity to grow a full array of the provided capacity to: double it, but no more than
+     * MAX_CAPACITY
+     */
+    static int grownCapacity(int capacity) {
+        return (int) Math.min(MAX_CAPACITY, 2L * capacity);
+    }
+
+    /**
+     * Returns the index of the first child of the provided parent, or Integer.MAX_VALUE for parents deep
+     * enough in a very large heap that it would overflow; the result is only ever compared against the size
+     */
+    static int firstChildIndex(int parent) {
+        long firstChild = (2L * parent) + 1;
+        return (firstChild > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) firstChild);
+    }
+
+    private boolean precedes(int v1, int v2) {
+        return ascending ? v1 < v2 : v1 > v2;
+    }
+}
@@ -0,0 +1,322 @@
+import com.google.common.base.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary heap of fixed-width records stored in a memory-mapped file rather than on the Java heap, for
+ * priority queues that are too large to keep as objects.  Each record is a long key, which determines the
+ * ordering, followed by a payload of a fixed number of bytes chosen when the file is created.  The sift
+ * logic is the same as BinaryHeap's but reads and writes the mapped records directly.
+ *
+ * The file is mapped in segments of whole records so that it can grow past the 2GB limit of a single
+ * MappedByteBuffer.  The first segment starts small and is remapped at twice the size each time it fills up,
+ * so a small heap only extends its file by as much as it needs; once it is full size, each new segment is
+ * mapped whole.  The number of records is kept in the file's header so the heap can be reopened
+ * after a restart.  Changes are only guaranteed to be on disk after flush() or close().
+ *
+ * File layout: a HEADER_SIZE byte header (magic, version, payload size, ordering, record count) followed
+ * by the records in heap order, all big-endian (the ByteBuffer default) so a file can be moved between
+ * machines.
+ */
+public class MappedBinaryHeap implements Closeable {
+
+    private static final int MAGIC = 0x48454150; // "HEAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int PAYLOAD_SIZE_OFFSET = 8;
+    private static final int ORDERING_OFFSET = 12;
+    private static final int SIZE_OFFSET = 16;
+    private static final int KEY_SIZE = Long.BYTES;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int INITIAL_SEGMENT_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final int payloadSize;
+    private final int recordSize;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final boolean ascending;
+    private final byte[] scratchRecord;
+    private int lastSegmentRecords; // the number of records mapped by the last segment, which may not be full size
+    private long size;
+
+    /**
+     * Opens the heap stored in the provided file, creating it if it doesn't exist yet
+     * @param file file backing the heap
+     * @param payloadSize number of payload bytes stored alongside each key; must match the existing file
+     * @param ordering desired ordering of the returned keys; must match the existing file
+     */
+    public MappedBinaryHeap(Path file, int payloadSize, BinaryHeap.HeapOrder ordering) throws IOException {
+        this(file, payloadSize, ordering, defaultRecordsPerSegment(payloadSize));
+    }
+
+    MappedBinaryHeap(Path file, int payloadSize, BinaryHeap.HeapOrder ordering, int recordsPerSegment) throws IOException {
+        checkPayloadSize(payloadSize);
+        Preconditions.checkArgument(Integer.bitCount(recordsPerSegment) == 1, "recordsPerSegment must be a power of two");
+
+        this.payloadSize = payloadSize;
+        this.recordSize = KEY_SIZE + payloadSize;
+        this.segmentShift = Integer.numberOfTrailingZeros(recordsPerSegment);
+        this.segmentMask = recordsPerSegment - 1;
+        this.ascending = (ordering == BinaryHeap.HeapOrder.ASC);
+        this.scratchRecord = new byte[recordSize];
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean isNewFile = (channel.size() == 0);
+            if (!isNewFile && channel.size() < HEADER_SIZE) {
+                // checked before mapping the header, which would extend the file to fit it
+                throw new IllegalArgumentException(file + " is not a MappedBinaryHeap file");
+            }
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+            if (isNewFile) {
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putInt(PAYLOAD_SIZE_OFFSET, payloadSize);
+                header.putInt(ORDERING_OFFSET, ordering.ordinal());
+                header.putLong(SIZE_OFFSET, 0);
+            } else {
+                verifyHeader(file, payloadSize, ordering);
+            }
+
+            size = header.getLong(SIZE_OFFSET);
+            while (capacity() < size) {
+                growMapping();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public void insert(long key, byte[] payload) throws IOException {
+        Preconditions.checkArgument(payload != null && payload.length == payloadSize,
+                "payload must be exactly %s bytes", payloadSize);
+
+        if (size == capacity()) {
+            growMapping();
+        }
+
+        MappedByteBuffer segment = segmentFor(size);
+        int offset = offsetFor(size);
+        segment.putLong(offset, key);
+        segment.put(offset + KEY_SIZE, payload);
+
+        bubbleUp(size);
+        setSize(size + 1);
+    }
+
+    /**
+     * Returns, without removing it, the key of the root record
+     */
+    public long peekKey() {
+        if (isEmpty()) {
+            throw new IllegalStateException("peekKey() called on MappedBinaryHeap while it is currently empty");
+        }
+        return keyAt(0);
+    }
+
+    /**
+     * Removes the root record, copying its payload into the provided array
+     * @param payloadOut array of exactly payloadSize bytes to receive the removed record's payload, or null
+     *                   to discard it
+     * @return the key of the removed record, i.e. the minimum or maximum key remaining depending on the
+     * ordering specified at construction
+     */
+    public long remove(byte[] payloadOut) {
+        if (isEmpty()) {
+            throw new IllegalStateException("remove() called on MappedBinaryHeap while it is currently empty");
+        }
+        Preconditions.checkArgument(payloadOut == null || payloadOut.length == payloadSize,
+                "payloadOut must be exactly %s bytes", payloadSize);
+
+        MappedByteBuffer root = segments.get(0);
+        long result = root.getLong(0);
+        if (payloadOut != null) {
+            root.get(KEY_SIZE, payloadOut);
+        }
+
+        long lastIndex = size - 1;
+        if (lastIndex > 0) {
+            // move the last record to the top of the heap and then bubble it down to its proper location
+            copyRecord(lastIndex, 0);
+            setSize(lastIndex);
+            bubbleDown(0);
+        } else {
+            setSize(lastIndex);
+        }
+
+        return result;
+    }
+
+    public long remove() {
+        return remove(null);
+    }
+
+    /**
+     * Forces any changes made so far out to the backing file
+     */
+    public void flush() {
+        segments.forEach(MappedByteBuffer::force);
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void bubbleUp(long nodeToBubbleUpIndex) {
+        // Shift parents down as long as the record to bubble up belongs above them, then copy it into the
+        // final slot.  The record being moved is parked in scratchRecord in the meantime
+        readRecord(nodeToBubbleUpIndex, scratchRecord);
+        long key = keyAt(nodeToBubbleUpIndex);
+        long finalIndex = nodeToBubbleUpIndex;
+
+        while (finalIndex > 0) {
+            long parentIndex = (finalIndex - 1) / 2;
+            if (!precedes(key, keyAt(parentIndex))) {
+                break;
+            }
+            copyRecord(parentIndex, finalIndex);
+            finalIndex = parentIndex;
+        }
+
+        if (finalIndex != nodeToBubbleUpIndex) {
+            writeRecord(finalIndex, scratchRecord);
+        }
+    }
+
+    private void bubbleDown(long nodeToBubbleDownIndex) {
+        readRecord(nodeToBubbleDownIndex, scratchRecord);
+        long key = keyAt(nodeToBubbleDownIndex);
+        long finalIndex = nodeToBubbleDownIndex;
+
+        long childIndex = (2 * finalIndex) + 1;
+        while (childIndex < size) {
+            long rightChildIndex = childIndex + 1;
+            if (rightChildIndex < size && precedes(keyAt(rightChildIndex), keyAt(childIndex))) {
+                childIndex = rightChildIndex;
+            }
+
+            if (!precedes(keyAt(childIndex), key)) {
+                break;
+            }
+
+            copyRecord(childIndex, finalIndex);
+            finalIndex = childIndex;
+            childIndex = (2 * finalIndex) + 1;
+        }
+
+        if (finalIndex != nodeToBubbleDownIndex) {
+            writeRecord(finalIndex, scratchRecord);
+        }
+    }
+
+    private boolean precedes(long key1, long key2) {
+        return ascending ? key1 < key2 : key1 > key2;
+    }
+
+    private long keyAt(long index) {
+        return segmentFor(index).getLong(offsetFor(index));
+    }
+
+    private void readRecord(long index, byte[] record) {
+        segmentFor(index).get(offsetFor(index), record);
+    }
+
+    private void writeRecord(long index, byte[] record) {
+        segmentFor(index).put(offsetFor(index), record);
+    }
+
+    private void copyRecord(long fromIndex, long toIndex) {
+        segmentFor(toIndex).put(offsetFor(toIndex), segmentFor(fromIndex), offsetFor(fromIndex), recordSize);
+    }
+
+    private MappedByteBuffer segmentFor(long index) {
+        return segments.get((int) (index >>> segmentShift));
+    }
+
+    private int offsetFor(long index) {
+        return (int) (index & segmentMask) * recordSize;
+    }
+
+    private long capacity() {
+        return segments.isEmpty() ? 0 : ((long) (segments.size() - 1) << segmentShift) + lastSegmentRecords;
+    }
+
+    /**
+     * Maps room for more records: remaps the last segment at twice its size if it isn't full size yet, and
+     * otherwise maps a new full size segment after it, which doubles the capacity or more by itself.  Each
+     * segment starts at the same position it would if all of them were full size, so segmentFor() and
+     * offsetFor() don't depend on how far the last one has grown
+     */
+    private void growMapping() throws IOException {
+        long recordsPerSegment = segmentMask + 1;
+        long records;
+        if (segments.isEmpty()) {
+            records = Math.min(Math.max(1, INITIAL_SEGMENT_BYTES / recordSize), recordsPerSegment);
+        } else if (lastSegmentRecords < recordsPerSegment) {
+            segments.remove(segments.size() - 1);
+            records = Math.min(2L * lastSegmentRecords, recordsPerSegment);
+        } else {
+            records = recordsPerSegment;
+        }
+
+        long position = HEADER_SIZE + segments.size() * recordsPerSegment * recordSize;
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, records * recordSize));
+        lastSegmentRecords = (int) records;
+    }
+
+    private void setSize(long newSize) {
+        size = newSize;
+        header.putLong(SIZE_OFFSET, newSize);
+    }
+
+    /**
+     * Returns the largest power of two number of records with the provided payload size that fit in a segment
+     */
+    private static int defaultRecordsPerSegment(int payloadSize) {
+        checkPayloadSize(payloadSize);
+        return Integer.highestOneBit(MAX_SEGMENT_BYTES / (KEY_SIZE + payloadSize));
+    }
+
+    private static void checkPayloadSize(int payloadSize) {
+        Preconditions.checkArgument(payloadSize >= 0 && payloadSize <= MAX_SEGMENT_BYTES - KEY_SIZE,
+                "payloadSize must be between 0 and %s bytes", MAX_SEGMENT_BYTES - KEY_SIZE);
+    }
+
+    private void verifyHeader(Path file, int payloadSize, BinaryHeap.HeapOrder ordering) {
+        if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalArgumentException(file + " is not a MappedBinaryHeap file");
+        }
+        if (header.getInt(PAYLOAD_SIZE_OFFSET) != payloadSize) {
+            throw new IllegalArgumentException(file + " holds records with a payload of "
+                    + header.getInt(PAYLOAD_SIZE_OFFSET) + " bytes, not " + payloadSize);
+        }
+        if (header.getInt(ORDERING_OFFSET) != ordering.ordinal()) {
+            throw new IllegalArgumentException(file + " was created with a different HeapOrder than " + ordering);
+        }
+    }
+}
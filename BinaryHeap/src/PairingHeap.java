@@ -0,0 +1,189 @@
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * A pairing heap, offered alongside BinaryHeap for workloads that frequently merge heaps together.  Two
+ * pairing heaps can be melded in O(1) by linking their roots, where merging two BinaryHeaps means draining
+ * one into the other at O(n log n).  insert() is also O(1), and remove() is O(log n) amortized.
+ *
+ * Construction options mirror BinaryHeap's: elements are ordered by their natural ordering or by a supplied
+ * Comparator, in ascending (the default) or descending order.
+ */
+public class PairingHeap<T> {
+
+    private final BinaryHeap.HeapOrder ordering;
+    private final Comparator<? super T> comparator;
+    private final Comparator<? super T> removalOrder;
+    private Node<T> root;
+    private int size;
+
+    private static class Node<T> {
+        private final T value;
+        private Node<T> child;   // first (leftmost) child
+        private Node<T> sibling; // next sibling to the right
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Constructs a heap that provides a comparator to use for ordering the elements returned by calls to the
+     * remove() method, rather than their natural ordering if they have one, and also sorts them in the provided
+     * direction (ascending or descending)
+     * @param comparator Comparator to use for ordering elements returned by calls to remove(), may be null
+     * @param ordering HeapOrder to specify the sort order for elements returned by calls to remove()
+     */
+    public PairingHeap(Comparator<? super T> comparator, BinaryHeap.HeapOrder ordering) {
+        this.ordering = ordering;
+        this.comparator = comparator;
+        this.removalOrder = BinaryHeap.removalOrder(comparator, ordering);
+    }
+
+    /**
+     * Constructs a heap that uses the provided sort order (ascending or descending) and the elements' natural
+     * ordering
+     * @param ordering desired ordering of the returned elements (ascending or descending)
+     */
+    public PairingHeap(BinaryHeap.HeapOrder ordering) {
+        this(null, ordering);
+    }
+
+    /**
+     * Constructs a heap that orders elements with the provided comparator, ascending
+     * @param comparator Comparator to use for ordering elements returned by calls to remove()
+     */
+    public PairingHeap(Comparator<? super T> comparator) {
+        this(comparator, BinaryHeap.HeapOrder.ASC);
+    }
+
+    /**
+     * Constructs a heap that orders elements by their natural ordering, ascending
+     */
+    public PairingHeap() {
+        this(null, BinaryHeap.HeapOrder.ASC);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void insertAll(Collection<? extends T> newValues) {
+        newValues.forEach(this::insert);
+    }
+
+    public void insert(T newValue) {
+        Preconditions.checkArgument(newValue != null, "newValue to insert into the heap cannot be NULL");
+        root = (root == null) ? new Node<>(newValue) : link(root, new Node<>(newValue));
+        size++;
+    }
+
+    /**
+     * Returns, without removing it, the root element of the heap
+     */
+    public T peek() {
+        if (isEmpty()) {
+            throw new IllegalStateException("peek() called on PairingHeap while it is currently empty");
+        }
+        return root.value;
+    }
+
+    /**
+     * Removes and returns the root element from the heap.  Depending on the ordering specified during
+     * the heap's construction this will either be the minimum or maximum element remaining in the heap
+     */
+    public T remove() {
+        if (isEmpty()) {
+            throw new IllegalStateException("remove() called on PairingHeap while it is currently empty");
+        }
+
+        T result = root.value;
+        root = mergeChildren(root.child);
+        size--;
+        return result;
+    }
+
+    /**
+     * Moves every element of the other heap into this one in O(1), leaving the other heap empty.  Both heaps
+     * must have been constructed with the same comparator and HeapOrder
+     */
+    public void meld(PairingHeap<T> other) {
+        Preconditions.checkArgument(other != this, "a heap cannot be melded with itself");
+        Preconditions.checkArgument(other.ordering == this.ordering && other.comparator == this.comparator,
+                "heaps can only be melded if they were constructed with the same comparator and HeapOrder");
+
+        if (other.root != null) {
+            root = (root == null) ? other.root : link(root, other.root);
+            size += other.size;
+            other.root = null;
+            other.size = 0;
+        }
+    }
+
+    /**
+     * Makes the root that comes later in removal order the leftmost child of the other, returning whichever
+     * root ends up on top.  Both nodes must be roots (i.e. have no siblings)
+     */
+    private Node<T> link(Node<T> first, Node<T> second) {
+        if (removalOrder.compare(second.value, first.value) < 0) {
+            Node<T> temp = first;
+            first = second;
+            second = temp;
+        }
+
+        second.sibling = first.child;
+        first.child = second;
+        return first;
+    }
+
+    /**
+     * Combines a list of sibling subtrees into a single tree using the standard two-pass pairing: link
+     * them in pairs from left to right, then link the resulting trees from right to left.  Both passes are
+     * iterative so a long list of siblings can't overflow the stack
+     */
+    private Node<T> mergeChildren(Node<T> firstChild) {
+        if (firstChild == null) {
+            return null;
+        }
+
+        // first pass: link adjacent pairs, collecting the results in reverse order via their sibling pointers
+        Node<T> pairs = null;
+        Node<T> current = firstChild;
+        while (current != null) {
+            Node<T> first = current;
+            Node<T> second = first.sibling;
+            if (second == null) {
+                first.sibling = pairs;
+                pairs = first;
+                break;
+            }
+
+            current = second.sibling;
+            first.sibling = null;
+            second.sibling = null;
+
+            Node<T> linked = link(first, second);
+            linked.sibling = pairs;
+            pairs = linked;
+        }
+
+        // second pass: link the pairs together, working back from the rightmost
+        Node<T> result = pairs;
+        pairs = pairs.sibling;
+        result.sibling = null;
+        while (pairs != null) {
+            Node<T> next = pairs.sibling;
+            pairs.sibling = null;
+            result = link(result, pairs);
+            pairs = next;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,185 @@
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * A monotone priority queue for elements with small non-negative int keys, such as timestamps or the
+ * distances in a shortest-path search.  It returns elements in the same order as a BinaryHeap with
+ * HeapOrder.ASC, but requires that no element is inserted with a key smaller than that of the last element
+ * removed, which is always true of Dijkstra's algorithm and of most event queues.
+ *
+ * Elements are kept in 33 buckets according to the highest bit in which their key differs from the last
+ * key removed: bucket 0 holds keys equal to it, and bucket i keys that first differ in bit i - 1.  insert()
+ * is O(1), and remove() redistributes the lowest non-empty bucket only when bucket 0 runs out.  Since an
+ * element only ever moves to a lower bucket, each one is moved at most 32 times, so remove() costs
+ * O(log C) amortized where C is the largest key, and does no comparisons between elements at all.
+ */
+public class RadixHeap<T> {
+
+    private static final int BUCKET_COUNT = Integer.SIZE + 1;
+    private static final int DEFAULT_BUCKET_CAPACITY = 16;
+
+    private final ToIntFunction<? super T> keyFunction;
+    private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+    private int lastRemovedKey;
+    private int size;
+
+    /**
+     * A growable run of elements with their keys stored alongside, so keys are only computed once
+     */
+    private static class Bucket {
+        private int[] keys = new int[DEFAULT_BUCKET_CAPACITY];
+        private Object[] values = new Object[DEFAULT_BUCKET_CAPACITY];
+        private int size;
+
+        void add(int key, Object value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /**
+     * Constructs a heap that orders elements by the int key the provided function computes for them
+     * @param keyFunction computes each element's key, which must be non-negative; called once per insert()
+     */
+    public RadixHeap(ToIntFunction<? super T> keyFunction) {
+        Preconditions.checkArgument(keyFunction != null, "keyFunction cannot be NULL");
+        this.keyFunction = keyFunction;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void insertAll(Collection<? extends T> newValues) {
+        newValues.forEach(this::insert);
+    }
+
+    /**
+     * Inserts the provided value
+     * @throws IllegalArgumentException if the value's key is smaller than the key of the last element removed
+     */
+    public void insert(T newValue) {
+        Preconditions.checkArgument(newValue != null, "newValue to insert into the heap cannot be NULL");
+        int key = keyFunction.applyAsInt(newValue);
+        Preconditions.checkArgument(key >= lastRemovedKey,
+                "key %s is smaller than the last key removed (%s); RadixHeap keys must never decrease", key, lastRemovedKey);
+
+        buckets[bucketIndex(key)].add(key, newValue);
+        size++;
+    }
+
+    /**
+     * Returns, without removing it, an element with the minimum key remaining in the heap.  This leaves the
+     * buckets as they are, so as not to raise the smallest key insert() accepts; when bucket 0 is empty it
+     * scans the lowest non-empty bucket, which remove() would have redistributed anyway
+     */
+    public T peek() {
+        if (isEmpty()) {
+            throw new IllegalStateException("peek() called on RadixHeap while it is currently empty");
+        }
+        Bucket bucket = lowestNonEmptyBucket();
+        return element(bucket, minKeyIndex(bucket));
+    }
+
+    /**
+     * Returns the minimum key remaining in the heap; like peek(), this leaves the buckets as they are
+     */
+    public int peekKey() {
+        if (isEmpty()) {
+            throw new IllegalStateException("peekKey() called on RadixHeap while it is currently empty");
+        }
+        Bucket bucket = lowestNonEmptyBucket();
+        return bucket.keys[minKeyIndex(bucket)];
+    }
+
+    /**
+     * Removes and returns an element with the minimum key remaining in the heap.  Elements with equal keys
+     * are returned in no particular order
+     */
+    public T remove() {
+        if (isEmpty()) {
+            throw new IllegalStateException("remove() called on RadixHeap while it is currently empty");
+        }
+        refillFirstBucket();
+
+        Bucket first = buckets[0];
+        T result = element(first, --first.size);
+        first.values[first.size] = null;
+        size--;
+        return result;
+    }
+
+    /**
+     * If bucket 0 is empty, finds the lowest non-empty bucket, makes its minimum key the new last removed
+     * key and redistributes its elements, at least one of which lands in bucket 0.  Only called by remove(),
+     * which goes on to remove an element with that key.  The heap must not be empty
+     */
+    private void refillFirstBucket() {
+        if (buckets[0].size > 0) {
+            return;
+        }
+
+        Bucket bucket = lowestNonEmptyBucket();
+        lastRemovedKey = bucket.keys[minKeyIndex(bucket)];
+
+        // every key in this bucket agrees with the new last key above the bucket's bit, so each one moves to
+        // a strictly lower bucket and the bucket being emptied can't be refilled while we walk it
+        for (int i = 0; i < bucket.size; i++) {
+            buckets[bucketIndex(bucket.keys[i])].add(bucket.keys[i], bucket.values[i]);
+            bucket.values[i] = null;
+        }
+        bucket.size = 0;
+    }
+
+    /**
+     * Returns the lowest non-empty bucket; the heap must not be empty
+     */
+    private Bucket lowestNonEmptyBucket() {
+        int index = 0;
+        while (buckets[index].size == 0) {
+            index++;
+        }
+        return buckets[index];
+    }
+
+    /**
+     * Returns the index of an element with the minimum key in the provided bucket, which must not be empty.
+     * Every key in bucket 0 is the same, so the last one is returned to match remove()
+     */
+    private int minKeyIndex(Bucket bucket) {
+        if (bucket == buckets[0]) {
+            return bucket.size - 1;
+        }
+        int minIndex = 0;
+        for (int i = 1; i < bucket.size; i++) {
+            if (bucket.keys[i] < bucket.keys[minIndex]) {
+                minIndex = i;
+            }
+        }
+        return minIndex;
+    }
+
+    private int bucketIndex(int key) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(key ^ lastRemovedKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(Bucket bucket, int index) {
+        return (T) bucket.values[index];
+    }
+}
@@ -0,0 +1,109 @@
+import com.google.common.base.Preconditions;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * Keeps the K elements of a stream that a BinaryHeap with the same comparator and HeapOrder would return
+ * first, e.g. the K largest elements for HeapOrder.DESC, using O(K) memory no matter how long the stream is.
+ *
+ * Internally the retained elements live in a BinaryHeap with the opposite ordering, so its root is always
+ * the weakest element retained so far.  Once K elements are held, a candidate that doesn't beat that root
+ * is rejected after a single comparison, and one that does replaces the root in O(log K).
+ */
+public class TopKSelector<T> {
+
+    private final int k;
+    private final BinaryHeap<T> retained;
+    private final Comparator<? super T> removalOrder;
+
+    /**
+     * Constructs a selector that keeps the first k elements according to the provided comparator (or
+     * the elements' natural ordering if it is null) and sort order
+     * @param k number of elements to retain
+     * @param comparator Comparator used to rank elements, may be null
+     * @param ordering HeapOrder to rank by; ASC keeps the k smallest elements, DESC the k largest
+     */
+    public TopKSelector(int k, Comparator<? super T> comparator, BinaryHeap.HeapOrder ordering) {
+        Preconditions.checkArgument(k >= 1, "k must be at least 1");
+        this.k = k;
+        this.retained = new BinaryHeap<>(comparator, opposite(ordering));
+        this.removalOrder = BinaryHeap.removalOrder(comparator, ordering);
+    }
+
+    /**
+     * Constructs a selector that keeps the first k elements according to their natural ordering and the
+     * provided sort order
+     * @param k number of elements to retain
+     * @param ordering HeapOrder to rank by; ASC keeps the k smallest elements, DESC the k largest
+     */
+    public TopKSelector(int k, BinaryHeap.HeapOrder ordering) {
+        this(k, null, ordering);
+    }
+
+    /**
+     * Returns a Collector that selects the top k elements of a (possibly parallel) stream, returning them
+     * best-first
+     */
+    public static <T> Collector<T, ?, List<T>> toTopK(int k, Comparator<? super T> comparator, BinaryHeap.HeapOrder ordering) {
+        return Collector.of(
+                () -> new TopKSelector<T>(k, comparator, ordering),
+                TopKSelector::offer,
+                TopKSelector::merge,
+                TopKSelector::toSortedList);
+    }
+
+    public int size() {
+        return retained.size();
+    }
+
+    public boolean isEmpty() {
+        return retained.isEmpty();
+    }
+
+    /**
+     * Offers a candidate to the selector
+     * @return true if the candidate is currently among the top k elements, false if it was rejected
+     */
+    public boolean offer(T candidate) {
+        Preconditions.checkArgument(candidate != null, "candidate cannot be NULL");
+
+        if (retained.size() < k) {
+            retained.insert(candidate);
+            return true;
+        }
+
+        if (removalOrder.compare(candidate, retained.peek()) >= 0) {
+            // no better than the weakest element we're already holding
+            return false;
+        }
+
+        retained.replaceRoot(candidate);
+        return true;
+    }
+
+    /**
+     * Folds another selector's results into this one, e.g. to combine partial results computed by parallel
+     * workers.  The other selector is left unchanged
+     * @return this selector
+     */
+    public TopKSelector<T> merge(TopKSelector<? extends T> other) {
+        other.retained.elements().forEach(this::offer);
+        return this;
+    }
+
+    /**
+     * Returns the retained elements best-first, i.e. in the order a BinaryHeap with this selector's comparator
+     * and HeapOrder would return them
+     */
+    public List<T> toSortedList() {
+        List<T> result = retained.elements();
+        result.sort(removalOrder);
+        return result;
+    }
+
+    private static BinaryHeap.HeapOrder opposite(BinaryHeap.HeapOrder ordering) {
+        return (ordering == BinaryHeap.HeapOrder.ASC) ? BinaryHeap.HeapOrder.DESC : BinaryHeap.HeapOrder.ASC;
+    }
+}
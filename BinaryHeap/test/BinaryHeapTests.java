@@ -161,4 +161,123 @@ public class BinaryHeapTests {
             assertEquals(expected.get(idx++), heap.remove());
         }
     }
+
+    @Test
+    public void CollectionConstructorBuildsValidHeapTest() throws Exception {
+        Random r = new Random();
+        List<Integer> testData = Lists.newArrayList();
+        IntStream.range(0,500).forEach(i -> testData.add(r.nextInt(100)+1));
+
+        BinaryHeap<Integer> heap = new BinaryHeap<>(testData, null, BinaryHeap.HeapOrder.DESC);
+        assertEquals(500, heap.size());
+
+        testData.sort(Comparator.reverseOrder());
+        for (Integer expected : testData) {
+            assertEquals(expected, heap.remove());
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void InsertAllRebuildsNonEmptyHeapTest() throws Exception {
+        BinaryHeap<Integer> heap = new BinaryHeap<>(Lists.newArrayList(30, 10));
+
+        heap.insertAll(Lists.newArrayList(50, 20, 40, 5));
+        heap.insertAll(Lists.newArrayList(25));
+
+        List<Integer> expectedOrderOfRemoval = Lists.newArrayList(5, 10, 20, 25, 30, 40, 50);
+        for (Integer expected : expectedOrderOfRemoval) {
+            assertEquals(expected, heap.remove());
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void InsertAllWithNullValueLeavesHeapUnchangedTest() throws Exception {
+        BinaryHeap<Integer> heap = new BinaryHeap<>();
+        heap.insert(10);
+
+        boolean threwAsExpected = false;
+        try {
+            heap.insertAll(Lists.newArrayList(30, null, 20));
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to insertAll() did not throw the expected exception", threwAsExpected);
+        assertEquals(1, heap.size());
+        assertThat(10, equalTo(heap.remove()));
+    }
+
+    @Test
+    public void ArityLessThanTwoThrowsIAE() throws Exception {
+        boolean threwAsExpected = false;
+        try {
+            new BinaryHeap<Integer>(null, BinaryHeap.HeapOrder.ASC, 1);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("BinaryHeap constructor did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void LargeInsertAndRemoveWithWiderAritiesTest() throws Exception {
+        Random r = new Random();
+
+        for (int arity : new int[] {3, 4, 8}) {
+            for (BinaryHeap.HeapOrder order : BinaryHeap.HeapOrder.values()) {
+                BinaryHeap<Integer> heap = new BinaryHeap<>(null, order, arity);
+                List<Integer> testData = Lists.newArrayList();
+                IntStream.range(0,500).forEach(i -> testData.add(r.nextInt(100)+1));
+                heap.insertAll(testData.subList(0, 100));
+                testData.subList(100, 500).forEach(heap::insert);
+
+                testData.sort(order == BinaryHeap.HeapOrder.ASC ? Comparator.naturalOrder() : Comparator.reverseOrder());
+                for (Integer expected : testData) {
+                    assertEquals("arity " + arity + " heap returned elements out of order", expected, heap.remove());
+                }
+                assertTrue(heap.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void RemoveNReturnsElementsInRemovalOrderTest() throws Exception {
+        Random r = new Random();
+
+        for (BinaryHeap.HeapOrder order : BinaryHeap.HeapOrder.values()) {
+            for (int arity : new int[] {2, 4}) {
+                List<Integer> testData = Lists.newArrayList();
+                IntStream.range(0,500).forEach(i -> testData.add(r.nextInt(100)+1));
+                BinaryHeap<Integer> heap = new BinaryHeap<>(null, order, arity);
+                heap.insertAll(testData);
+                testData.sort(order == BinaryHeap.HeapOrder.ASC ? Comparator.naturalOrder() : Comparator.reverseOrder());
+
+                // a small batch is removed root by root, a large one by sorting what's left
+                assertEquals(testData.subList(0, 10), heap.removeN(10));
+                assertEquals(testData.subList(10, 400), heap.removeN(390));
+                assertEquals(testData.subList(400, 410), heap.removeN(10));
+                assertEquals(testData.get(410), heap.remove());
+                assertEquals(testData.subList(411, 500), heap.removeN(1000));
+                assertTrue(heap.isEmpty());
+                assertTrue(heap.removeN(5).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void DrainToAppendsToCollectionTest() throws Exception {
+        BinaryHeap<Integer> heap = new BinaryHeap<>(Lists.newArrayList(30, 10, 50, 20, 40));
+        List<Integer> destination = Lists.newArrayList(99);
+
+        assertEquals(2, heap.drainTo(destination, 2));
+        assertEquals(Lists.newArrayList(99, 10, 20), destination);
+        assertEquals(3, heap.size());
+
+        heap.insert(15);
+        assertEquals(4, heap.drainTo(destination, 10));
+        assertEquals(Lists.newArrayList(99, 10, 20, 15, 30, 40, 50), destination);
+        assertTrue(heap.isEmpty());
+    }
 }
@@ -0,0 +1,100 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentBinaryHeapTests {
+    @Test
+    public void RemoveFromEmptyHeapThrowsExceptionTest() throws Exception {
+        ConcurrentBinaryHeap<Integer> heap = new ConcurrentBinaryHeap<>();
+
+        boolean failedAsExpected = false;
+        try {
+            heap.remove();
+        } catch (IllegalStateException e) {
+            failedAsExpected = true;
+        }
+
+        assertTrue("remove() method call did not fail as expected", failedAsExpected);
+    }
+
+    @Test
+    public void SingleStripeReturnsExactOrderTest() throws Exception {
+        Random r = new Random();
+        ConcurrentBinaryHeap<Integer> heap = new ConcurrentBinaryHeap<>(1, null, BinaryHeap.HeapOrder.DESC);
+
+        IntStream.range(0,100).forEach(i -> heap.insert(r.nextInt(100)+1));
+        assertEquals(100, heap.size());
+
+        int lastNumberReturned = heap.remove();
+        while (!heap.isEmpty()) {
+            int nextNumber = heap.remove();
+            assertTrue("ConcurrentBinaryHeap incorrectly returned " + lastNumberReturned + " before " + nextNumber, lastNumberReturned >= nextNumber);
+            lastNumberReturned = nextNumber;
+        }
+    }
+
+    @Test
+    public void TakeWithTimeoutOnEmptyHeapReturnsNullTest() throws Exception {
+        ConcurrentBinaryHeap<Integer> heap = new ConcurrentBinaryHeap<>();
+
+        assertNull(heap.take(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void TakeWaitsForProducerTest() throws Exception {
+        ConcurrentBinaryHeap<Integer> heap = new ConcurrentBinaryHeap<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> taken = executor.submit(() -> heap.take(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            heap.insert(42);
+
+            assertEquals(Integer.valueOf(42), taken.get(5, TimeUnit.SECONDS));
+            assertTrue(heap.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void ConcurrentProducersAndConsumersSeeEveryElementOnceTest() throws Exception {
+        int threads = 4;
+        int elementsPerThread = 5000;
+        ConcurrentBinaryHeap<Integer> heap = new ConcurrentBinaryHeap<>(8, null, BinaryHeap.HeapOrder.ASC);
+        List<Integer> removed = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2 * threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * elementsPerThread;
+                futures.add(executor.submit(() -> IntStream.range(base, base + elementsPerThread).forEach(heap::insert)));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < elementsPerThread; i++) {
+                        removed.add(heap.take(5, TimeUnit.SECONDS));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(heap.isEmpty());
+        assertEquals(threads * elementsPerThread, removed.size());
+        Collections.sort(removed);
+        for (int i = 0; i < removed.size(); i++) {
+            assertEquals(Integer.valueOf(i), removed.get(i));
+        }
+    }
+}
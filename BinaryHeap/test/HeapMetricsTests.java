@@ -0,0 +1,77 @@
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class HeapMetricsTests {
+    @Test
+    public void CountsInsertsRemovesAndComparisonsTest() throws Exception {
+        int[] comparatorCalls = new int[1];
+        BinaryHeap<Integer> heap = new BinaryHeap<>((i, j) -> {
+            comparatorCalls[0]++;
+            return i.compareTo(j);
+        });
+        HeapMetrics metrics = heap.enableMetrics();
+
+        for (int i = 10; i > 0; i--) {
+            heap.insert(i);
+        }
+        heap.remove();
+        heap.remove();
+
+        HeapMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(10, snapshot.getInserts());
+        assertEquals(2, snapshot.getRemoves());
+        assertEquals(comparatorCalls[0], snapshot.getComparisons());
+        assertEquals(10, snapshot.getPeakSize());
+    }
+
+    @Test
+    public void RecordsSiftLevelsTest() throws Exception {
+        BinaryHeap<Integer> heap = new BinaryHeap<>();
+        HeapMetrics metrics = heap.enableMetrics();
+
+        // each new value is smaller than everything before it so bubbles all the way to the root
+        heap.insert(3);
+        heap.insert(2);
+        heap.insert(1);
+        heap.insert(0);
+
+        long[] bubbleUpLevels = metrics.snapshot().getBubbleUpLevels();
+        assertEquals(1, bubbleUpLevels[0]);
+        assertEquals(2, bubbleUpLevels[1]);
+        assertEquals(1, bubbleUpLevels[2]);
+        assertEquals(4, Arrays.stream(bubbleUpLevels).sum());
+    }
+
+    @Test
+    public void RecordsCapacityGrowthTest() throws Exception {
+        BinaryHeap<Integer> heap = new BinaryHeap<>(null, BinaryHeap.HeapOrder.ASC, 2, 4);
+        HeapMetrics metrics = heap.enableMetrics();
+
+        heap.insertAll(Lists.newArrayList(1, 2, 3, 4));
+        assertEquals(0, metrics.snapshot().getGrowthEvents());
+        assertEquals(4, metrics.snapshot().getCapacity());
+
+        heap.insert(5);
+        assertEquals(1, metrics.snapshot().getGrowthEvents());
+        assertEquals(6, metrics.snapshot().getCapacity());
+    }
+
+    @Test
+    public void SnapshotIsUnaffectedByLaterActivityTest() throws Exception {
+        BinaryHeap<Integer> heap = new BinaryHeap<>();
+        HeapMetrics metrics = heap.enableMetrics();
+        heap.insert(1);
+
+        HeapMetrics.Snapshot snapshot = metrics.snapshot();
+        heap.insert(2);
+        heap.resetMetrics();
+
+        assertEquals(1, snapshot.getInserts());
+        assertEquals(0, metrics.snapshot().getInserts());
+        assertEquals(2, metrics.snapshot().getPeakSize());
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HeapSortTests {
+    @Test
+    public void SortMatchesArraysSortTest() throws Exception {
+        Random r = new Random();
+        Integer[] values = new Integer[500];
+        Arrays.setAll(values, i -> r.nextInt(100));
+
+        Integer[] expected = values.clone();
+        Arrays.sort(expected);
+        HeapSort.sort(values);
+
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    public void PartialSortWithComparatorTest() throws Exception {
+        Random r = new Random();
+        for (int n : new int[] {0, 1, 7, 499, 500, 1000}) {
+            Integer[] values = new Integer[500];
+            Arrays.setAll(values, i -> r.nextInt(1000));
+
+            Integer[] expected = values.clone();
+            Arrays.sort(expected, Comparator.reverseOrder());
+            Integer[] sortedCopy = values.clone();
+            HeapSort.partialSort(values, n, Comparator.reverseOrder());
+
+            int count = Math.min(n, values.length);
+            assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(values, count));
+
+            // the rest of the array must still hold the remaining elements, in some order
+            Arrays.sort(sortedCopy);
+            Integer[] afterSort = values.clone();
+            Arrays.sort(afterSort);
+            assertArrayEquals(sortedCopy, afterSort);
+        }
+    }
+
+    @Test
+    public void PartialSortPrimitiveArraysTest() throws Exception {
+        Random r = new Random();
+        int[] ints = r.ints(1000).toArray();
+        long[] longs = r.longs(1000).toArray();
+
+        int[] expectedInts = ints.clone();
+        Arrays.sort(expectedInts);
+        long[] expectedLongs = longs.clone();
+        Arrays.sort(expectedLongs);
+
+        HeapSort.partialSort(ints, 50);
+        HeapSort.partialSort(longs, 50);
+        assertArrayEquals(Arrays.copyOf(expectedInts, 50), Arrays.copyOf(ints, 50));
+        assertArrayEquals(Arrays.copyOf(expectedLongs, 50), Arrays.copyOf(longs, 50));
+
+        HeapSort.sort(ints);
+        HeapSort.sort(longs);
+        assertArrayEquals(expectedInts, ints);
+        assertArrayEquals(expectedLongs, longs);
+    }
+
+    @Test
+    public void SortWithNullElementThrowsIAE() throws Exception {
+        Integer[] values = {3, null, 1};
+
+        boolean threwAsExpected = false;
+        try {
+            HeapSort.sort(values);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to sort() did not throw the expected exception", threwAsExpected);
+    }
+}
@@ -0,0 +1,163 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class IndexedBinaryHeapTests {
+    @Test
+    public void InsertDuplicateThrowsIAE() throws Exception {
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>();
+        heap.insert(10);
+
+        boolean threwAsExpected = false;
+        try {
+            heap.insert(10);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to insert() did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void ContainsTracksInsertsAndRemovesTest() throws Exception {
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>();
+        heap.insertAll(Arrays.asList(30, 10, 20));
+
+        assertTrue(heap.contains(10));
+        assertTrue(heap.contains(20));
+        assertTrue(heap.contains(30));
+        assertFalse(heap.contains(40));
+
+        assertEquals(Integer.valueOf(10), heap.remove());
+        assertFalse(heap.contains(10));
+        assertTrue(heap.contains(20));
+    }
+
+    @Test
+    public void RemoveArbitraryElementTest() throws Exception {
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>();
+        IntStream.rangeClosed(1, 20).forEach(heap::insert);
+
+        assertTrue(heap.remove(Integer.valueOf(7)));
+        assertTrue(heap.remove(Integer.valueOf(1)));
+        assertTrue(heap.remove(Integer.valueOf(20)));
+        assertFalse(heap.remove(Integer.valueOf(7)));
+
+        int expected = 2;
+        while (!heap.isEmpty()) {
+            if (expected == 7) {
+                expected++;
+            }
+            assertEquals(Integer.valueOf(expected++), heap.remove());
+        }
+        assertEquals(20, expected);
+    }
+
+    @Test
+    public void DecreaseAndIncreaseKeyReorderElementsTest() throws Exception {
+        Map<Character, Integer> priorities = new HashMap<>();
+        priorities.put('a', 10);
+        priorities.put('b', 20);
+        priorities.put('c', 30);
+        priorities.put('d', 40);
+
+        IndexedBinaryHeap<Character> heap = new IndexedBinaryHeap<>((c1, c2) -> Integer.compare(priorities.get(c1), priorities.get(c2)));
+        priorities.keySet().forEach(heap::insert);
+
+        priorities.put('d', 5);
+        heap.decreaseKey('d');
+        priorities.put('a', 35);
+        heap.increaseKey('a');
+
+        assertEquals(Character.valueOf('d'), heap.remove());
+        assertEquals(Character.valueOf('b'), heap.remove());
+        assertEquals(Character.valueOf('c'), heap.remove());
+        assertEquals(Character.valueOf('a'), heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void ReplaceWithDescendingOrderTest() throws Exception {
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>(BinaryHeap.HeapOrder.DESC);
+        heap.insertAll(Arrays.asList(10, 20, 30));
+
+        heap.replace(10, 40);
+        heap.replace(30, 5);
+
+        assertFalse(heap.contains(10));
+        assertEquals(Integer.valueOf(40), heap.remove());
+        assertEquals(Integer.valueOf(20), heap.remove());
+        assertEquals(Integer.valueOf(5), heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void RandomReprioritizationKeepsHeapOrderTest() throws Exception {
+        Random r = new Random();
+        int[] priorities = new int[200];
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>((i, j) -> Integer.compare(priorities[i], priorities[j]));
+
+        for (int i = 0; i < priorities.length; i++) {
+            priorities[i] = r.nextInt(1000);
+            heap.insert(i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            int element = r.nextInt(priorities.length);
+            int oldPriority = priorities[element];
+            priorities[element] = r.nextInt(1000);
+            if (priorities[element] < oldPriority) {
+                heap.decreaseKey(element);
+            } else {
+                heap.increaseKey(element);
+            }
+        }
+
+        int lastPriority = Integer.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            int nextPriority = priorities[heap.remove()];
+            assertTrue("IndexedBinaryHeap incorrectly returned " + lastPriority + " before " + nextPriority, lastPriority <= nextPriority);
+            lastPriority = nextPriority;
+        }
+    }
+
+    @Test
+    public void InsertAllWithDuplicateValuesThrowsIAE() throws Exception {
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>();
+        heap.insert(10);
+
+        boolean threwAsExpected = false;
+        try {
+            heap.insertAll(Arrays.asList(20, 30, 10));
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to insertAll() did not throw the expected exception", threwAsExpected);
+        assertEquals(1, heap.size());
+        assertFalse(heap.contains(20));
+    }
+
+    @Test
+    public void RemoveNKeepsPositionsConsistentTest() throws Exception {
+        IndexedBinaryHeap<Integer> heap = new IndexedBinaryHeap<>();
+        IntStream.rangeClosed(1, 20).forEach(heap::insert);
+
+        assertEquals(Arrays.asList(1, 2, 3), heap.removeN(3));
+        assertFalse(heap.contains(2));
+        assertTrue(heap.remove(Integer.valueOf(10)));
+
+        assertEquals(Arrays.asList(4, 5, 6, 7, 8, 9, 11, 12, 13), heap.removeN(9));
+        assertFalse(heap.contains(13));
+        assertTrue(heap.remove(Integer.valueOf(17)));
+        assertTrue(heap.contains(20));
+        assertEquals(Arrays.asList(14, 15, 16, 18, 19, 20), heap.removeN(10));
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class IntBinaryHeapTests {
+    @Test
+    public void AddRemoveOneItemTest() throws Exception {
+        IntBinaryHeap heap = new IntBinaryHeap();
+        heap.insert(10);
+
+        assertEquals(10, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void HeapHandlesDupeValuesTest() throws Exception {
+        IntBinaryHeap heap = new IntBinaryHeap();
+        heap.insert(10);
+        heap.insert(10);
+
+        assertEquals(10, heap.remove());
+        assertEquals(10, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void RemoveFromEmptyHeapThrowsExceptionTest() throws Exception {
+        IntBinaryHeap heap = new IntBinaryHeap();
+
+        boolean failedAsExpected = false;
+        try {
+            heap.remove();
+        } catch (IllegalStateException e) {
+            failedAsExpected = true;
+        }
+
+        assertTrue("remove() method call did not fail as expected", failedAsExpected);
+    }
+
+    @Test
+    public void HeapGrowsBeyondInitialCapacityTest() throws Exception {
+        IntBinaryHeap heap = new IntBinaryHeap(BinaryHeap.HeapOrder.ASC, 1);
+        heap.insertAll(new int[] {50, 40, 30, 20, 10});
+
+        assertEquals(5, heap.size());
+        assertEquals(10, heap.peek());
+        assertEquals(10, heap.remove());
+        assertEquals(20, heap.remove());
+        assertEquals(30, heap.remove());
+        assertEquals(40, heap.remove());
+        assertEquals(50, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void GrowthAndChildIndexesDoNotOverflowTest() throws Exception {
+        assertEquals(200, IntBinaryHeap.grownCapacity(100));
+        assertEquals(IntBinaryHeap.MAX_CAPACITY, IntBinaryHeap.grownCapacity(1 << 30));
+        assertEquals(IntBinaryHeap.MAX_CAPACITY, IntBinaryHeap.grownCapacity(IntBinaryHeap.MAX_CAPACITY - 1));
+        assertEquals(21, IntBinaryHeap.firstChildIndex(10));
+        assertEquals(Integer.MAX_VALUE, IntBinaryHeap.firstChildIndex(1 << 30));
+        assertEquals(Integer.MAX_VALUE, IntBinaryHeap.firstChildIndex(Integer.MAX_VALUE - 9));
+    }
+
+    @Test
+    public void LargeInsertAndRemoveWithAscendingOrderTest() throws Exception {
+        Random r = new Random();
+        IntBinaryHeap heap = new IntBinaryHeap();
+
+        IntStream.range(0,500).forEach(i -> heap.insert(r.nextInt(100)+1));
+
+        int lastNumberReturned = heap.remove();
+        while (!heap.isEmpty()) {
+            int nextNumber = heap.remove();
+            assertTrue("IntBinaryHeap incorrectly returned " + lastNumberReturned + " before " + nextNumber, lastNumberReturned <= nextNumber);
+            lastNumberReturned = nextNumber;
+        }
+    }
+
+    @Test
+    public void LargeInsertAndRemoveWithDescendingOrderTest() throws Exception {
+        Random r = new Random();
+        IntBinaryHeap heap = new IntBinaryHeap(BinaryHeap.HeapOrder.DESC);
+
+        IntStream.range(0,500).forEach(i -> heap.insert(r.nextInt(100)+1));
+
+        int lastNumberReturned = heap.remove();
+        while (!heap.isEmpty()) {
+            int nextNumber = heap.remove();
+            assertTrue("IntBinaryHeap incorrectly returned " + lastNumberReturned + " before " + nextNumber, lastNumberReturned >= nextNumber);
+            lastNumberReturned = nextNumber;
+        }
+    }
+}
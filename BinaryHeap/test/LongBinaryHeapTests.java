@@ -0,0 +1,68 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class LongBinaryHeapTests {
+    @Test
+    public void AddRemoveOneItemTest() throws Exception {
+        LongBinaryHeap heap = new LongBinaryHeap();
+        heap.insert(10L);
+
+        assertEquals(10L, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void RemoveFromEmptyHeapThrowsExceptionTest() throws Exception {
+        LongBinaryHeap heap = new LongBinaryHeap();
+
+        boolean failedAsExpected = false;
+        try {
+            heap.remove();
+        } catch (IllegalStateException e) {
+            failedAsExpected = true;
+        }
+
+        assertTrue("remove() method call did not fail as expected", failedAsExpected);
+    }
+
+    @Test
+    public void ValuesBeyondIntRangeAreOrderedTest() throws Exception {
+        LongBinaryHeap heap = new LongBinaryHeap(BinaryHeap.HeapOrder.ASC, 1);
+        heap.insertAll(new long[] {Long.MAX_VALUE, 1L << 40, -(1L << 40), 0L});
+
+        assertEquals(-(1L << 40), heap.remove());
+        assertEquals(0L, heap.remove());
+        assertEquals(1L << 40, heap.remove());
+        assertEquals(Long.MAX_VALUE, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void GrowthAndChildIndexesDoNotOverflowTest() throws Exception {
+        assertEquals(200, LongBinaryHeap.grownCapacity(100));
+        assertEquals(LongBinaryHeap.MAX_CAPACITY, LongBinaryHeap.grownCapacity(1 << 30));
+        assertEquals(LongBinaryHeap.MAX_CAPACITY, LongBinaryHeap.grownCapacity(LongBinaryHeap.MAX_CAPACITY - 1));
+        assertEquals(21, LongBinaryHeap.firstChildIndex(10));
+        assertEquals(Integer.MAX_VALUE, LongBinaryHeap.firstChildIndex(1 << 30));
+        assertEquals(Integer.MAX_VALUE, LongBinaryHeap.firstChildIndex(Integer.MAX_VALUE - 9));
+    }
+
+    @Test
+    public void LargeInsertAndRemoveWithDescendingOrderTest() throws Exception {
+        Random r = new Random();
+        LongBinaryHeap heap = new LongBinaryHeap(BinaryHeap.HeapOrder.DESC);
+
+        IntStream.range(0,500).forEach(i -> heap.insert(r.nextLong()));
+
+        long lastNumberReturned = heap.remove();
+        while (!heap.isEmpty()) {
+            long nextNumber = heap.remove();
+            assertTrue("LongBinaryHeap incorrectly returned " + lastNumberReturned + " before " + nextNumber, lastNumberReturned >= nextNumber);
+            lastNumberReturned = nextNumber;
+        }
+    }
+}
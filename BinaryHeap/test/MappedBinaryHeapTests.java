@@ -0,0 +1,176 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedBinaryHeapTests {
+    private Path heapFile;
+
+    @Before
+    public void createTempFile() throws Exception {
+        heapFile = Files.createTempFile("mapped-heap", ".bin");
+        Files.delete(heapFile);
+    }
+
+    @After
+    public void deleteTempFile() throws Exception {
+        Files.deleteIfExists(heapFile);
+    }
+
+    @Test
+    public void RemoveFromEmptyHeapThrowsExceptionTest() throws Exception {
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, 0, BinaryHeap.HeapOrder.ASC)) {
+            boolean failedAsExpected = false;
+            try {
+                heap.remove();
+            } catch (IllegalStateException e) {
+                failedAsExpected = true;
+            }
+
+            assertTrue("remove() method call did not fail as expected", failedAsExpected);
+        }
+    }
+
+    @Test
+    public void PayloadTravelsWithKeyTest() throws Exception {
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.DESC)) {
+            heap.insert(10, payload(100));
+            heap.insert(30, payload(300));
+            heap.insert(20, payload(200));
+
+            byte[] payloadOut = new byte[Integer.BYTES];
+            assertEquals(30, heap.remove(payloadOut));
+            assertEquals(300, ByteBuffer.wrap(payloadOut).getInt());
+            assertEquals(20, heap.remove(payloadOut));
+            assertEquals(200, ByteBuffer.wrap(payloadOut).getInt());
+            assertEquals(10, heap.remove(payloadOut));
+            assertEquals(100, ByteBuffer.wrap(payloadOut).getInt());
+            assertTrue(heap.isEmpty());
+        }
+    }
+
+    @Test
+    public void HeapSpanningSeveralSegmentsSurvivesReopenTest() throws Exception {
+        Random r = new Random();
+
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC, 16)) {
+            for (int i = 0; i < 500; i++) {
+                int key = r.nextInt(1000);
+                heap.insert(key, payload(key));
+            }
+            for (int i = 0; i < 100; i++) {
+                heap.remove();
+            }
+        }
+
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC, 16)) {
+            assertEquals(400, heap.size());
+
+            byte[] payloadOut = new byte[Integer.BYTES];
+            long lastKeyReturned = heap.remove(payloadOut);
+            while (!heap.isEmpty()) {
+                long nextKey = heap.remove(payloadOut);
+                assertTrue("MappedBinaryHeap incorrectly returned " + lastKeyReturned + " before " + nextKey, lastKeyReturned <= nextKey);
+                assertEquals(nextKey, ByteBuffer.wrap(payloadOut).getInt());
+                lastKeyReturned = nextKey;
+            }
+        }
+    }
+
+    @Test
+    public void FileGrowsWithTheHeapTest() throws Exception {
+        Random r = new Random();
+
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC)) {
+            heap.insert(1, payload(1));
+            assertTrue("file of " + Files.size(heapFile) + " bytes for one record", Files.size(heapFile) <= 128 * 1024);
+
+            // enough records for the first segment to be remapped several times
+            for (int i = 1; i < 200_000; i++) {
+                int key = r.nextInt(1_000_000);
+                heap.insert(key, payload(key));
+            }
+        }
+        assertTrue("file of " + Files.size(heapFile) + " bytes for 200,000 records", Files.size(heapFile) <= 8 * 1024 * 1024);
+
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC)) {
+            assertEquals(200_000, heap.size());
+
+            byte[] payloadOut = new byte[Integer.BYTES];
+            long lastKeyReturned = heap.remove(payloadOut);
+            while (!heap.isEmpty()) {
+                long nextKey = heap.remove(payloadOut);
+                assertTrue("MappedBinaryHeap incorrectly returned " + lastKeyReturned + " before " + nextKey, lastKeyReturned <= nextKey);
+                assertEquals(nextKey, ByteBuffer.wrap(payloadOut).getInt());
+                lastKeyReturned = nextKey;
+            }
+        }
+    }
+
+    @Test
+    public void FileIsBigEndianTest() throws Exception {
+        try (MappedBinaryHeap heap = new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC)) {
+            heap.insert(0x0102030405060708L, payload(0x0A0B0C0D));
+        }
+
+        // the header is 64 bytes, followed by the only record's key and payload
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(heapFile));
+        assertEquals(0x48454150, file.getInt(0));
+        assertEquals(1, file.getLong(16));
+        assertEquals(0x0102030405060708L, file.getLong(64));
+        assertEquals(0x0A0B0C0D, file.getInt(64 + Long.BYTES));
+    }
+
+    @Test
+    public void NegativePayloadSizeThrowsIAE() throws Exception {
+        boolean threwAsExpected = false;
+        try {
+            new MappedBinaryHeap(heapFile, -Long.BYTES, BinaryHeap.HeapOrder.ASC).close();
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("constructing the heap did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void FileShorterThanHeaderThrowsIAEWithoutChangingIt() throws Exception {
+        byte[] contents = "not a heap".getBytes("US-ASCII");
+        Files.write(heapFile, contents);
+
+        boolean threwAsExpected = false;
+        try {
+            new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC).close();
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("opening the file did not throw the expected exception", threwAsExpected);
+        assertTrue("the file was changed", Arrays.equals(contents, Files.readAllBytes(heapFile)));
+    }
+
+    @Test
+    public void ReopenWithDifferentPayloadSizeThrowsIAE() throws Exception {
+        new MappedBinaryHeap(heapFile, Integer.BYTES, BinaryHeap.HeapOrder.ASC).close();
+
+        boolean threwAsExpected = false;
+        try {
+            new MappedBinaryHeap(heapFile, Long.BYTES, BinaryHeap.HeapOrder.ASC).close();
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("reopening the heap did not throw the expected exception", threwAsExpected);
+    }
+
+    private static byte[] payload(int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+}
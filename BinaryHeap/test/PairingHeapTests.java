@@ -0,0 +1,92 @@
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class PairingHeapTests {
+    @Test
+    public void InsertWithNullArgThrowsIAE() throws Exception {
+        PairingHeap<Integer> heap = new PairingHeap<>();
+
+        boolean threwAsExpected = false;
+        try {
+            heap.insert(null);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to insert() did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void RemoveFromEmptyHeapThrowsExceptionTest() throws Exception {
+        PairingHeap<Integer> heap = new PairingHeap<>();
+
+        boolean failedAsExpected = false;
+        try {
+            heap.remove();
+        } catch (IllegalStateException e) {
+            failedAsExpected = true;
+        }
+
+        assertTrue("remove() method call did not fail as expected", failedAsExpected);
+    }
+
+    @Test
+    public void LargeInsertAndRemoveTest() throws Exception {
+        Random r = new Random();
+
+        for (BinaryHeap.HeapOrder order : BinaryHeap.HeapOrder.values()) {
+            PairingHeap<Integer> heap = new PairingHeap<>(order);
+            List<Integer> testData = Lists.newArrayList();
+            IntStream.range(0,500).forEach(i -> testData.add(r.nextInt(100)+1));
+            heap.insertAll(testData);
+            assertEquals(500, heap.size());
+
+            testData.sort(order == BinaryHeap.HeapOrder.ASC ? Comparator.naturalOrder() : Comparator.reverseOrder());
+            for (Integer expected : testData) {
+                assertEquals(expected, heap.peek());
+                assertEquals(expected, heap.remove());
+            }
+            assertTrue(heap.isEmpty());
+        }
+    }
+
+    @Test
+    public void MeldCombinesHeapsAndEmptiesOtherTest() throws Exception {
+        Comparator<Integer> comparator = Comparator.naturalOrder();
+        PairingHeap<Integer> heap = new PairingHeap<>(comparator, BinaryHeap.HeapOrder.DESC);
+        PairingHeap<Integer> other = new PairingHeap<>(comparator, BinaryHeap.HeapOrder.DESC);
+        heap.insertAll(Lists.newArrayList(10, 40, 20));
+        other.insertAll(Lists.newArrayList(50, 30));
+
+        heap.meld(other);
+
+        assertTrue(other.isEmpty());
+        assertEquals(0, other.size());
+        assertEquals(5, heap.size());
+        for (Integer expected : Lists.newArrayList(50, 40, 30, 20, 10)) {
+            assertEquals(expected, heap.remove());
+        }
+    }
+
+    @Test
+    public void MeldWithDifferentOrderingThrowsIAE() throws Exception {
+        PairingHeap<Integer> heap = new PairingHeap<>(BinaryHeap.HeapOrder.ASC);
+        PairingHeap<Integer> other = new PairingHeap<>(BinaryHeap.HeapOrder.DESC);
+
+        boolean threwAsExpected = false;
+        try {
+            heap.meld(other);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to meld() did not throw the expected exception", threwAsExpected);
+    }
+}
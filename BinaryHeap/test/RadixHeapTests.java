@@ -0,0 +1,108 @@
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class RadixHeapTests {
+    @Test
+    public void InsertWithNullArgThrowsIAE() throws Exception {
+        RadixHeap<Integer> heap = new RadixHeap<>(Integer::intValue);
+
+        boolean threwAsExpected = false;
+        try {
+            heap.insert(null);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to insert() did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void RemoveFromEmptyHeapThrowsExceptionTest() throws Exception {
+        RadixHeap<Integer> heap = new RadixHeap<>(Integer::intValue);
+
+        boolean failedAsExpected = false;
+        try {
+            heap.remove();
+        } catch (IllegalStateException e) {
+            failedAsExpected = true;
+        }
+
+        assertTrue("remove() method call did not fail as expected", failedAsExpected);
+    }
+
+    @Test
+    public void InsertBelowLastRemovedKeyThrowsIAE() throws Exception {
+        RadixHeap<Integer> heap = new RadixHeap<>(Integer::intValue);
+        heap.insertAll(Lists.newArrayList(5, 10));
+        assertEquals(5, (int) heap.remove());
+
+        boolean threwAsExpected = false;
+        try {
+            heap.insert(4);
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to insert() did not throw the expected exception", threwAsExpected);
+        heap.insert(5);
+        assertEquals(5, (int) heap.remove());
+    }
+
+    @Test
+    public void InsertBelowPeekedKeyIsAllowedTest() throws Exception {
+        RadixHeap<Integer> heap = new RadixHeap<>(Integer::intValue);
+        heap.insert(10);
+        assertEquals(10, (int) heap.peek());
+        assertEquals(10, heap.peekKey());
+
+        heap.insert(5);
+        assertEquals(5, (int) heap.peek());
+        assertEquals(5, (int) heap.remove());
+        assertEquals(10, (int) heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void LargeInsertAndRemoveTest() throws Exception {
+        Random r = new Random();
+        RadixHeap<Integer> heap = new RadixHeap<>(Integer::intValue);
+        List<Integer> testData = Lists.newArrayList();
+        IntStream.range(0, 1000).forEach(i -> testData.add(r.nextInt(Integer.MAX_VALUE)));
+        heap.insertAll(testData);
+        assertEquals(1000, heap.size());
+
+        testData.sort(null);
+        for (Integer expected : testData) {
+            assertEquals(expected, heap.peek());
+            assertEquals((int) expected, heap.peekKey());
+            assertEquals(expected, heap.remove());
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void InterleavedMonotoneInsertsMatchBinaryHeapTest() throws Exception {
+        Random r = new Random();
+        RadixHeap<Integer> radixHeap = new RadixHeap<>(Integer::intValue);
+        BinaryHeap<Integer> binaryHeap = new BinaryHeap<>();
+
+        int lastRemoved = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (radixHeap.isEmpty() || r.nextInt(3) > 0) {
+                int key = lastRemoved + r.nextInt(100);
+                radixHeap.insert(key);
+                binaryHeap.insert(key);
+            } else {
+                lastRemoved = radixHeap.remove();
+                assertEquals(binaryHeap.remove(), Integer.valueOf(lastRemoved));
+            }
+        }
+        assertEquals(binaryHeap.size(), radixHeap.size());
+    }
+}
@@ -0,0 +1,64 @@
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class TopKSelectorTests {
+    @Test
+    public void KeepsLargestElementsForDescendingOrderTest() throws Exception {
+        TopKSelector<Integer> selector = new TopKSelector<>(3, BinaryHeap.HeapOrder.DESC);
+        Lists.newArrayList(5, 1, 9, 3, 7, 2, 8).forEach(selector::offer);
+
+        assertEquals(Lists.newArrayList(9, 8, 7), selector.toSortedList());
+    }
+
+    @Test
+    public void KeepsSmallestElementsForAscendingOrderTest() throws Exception {
+        TopKSelector<Integer> selector = new TopKSelector<>(3, BinaryHeap.HeapOrder.ASC);
+        Lists.newArrayList(5, 1, 9, 3, 7, 2, 8).forEach(selector::offer);
+
+        assertEquals(Lists.newArrayList(1, 2, 3), selector.toSortedList());
+    }
+
+    @Test
+    public void OfferRejectsCandidatesThatCannotQualifyTest() throws Exception {
+        TopKSelector<Integer> selector = new TopKSelector<>(2, BinaryHeap.HeapOrder.DESC);
+
+        assertTrue(selector.offer(10));
+        assertTrue(selector.offer(20));
+        assertFalse(selector.offer(5));
+        assertFalse(selector.offer(10));
+        assertTrue(selector.offer(15));
+        assertEquals(2, selector.size());
+        assertEquals(Lists.newArrayList(20, 15), selector.toSortedList());
+    }
+
+    @Test
+    public void CustomComparatorTest() throws Exception {
+        TopKSelector<String> selector = new TopKSelector<>(2, Comparator.comparingInt(String::length), BinaryHeap.HeapOrder.DESC);
+        Lists.newArrayList("a", "abcd", "ab", "abcdef", "abc").forEach(selector::offer);
+
+        assertEquals(Lists.newArrayList("abcdef", "abcd"), selector.toSortedList());
+    }
+
+    @Test
+    public void MergedPartialResultsMatchSingleSelectorTest() throws Exception {
+        Random r = new Random();
+        List<Integer> testData = IntStream.range(0, 10000).map(i -> r.nextInt()).boxed().collect(Collectors.toList());
+
+        TopKSelector<Integer> left = new TopKSelector<>(50, BinaryHeap.HeapOrder.DESC);
+        TopKSelector<Integer> right = new TopKSelector<>(50, BinaryHeap.HeapOrder.DESC);
+        testData.subList(0, 5000).forEach(left::offer);
+        testData.subList(5000, 10000).forEach(right::offer);
+
+        List<Integer> expected = testData.stream().sorted(Comparator.reverseOrder()).limit(50).collect(Collectors.toList());
+        assertEquals(expected, left.merge(right).toSortedList());
+        assertEquals(expected, testData.parallelStream().collect(TopKSelector.toTopK(50, null, BinaryHeap.HeapOrder.DESC)));
+    }
+}
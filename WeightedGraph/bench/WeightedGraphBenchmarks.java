@@ -0,0 +1,735 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Simple wall-clock benchmarks for WeightedGraph and the representations built from it.  Each scenario is
+ * run a few times to let the JIT warm up before the measured runs are reported.  Usage:
+ *
+ *   java WeightedGraphBenchmarks [scenario] [vertices]
+ *
+ * where scenario is one of the names listed in main() (all scenarios run by default).
+ */
+public class WeightedGraphBenchmarks {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final int EDGES_PER_VERTEX = 8;
+
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "all";
+        int vertices = args.length > 1 ? Integer.parseInt(args[1]) : 65_000;
+
+        if (scenario.equals("all") || scenario.equals("csr")) {
+            csrVersusAdjacencyLists(Math.min(vertices, Character.MAX_VALUE + 1));
+        }
+        if (scenario.equals("all") || scenario.equals("load")) {
+            loadMemory(vertices, 10_000_000);
+        }
+        if (scenario.equals("all") || scenario.equals("parallelBfs")) {
+            parallelBfs(Math.max(vertices, 2_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("bidirectionalBfs")) {
+            bidirectionalBfs(Math.max(vertices, 2_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("pathQueries")) {
+            pathQueries(Math.max(vertices, 1_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("multiSourceBfs")) {
+            multiSourceBfs(Math.max(vertices, 1_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("msf")) {
+            minimumSpanningForest(Math.max(vertices, 2_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("file")) {
+            graphFile(Math.max(vertices, 2_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("ingest")) {
+            ingest(Math.max(vertices, 1_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("hub")) {
+            hubEdgeChanges(Math.max(vertices, 200_000));
+        }
+        if (scenario.equals("all") || scenario.equals("concurrent")) {
+            concurrentUpdates(Math.max(vertices, 1_000_000));
+        }
+        if (scenario.equals("all") || scenario.equals("shortestPath")) {
+            shortestPathLatency((int) Math.sqrt(Math.max(vertices, 1_000_000)));
+        }
+    }
+
+    /**
+     * Compares the memory used by a WeightedGraph and by the CsrGraph frozen from it, and the time each takes
+     * to answer the same path queries and compute the minimum spanning forest
+     */
+    static void csrVersusAdjacencyLists(int vertexCount) {
+        long before = usedMemory();
+        WeightedGraph graph = randomCharGraph(vertexCount, EDGES_PER_VERTEX);
+        long graphBytes = usedMemory() - before;
+
+        before = usedMemory();
+        CsrGraph csr = graph.freeze();
+        long csrBytes = usedMemory() - before;
+
+        String suffix = " V=" + vertexCount + " E=" + csr.getEdgeCount() / 2;
+        System.out.printf("csr/memory%s   WeightedGraph %,d bytes   CsrGraph %,d bytes%n", suffix, graphBytes, csrBytes);
+
+        Random r = new Random(42);
+        int queries = 100;
+        char[][] pairs = new char[queries][2];
+        for (char[] pair : pairs) {
+            pair[0] = (char) r.nextInt(vertexCount);
+            pair[1] = (char) r.nextInt(vertexCount);
+        }
+
+        time("csr/WeightedGraph.findPathViaBFS x" + queries + suffix, () -> {
+            long total = 0;
+            for (char[] pair : pairs) {
+                total += graph.findPathViaBFS(pair[0], pair[1]).size();
+            }
+            return total;
+        });
+        time("csr/CsrGraph.findPathViaBFS x" + queries + suffix, () -> {
+            long total = 0;
+            for (char[] pair : pairs) {
+                total += csr.findPathViaBFS(graph.getVertex(pair[0]), graph.getVertex(pair[1])).size();
+            }
+            return total;
+        });
+        time("csr/WeightedGraph.findPathViaDFS x" + queries + suffix, () -> {
+            long total = 0;
+            for (char[] pair : pairs) {
+                total += graph.findPathViaDFS(pair[0], pair[1]).size();
+            }
+            return total;
+        });
+        time("csr/CsrGraph.findPathViaDFS x" + queries + suffix, () -> {
+            long total = 0;
+            for (char[] pair : pairs) {
+                total += csr.findPathViaDFS(graph.getVertex(pair[0]), graph.getVertex(pair[1])).size();
+            }
+            return total;
+        });
+        time("csr/WeightedGraph.computeMinimumSpanningForest" + suffix, () -> msfWeight(graph.computeMinimumSpanningForest()));
+        time("csr/CsrGraph.computeMinimumSpanningForest" + suffix, () -> msfWeight(csr.computeMinimumSpanningForest()));
+    }
+
+    /**
+     * Loads a graph with the provided numbers of long-id vertices and random edges through addEdge(), and
+     * reports the memory used per vertex and per edge, both by the WeightedGraph and by the CsrGraph frozen
+     * from it.  The ids are spread out well beyond the char range to exercise the id map
+     */
+    static void loadMemory(int vertexCount, int edgeCount) {
+        Random r = new Random(42);
+        long idStride = 1_000_003L;
+
+        long before = usedMemory();
+        long start = System.nanoTime();
+        WeightedGraph graph = new WeightedGraph(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            graph.addVertex(v * idStride);
+        }
+        long afterVertices = usedMemory();
+
+        for (int e = 0; e < edgeCount; e++) {
+            graph.addEdge(r.nextInt(vertexCount) * idStride, r.nextInt(vertexCount) * idStride, 1 + r.nextInt(100));
+        }
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        long afterEdges = usedMemory();
+
+        CsrGraph csr = graph.freeze();
+        long afterFreeze = usedMemory();
+
+        String suffix = " V=" + vertexCount + " E=" + edgeCount;
+        System.out.printf("load/WeightedGraph%s   %,d ms   %.1f bytes/vertex   %.1f bytes/edge%n", suffix, loadMillis,
+                (afterVertices - before) / (double) vertexCount, (afterEdges - afterVertices) / (double) edgeCount);
+        System.out.printf("load/CsrGraph%s   %.1f bytes/vertex+edge total   (%d edge directions)%n", suffix,
+                (afterFreeze - afterEdges) / (double) (vertexCount + edgeCount), csr.getEdgeCount());
+    }
+
+    /**
+     * Times a full breadth first search over a random graph with the serial CsrGraph search (made to visit
+     * every vertex by searching for an isolated one) and with the parallel search on pools of one thread and
+     * of every available core
+     */
+    static void parallelBfs(int vertexCount) {
+        Random r = new Random(42);
+        WeightedGraph graph = new WeightedGraph(vertexCount + 1);
+        for (long v = 0; v <= vertexCount; v++) {
+            graph.addVertex(v);
+        }
+        for (long e = 0; e < (long) vertexCount * EDGES_PER_VERTEX / 2; e++) {
+            graph.addEdge(r.nextInt(vertexCount), r.nextInt(vertexCount), 1);
+        }
+        CsrGraph csr = graph.freeze();
+        WeightedGraph.Vertex source = graph.getVertex(0L);
+        WeightedGraph.Vertex isolated = graph.getVertex((long) vertexCount);
+
+        String suffix = " V=" + vertexCount + " E=" + csr.getEdgeCount() / 2;
+        time("parallelBfs/CsrGraph.findPathViaBFS serial" + suffix, () -> csr.findPathViaBFS(source, isolated).size());
+        ForkJoinPool single = new ForkJoinPool(1);
+        time("parallelBfs/CsrGraph.computeBreadthFirstTree x1" + suffix,
+                () -> csr.computeBreadthFirstTree(source, single).getDistance(isolated));
+        single.shutdown();
+        time("parallelBfs/CsrGraph.computeBreadthFirstTree x" + ForkJoinPool.commonPool().getParallelism() + suffix,
+                () -> csr.computeBreadthFirstTree(source).getDistance(isolated));
+    }
+
+    /**
+     * Reports the latency of, and the memory allocated by, many path queries between vertices a few edges
+     * apart in a large random graph, where setting up each search rather than the search itself can dominate
+     */
+    static void pathQueries(int vertexCount) {
+        Random r = new Random(42);
+        WeightedGraph graph = new WeightedGraph(vertexCount);
+        int edgeCount = vertexCount * EDGES_PER_VERTEX / 2;
+        for (int e = 0; e < edgeCount; e++) {
+            graph.addEdge(r.nextInt(vertexCount), r.nextInt(vertexCount), 1);
+        }
+        CsrGraph csr = graph.freeze();
+
+        // each query is from a random vertex to one of its neighbours' neighbours
+        int queries = 1_000;
+        WeightedGraph.Vertex[] starts = new WeightedGraph.Vertex[queries];
+        WeightedGraph.Vertex[] ends = new WeightedGraph.Vertex[queries];
+        for (int i = 0; i < queries; i++) {
+            starts[i] = csr.getVertex(r.nextInt(csr.getVertexCount()));
+            WeightedGraph.Vertex end = starts[i];
+            for (int step = 0; step < 2; step++) {
+                List<WeightedGraph.Edge> edges = graph.getOutgoingEdges(end);
+                end = edges.get(r.nextInt(edges.size())).getEndVertex();
+            }
+            ends[i] = end;
+        }
+
+        String suffix = " V=" + csr.getVertexCount() + " E=" + edgeCount + " queries=" + queries;
+        timeQueries("pathQueries/WeightedGraph.findPathViaBFS" + suffix, queries, () -> {
+            int edges = 0;
+            for (int i = 0; i < queries; i++) {
+                edges += graph.findPathViaBFS(starts[i], ends[i]).size() - 1;
+            }
+            return edges;
+        });
+        timeQueries("pathQueries/CsrGraph.findPathViaBFS" + suffix, queries, () -> {
+            int edges = 0;
+            for (int i = 0; i < queries; i++) {
+                edges += csr.findPathViaBFS(starts[i], ends[i]).size() - 1;
+            }
+            return edges;
+        });
+        timeQueries("pathQueries/CsrGraph.findPathViaBidirectionalBFS" + suffix, queries, () -> {
+            int edges = 0;
+            for (int i = 0; i < queries; i++) {
+                edges += csr.findPathViaBidirectionalBFS(starts[i], ends[i]).size() - 1;
+            }
+            return edges;
+        });
+    }
+
+    /**
+     * Like time(), but also reports the bytes the calling thread allocated per query in the measured runs
+     */
+    static void timeQueries(String name, int queries, Supplier<Object> operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        time(name, operation);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        System.out.printf("%-70s %,d bytes allocated per query%n", "", allocated / ((long) (WARMUP_RUNS + MEASURED_RUNS) * queries));
+    }
+
+    /**
+     * Compares point-to-point path queries between random pairs of vertices of a large random graph, whose
+     * vertices are only a few edges apart, searching from one end and from both ends at once
+     */
+    static void bidirectionalBfs(int vertexCount) {
+        Random r = new Random(42);
+        int edgeCount = vertexCount * EDGES_PER_VERTEX / 2;
+        long[] startIds = new long[edgeCount];
+        long[] endIds = new long[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            startIds[e] = r.nextInt(vertexCount);
+            endIds[e] = r.nextInt(vertexCount);
+        }
+        CsrGraph csr = CsrGraph.fromEdges(startIds, endIds, new int[edgeCount], edgeCount);
+
+        int queries = 20;
+        WeightedGraph.Vertex[] starts = new WeightedGraph.Vertex[queries];
+        WeightedGraph.Vertex[] ends = new WeightedGraph.Vertex[queries];
+        for (int i = 0; i < queries; i++) {
+            starts[i] = csr.getVertex(r.nextInt(csr.getVertexCount()));
+            ends[i] = csr.getVertex(r.nextInt(csr.getVertexCount()));
+        }
+
+        String suffix = " V=" + csr.getVertexCount() + " E=" + edgeCount + " queries=" + queries;
+        time("bidirectionalBfs/CsrGraph.findPathViaBFS" + suffix, () -> {
+            int edges = 0;
+            for (int i = 0; i < queries; i++) {
+                edges += csr.findPathViaBFS(starts[i], ends[i]).size() - 1;
+            }
+            return edges;
+        });
+        time("bidirectionalBfs/CsrGraph.findPathViaBidirectionalBFS" + suffix, () -> {
+            int edges = 0;
+            for (int i = 0; i < queries; i++) {
+                edges += csr.findPathViaBidirectionalBFS(starts[i], ends[i]).size() - 1;
+            }
+            return edges;
+        });
+    }
+
+    /**
+     * Compares breadth first searches from many sources of a large random graph run one at a time with
+     * computeBreadthFirstTree() and run together, 64 to a batch, by computeBreadthFirstTrees() and
+     * computeHopDistances()
+     */
+    static void multiSourceBfs(int vertexCount) {
+        Random r = new Random(42);
+        int edgeCount = vertexCount * EDGES_PER_VERTEX / 2;
+        long[] startIds = new long[edgeCount];
+        long[] endIds = new long[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            startIds[e] = r.nextInt(vertexCount);
+            endIds[e] = r.nextInt(vertexCount);
+        }
+        CsrGraph csr = CsrGraph.fromEdges(startIds, endIds, new int[edgeCount], edgeCount);
+
+        List<WeightedGraph.Vertex> sources = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            sources.add(csr.getVertex(r.nextInt(csr.getVertexCount())));
+        }
+        List<WeightedGraph.Vertex> targets = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            targets.add(csr.getVertex(r.nextInt(csr.getVertexCount())));
+        }
+        List<WeightedGraph.Vertex> firstBatch = sources.subList(0, 64);
+
+        String suffix = " V=" + csr.getVertexCount() + " E=" + edgeCount;
+        time("multiSourceBfs/computeBreadthFirstTree per source" + suffix + " sources=64", () -> {
+            long distances = 0;
+            for (WeightedGraph.Vertex source : firstBatch) {
+                CsrGraph.BreadthFirstTree tree = csr.computeBreadthFirstTree(source);
+                for (WeightedGraph.Vertex target : targets) {
+                    distances += tree.getDistance(target);
+                }
+            }
+            return distances;
+        });
+        time("multiSourceBfs/computeBreadthFirstTrees" + suffix + " sources=64", () -> {
+            long distances = 0;
+            for (CsrGraph.BreadthFirstTree tree : csr.computeBreadthFirstTrees(firstBatch)) {
+                for (WeightedGraph.Vertex target : targets) {
+                    distances += tree.getDistance(target);
+                }
+            }
+            return distances;
+        });
+        for (List<WeightedGraph.Vertex> batch : Arrays.asList(firstBatch, sources)) {
+            time("multiSourceBfs/computeHopDistances" + suffix + " sources=" + batch.size() + " targets=64", () ->
+                    Arrays.stream(csr.computeHopDistances(batch, targets)).flatMapToInt(Arrays::stream).asLongStream().sum());
+        }
+    }
+
+    /**
+     * Compares the minimum spanning forest algorithms offered by CsrGraph on a random graph with weights from
+     * 1 to 100: Prim, Kruskal with a parallel edge sort, and Boruvka on the common fork-join pool
+     */
+    static void minimumSpanningForest(int vertexCount) {
+        Random r = new Random(42);
+        WeightedGraph graph = new WeightedGraph(vertexCount);
+        for (long v = 0; v < vertexCount; v++) {
+            graph.addVertex(v);
+        }
+        for (long e = 0; e < (long) vertexCount * EDGES_PER_VERTEX / 2; e++) {
+            graph.addEdge(r.nextInt(vertexCount), r.nextInt(vertexCount), 1 + r.nextInt(100));
+        }
+        CsrGraph csr = graph.freeze();
+
+        String suffix = " V=" + vertexCount + " E=" + csr.getEdgeCount() / 2;
+        time("msf/CsrGraph.computeMinimumSpanningForest" + suffix, () -> msfWeight(csr.computeMinimumSpanningForest()));
+        time("msf/CsrGraph.computeMinimumSpanningForestViaKruskal" + suffix, () -> msfWeight(csr.computeMinimumSpanningForestViaKruskal()));
+        time("msf/CsrGraph.computeMinimumSpanningForestViaBoruvka" + suffix, () -> msfWeight(csr.computeMinimumSpanningForestViaBoruvka()));
+    }
+
+    /**
+     * Compares the ways of getting a large random graph into a process: adding its edges one at a time,
+     * converting an edge list text file, and opening a graph file written by writeTo().  Then compares a
+     * breadth first search over the mapped file with one over the in-memory snapshot
+     */
+    static void graphFile(int vertexCount) {
+        try {
+            Path edgeList = Files.createTempFile("edges", ".txt");
+            Path graphFile = Files.createTempFile("graph", ".bin");
+            try {
+                Random r = new Random(42);
+                long edgeCount = (long) vertexCount * EDGES_PER_VERTEX / 2;
+                try (BufferedWriter out = Files.newBufferedWriter(edgeList)) {
+                    for (long e = 0; e < edgeCount; e++) {
+                        out.write(r.nextInt(vertexCount) + " " + r.nextInt(vertexCount) + " " + (1 + r.nextInt(100)) + "\n");
+                    }
+                }
+
+                String suffix = " V=" + vertexCount + " E=" + edgeCount;
+                long start = System.nanoTime();
+                WeightedGraph graph = new WeightedGraph(vertexCount);
+                for (String line : Files.readAllLines(edgeList)) {
+                    String[] fields = line.split(" ");
+                    graph.addEdge(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Integer.parseInt(fields[2]));
+                }
+                CsrGraph csr = graph.freeze();
+                System.out.printf("file/WeightedGraph.addEdge + freeze%s   %,d ms%n", suffix, (System.nanoTime() - start) / 1_000_000);
+                graph = null;
+
+                start = System.nanoTime();
+                EdgeListConverter.convert(edgeList, graphFile);
+                System.out.printf("file/EdgeListConverter.convert%s   %,d ms   %,d bytes%n", suffix,
+                        (System.nanoTime() - start) / 1_000_000, Files.size(graphFile));
+
+                start = System.nanoTime();
+                CsrGraph mapped = CsrGraph.open(graphFile);
+                long openNanos = System.nanoTime() - start;
+                WeightedGraph.Vertex source = mapped.getVertex(0);
+                WeightedGraph.Vertex target = mapped.getVertex(mapped.getVertexCount() - 1);
+                int pathLength = mapped.findPathViaBFS(source, target).size();
+                System.out.printf("file/CsrGraph.open%s   %.2f ms, then first findPathViaBFS %,d ms   (%d)%n", suffix,
+                        openNanos / 1e6, (System.nanoTime() - start - openNanos) / 1_000_000, pathLength);
+
+                time("file/CsrGraph.computeBreadthFirstTree in memory" + suffix, () -> csr.computeBreadthFirstTree(source).getDistance(target));
+                time("file/CsrGraph.computeBreadthFirstTree mapped" + suffix, () -> mapped.computeBreadthFirstTree(source).getDistance(target));
+            } finally {
+                Files.deleteIfExists(edgeList);
+                Files.deleteIfExists(graphFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reports the rate at which each way of loading a random edge list builds a graph: calling addEdge() once
+     * per edge, addEdges() over primitive arrays on the calling thread and on the common pool, addEdges()
+     * streaming from an edge list text file, and building a CsrGraph directly from the arrays or the file.
+     * Each is run once to warm up and then once more to be measured, since a run builds a whole graph
+     */
+    static void ingest(int vertexCount) {
+        try {
+            Path edgeList = Files.createTempFile("edges", ".txt");
+            try {
+                Random r = new Random(42);
+                int edgeCount = vertexCount * EDGES_PER_VERTEX / 2;
+                long[] startIds = new long[edgeCount];
+                long[] endIds = new long[edgeCount];
+                int[] weights = new int[edgeCount];
+                try (BufferedWriter out = Files.newBufferedWriter(edgeList)) {
+                    for (int e = 0; e < edgeCount; e++) {
+                        startIds[e] = r.nextInt(vertexCount);
+                        endIds[e] = r.nextInt(vertexCount);
+                        weights[e] = 1 + r.nextInt(100);
+                        out.write(startIds[e] + " " + endIds[e] + " " + weights[e] + "\n");
+                    }
+                }
+
+                String suffix = " V=" + vertexCount + " E=" + edgeCount;
+                timeIngest("ingest/WeightedGraph.addEdge loop" + suffix, edgeCount, () -> {
+                    WeightedGraph graph = new WeightedGraph();
+                    for (int e = 0; e < edgeCount; e++) {
+                        graph.addEdge(startIds[e], endIds[e], weights[e]);
+                    }
+                    return graph.getVertexCount();
+                });
+                timeIngest("ingest/WeightedGraph.addEdges arrays" + suffix, edgeCount, () -> {
+                    WeightedGraph graph = new WeightedGraph();
+                    graph.addEdges(startIds, endIds, weights);
+                    return graph.getVertexCount();
+                });
+                timeIngest("ingest/WeightedGraph.addEdges arrays, common pool" + suffix, edgeCount, () -> {
+                    WeightedGraph graph = new WeightedGraph();
+                    graph.addEdges(startIds, endIds, weights, edgeCount, ForkJoinPool.commonPool());
+                    return graph.getVertexCount();
+                });
+                timeIngest("ingest/WeightedGraph.addEdges EdgeListReader" + suffix, edgeCount, () -> {
+                    WeightedGraph graph = new WeightedGraph();
+                    try (EdgeListReader reader = EdgeListReader.open(edgeList)) {
+                        graph.addEdges(reader);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return graph.getVertexCount();
+                });
+                timeIngest("ingest/CsrGraph.fromEdges arrays" + suffix, edgeCount,
+                        () -> CsrGraph.fromEdges(startIds, endIds, weights, edgeCount).getVertexCount());
+                timeIngest("ingest/CsrGraph.fromEdgeList" + suffix, edgeCount, () -> {
+                    try {
+                        return CsrGraph.fromEdgeList(edgeList).getVertexCount();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                Files.deleteIfExists(edgeList);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void timeIngest(String name, int edgeCount, Supplier<Object> operation) {
+        operation.get();
+        System.gc();
+        long start = System.nanoTime();
+        Object blackhole = operation.get();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-70s %8.2f ms   %,12.0f edges/s   (%s)%n",
+                name, elapsed / 1e6, edgeCount / (elapsed / 1e9), blackhole);
+    }
+
+    /**
+     * Times edge lookups, weight updates and removals on a hub vertex joined to every other vertex, which go
+     * through the hub's NeighbourIndex, against finding the same edges by scanning the hub's adjacency list
+     */
+    static void hubEdgeChanges(int vertexCount) {
+        int operations = 10_000;
+        String suffix = " degree=" + (vertexCount - 1) + " ops=" + operations;
+        Random r = new Random(42);
+        long[] neighbours = new long[operations];
+        for (int i = 0; i < operations; i++) {
+            neighbours[i] = 1 + r.nextInt(vertexCount - 1);
+        }
+
+        WeightedGraph graph = new WeightedGraph(vertexCount);
+        for (long v = 1; v < vertexCount; v++) {
+            graph.addEdge(0L, v, 1 + r.nextInt(100));
+        }
+        WeightedGraph.Vertex hub = graph.getVertex(0L);
+
+        time("hub/scan of getOutgoingEdges" + suffix, () -> {
+            int found = 0;
+            for (long neighbour : neighbours) {
+                found += graph.getOutgoingEdges(hub).stream().anyMatch(e -> e.getEndVertex().getId() == neighbour) ? 1 : 0;
+            }
+            return found;
+        });
+        time("hub/WeightedGraph.containsEdge" + suffix, () -> {
+            int found = 0;
+            for (long neighbour : neighbours) {
+                found += graph.containsEdge(0L, neighbour) ? 1 : 0;
+            }
+            return found;
+        });
+        time("hub/WeightedGraph.updateEdgeWeight" + suffix, () -> {
+            for (int i = 0; i < operations; i++) {
+                graph.updateEdgeWeight(0L, neighbours[i], i);
+            }
+            return graph.getOutgoingEdges(hub).size();
+        });
+        time("hub/WeightedGraph.removeEdge + addEdge" + suffix, () -> {
+            for (int i = 0; i < operations; i++) {
+                graph.removeEdge(0L, neighbours[i]);
+                graph.addEdge(0L, neighbours[i], i);
+            }
+            return graph.getOutgoingEdges(hub).size();
+        });
+    }
+
+    /**
+     * Measures how quickly a ConcurrentWeightedGraph of random edges publishes new versions for batches of
+     * different sizes, and then how many breadth first searches reader threads complete against its snapshots
+     * with and without a writer publishing batches of 1,000 random edge changes as fast as it can
+     */
+    static void concurrentUpdates(int vertexCount) {
+        Random r = new Random(42);
+        int edgeCount = vertexCount * EDGES_PER_VERTEX / 2;
+        long[] startIds = new long[edgeCount];
+        long[] endIds = new long[edgeCount];
+        int[] weights = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            startIds[e] = r.nextInt(vertexCount);
+            endIds[e] = r.nextInt(vertexCount);
+            weights[e] = 1 + r.nextInt(100);
+        }
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph(CsrGraph.fromEdges(startIds, endIds, weights, edgeCount));
+        String suffix = " V=" + vertexCount + " E=" + edgeCount;
+
+        for (int batchSize : new int[] { 1, 1_000, 100_000 }) {
+            time("concurrent/ConcurrentWeightedGraph.apply batch=" + batchSize + suffix,
+                    () -> graph.apply(randomChanges(r, vertexCount, batchSize)));
+        }
+
+        int readers = Runtime.getRuntime().availableProcessors();
+        for (boolean writing : new boolean[] { false, true }) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            AtomicLong writes = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                long seed = i;
+                threads.add(new Thread(() -> {
+                    Random random = new Random(seed);
+                    while (running.get()) {
+                        CsrGraph snapshot = graph.getSnapshot();
+                        snapshot.findPathViaBFS(snapshot.getVertex(random.nextInt(vertexCount)),
+                                snapshot.getVertex(random.nextInt(vertexCount)));
+                        reads.incrementAndGet();
+                    }
+                }));
+            }
+            if (writing) {
+                threads.add(new Thread(() -> {
+                    Random random = new Random(-1);
+                    while (running.get()) {
+                        graph.apply(randomChanges(random, vertexCount, 1_000));
+                        writes.addAndGet(1_000);
+                    }
+                }));
+            }
+
+            long start = System.nanoTime();
+            threads.forEach(Thread::start);
+            try {
+                Thread.sleep(10_000);
+                running.set(false);
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("concurrent/%d reader(s)%s%s   %,.0f findPathViaBFS/s   %,.0f changes/s%n", readers,
+                    writing ? " + writer" : "", suffix, reads.get() / seconds, writes.get() / seconds);
+        }
+    }
+
+    private static EdgeBatch randomChanges(Random r, int vertexCount, int size) {
+        // mostly new edges, with some removed and reweighted, as a live graph might see
+        EdgeBatch batch = new EdgeBatch(size);
+        for (int i = 0; i < size; i++) {
+            long v1 = r.nextInt(vertexCount);
+            long v2 = r.nextInt(vertexCount);
+            int change = r.nextInt(10);
+            if (change < 6) {
+                batch.addEdge(v1, v2, 1 + r.nextInt(100));
+            } else if (change < 8) {
+                batch.removeEdge(v1, v2);
+            } else {
+                batch.updateEdgeWeight(v1, v2, 1 + r.nextInt(100));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Reports the latency of point-to-point shortest path queries between random cells of a side x side grid
+     * (a million vertices by default) whose edges have random weights from 1 to 10, comparing Dijkstra's
+     * algorithm with an A* search using the Manhattan distance, which never overestimates since every edge
+     * weighs at least 1
+     */
+    static void shortestPathLatency(int side) {
+        Random r = new Random(42);
+        WeightedGraph graph = new WeightedGraph(side * side);
+        for (long v = 0; v < (long) side * side; v++) {
+            graph.addVertex(v);
+        }
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                long v = (long) row * side + col;
+                if (col + 1 < side) {
+                    graph.addEdge(v, v + 1, 1 + r.nextInt(10));
+                }
+                if (row + 1 < side) {
+                    graph.addEdge(v, v + side, 1 + r.nextInt(10));
+                }
+            }
+        }
+        CsrGraph csr = graph.freeze();
+
+        int queries = 20;
+        WeightedGraph.Vertex[][] pairs = new WeightedGraph.Vertex[queries][2];
+        for (WeightedGraph.Vertex[] pair : pairs) {
+            pair[0] = graph.getVertex((long) r.nextInt(side * side));
+            pair[1] = graph.getVertex((long) r.nextInt(side * side));
+        }
+        // the vertices were added in id order, so each one's dense id in the CSR graph is also its cell number
+        CsrGraph.Heuristic manhattan = (fromId, toId) ->
+                Math.abs(fromId / side - toId / side) + Math.abs(fromId % side - toId % side);
+
+        String suffix = " V=" + csr.getVertexCount() + " E=" + csr.getEdgeCount() / 2;
+        time("shortestPath/CsrGraph.computeShortestPaths x1" + suffix, () -> csr.computeShortestPaths(pairs[0][0]).getDistance(pairs[0][1]));
+        time("shortestPath/CsrGraph.findShortestPath x" + queries + suffix, () -> {
+            long total = 0;
+            for (WeightedGraph.Vertex[] pair : pairs) {
+                total += csr.findShortestPath(pair[0], pair[1]).size();
+            }
+            return total;
+        });
+        time("shortestPath/CsrGraph.findShortestPath A* x" + queries + suffix, () -> {
+            long total = 0;
+            for (WeightedGraph.Vertex[] pair : pairs) {
+                total += csr.findShortestPath(pair[0], pair[1], manhattan).size();
+            }
+            return total;
+        });
+    }
+
+    /**
+     * Builds a random graph over vertices labelled with the chars 0 to vertexCount - 1, with edgesPerVertex
+     * edges leaving each vertex to randomly chosen others and weights between 1 and 100
+     */
+    static WeightedGraph randomCharGraph(int vertexCount, int edgesPerVertex) {
+        Random r = new Random(42);
+        WeightedGraph graph = new WeightedGraph(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            graph.addVertex((char) v);
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            for (int e = 0; e < edgesPerVertex; e++) {
+                graph.addEdge((char) v, (char) r.nextInt(vertexCount), 1 + r.nextInt(100));
+            }
+        }
+        return graph;
+    }
+
+    static long msfWeight(List<List<WeightedGraph.Edge>> msf) {
+        return msf.stream().flatMap(List::stream).mapToLong(WeightedGraph.Edge::getWeight).sum();
+    }
+
+    static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static void time(String name, Supplier<Object> operation) {
+        Object blackhole = null;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            blackhole = operation.get();
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            blackhole = operation.get();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+
+        System.out.printf("%-70s best %8.2f ms   avg %8.2f ms   (%s)%n",
+                name, best / 1e6, total / 1e6 / MEASURED_RUNS, blackhole);
+    }
+}
@@ -0,0 +1,221 @@
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A weighted, undirected graph that can be changed by some threads while others query it.
+ *
+ * Readers never see the graph being changed: each version of the graph is an immutable CsrGraph, and
+ * getSnapshot() returns the latest one published with a single volatile read, taking no lock.  A reader can
+ * run as many queries as it likes against one snapshot and they will all see the same version, however many
+ * changes are published in the meantime; a snapshot that is no longer referenced is simply garbage
+ * collected.
+ *
+ * Writers record their changes in an EdgeBatch and hand it to apply(), which builds the next version from
+ * the current one with CsrGraphUpdate and publishes it.  Building a version copies the edge arrays, so the
+ * changes of many writers are applied together: each batch is queued before its writer takes the write lock,
+ * and whichever writer gets the lock applies every batch queued by then in one new version, leaving the
+ * others to find theirs already published.  The single change methods (addEdge() and so on) are each a batch
+ * of one, which is fine for occasional changes, but a writer with many changes to make should record them
+ * in one batch.
+ */
+public class ConcurrentWeightedGraph {
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<PendingBatch> pendingBatches = new ConcurrentLinkedQueue<>();
+    private volatile Version current;
+
+    /**
+     * A published version of the graph and its number, which only ever increases
+     */
+    private static class Version {
+        private final CsrGraph graph;
+        private final long number;
+
+        Version(CsrGraph graph, long number) {
+            this.graph = graph;
+            this.number = number;
+        }
+    }
+
+    /**
+     * A batch waiting to be applied, along with the version it was published in once it has been (both
+     * guarded by writeLock)
+     */
+    private static class PendingBatch {
+        private final EdgeBatch batch;
+        private long publishedIn;
+        private Throwable failure; // thrown while building the version, so always unchecked
+
+        PendingBatch(EdgeBatch batch) {
+            this.batch = batch;
+        }
+    }
+
+    public ConcurrentWeightedGraph() {
+        this(CsrGraph.fromEdges(new long[0], new long[0], new int[0], 0));
+    }
+
+    /**
+     * Creates a graph whose first version is the provided snapshot, which may be one mapped from a file
+     */
+    public ConcurrentWeightedGraph(CsrGraph initialGraph) {
+        Preconditions.checkArgument(initialGraph != null, "initialGraph cannot be NULL");
+        current = new Version(initialGraph, 0);
+    }
+
+    /**
+     * Returns the latest published version of the graph, without taking any lock
+     */
+    public CsrGraph getSnapshot() {
+        return current.graph;
+    }
+
+    /**
+     * Returns the number of the latest published version, which starts at 0 and goes up by one with each
+     * version published
+     */
+    public long getVersion() {
+        return current.number;
+    }
+
+    /**
+     * Applies every change recorded in the provided batch, in order, and publishes the result along with any
+     * other batches queued at the same time.  Returns once the changes are visible to getSnapshot(), with the
+     * number of the version they were published in.  The batch mustn't be changed until this returns.
+     *
+     * If a group of batches can't be built, each is retried in a version of its own, so an exception thrown
+     * here always comes from this batch and the others are published as usual.  The exception to that is an
+     * Error such as OutOfMemoryError, which fails every batch in the group unapplied: each of their callers
+     * gets the Error and must apply its batch again
+     */
+    public long apply(EdgeBatch batch) {
+        Preconditions.checkArgument(batch != null, "batch cannot be NULL");
+        if (batch.isEmpty()) {
+            return getVersion();
+        }
+
+        PendingBatch pending = new PendingBatch(batch);
+        pendingBatches.add(pending);
+        writeLock.lock();
+        try {
+            if (pending.publishedIn == 0 && pending.failure == null) {
+                publishPendingBatches();
+            }
+            // the batch was queued before the lock was taken, so either that publish or an earlier one took it
+            Preconditions.checkState(pending.publishedIn != 0 || pending.failure != null,
+                    "batch was neither published nor failed");
+            if (pending.failure instanceof Error) {
+                throw (Error) pending.failure;
+            }
+            if (pending.failure != null) {
+                throw (RuntimeException) pending.failure;
+            }
+            return pending.publishedIn;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long addVertex(long vertexId) {
+        return apply(new EdgeBatch(1).addVertex(vertexId));
+    }
+
+    public long addEdge(long v1Id, long v2Id) {
+        return apply(new EdgeBatch(1).addEdge(v1Id, v2Id));
+    }
+
+    public long addEdge(long v1Id, long v2Id, int weight) {
+        return apply(new EdgeBatch(1).addEdge(v1Id, v2Id, weight));
+    }
+
+    public long removeEdge(long v1Id, long v2Id) {
+        return apply(new EdgeBatch(1).removeEdge(v1Id, v2Id));
+    }
+
+    public long updateEdgeWeight(long v1Id, long v2Id, int weight) {
+        return apply(new EdgeBatch(1).updateEdgeWeight(v1Id, v2Id, weight));
+    }
+
+    /**
+     * Finds a path through the latest version of the graph; see CsrGraph.findPathViaBFS().  Queries that must
+     * see the same version should share a snapshot from getSnapshot() instead
+     */
+    public List<WeightedGraph.Vertex> findPathViaBFS(long startId, long endId) {
+        CsrGraph graph = getSnapshot();
+        return graph.findPathViaBFS(vertexIn(graph, startId), vertexIn(graph, endId));
+    }
+
+    private static WeightedGraph.Vertex vertexIn(CsrGraph graph, long vertexId) {
+        int id = graph.getVertexTable().getVertexId(vertexId);
+        Preconditions.checkArgument(id >= 0, "There is no vertex with id %s in the graph", vertexId);
+        return graph.getVertex(id);
+    }
+
+    /**
+     * Applies every queued batch in one new version, or if that fails, each in a version of its own; must be
+     * called holding writeLock
+     */
+    private void publishPendingBatches() {
+        List<PendingBatch> group = new ArrayList<>();
+        PendingBatch pending;
+        while ((pending = pendingBatches.poll()) != null) {
+            group.add(pending);
+        }
+
+        try {
+            try {
+                publish(group);
+            } catch (RuntimeException e) {
+                if (group.size() == 1) {
+                    group.get(0).failure = e;
+                } else {
+                    // one bad batch mustn't cost the writers grouped with it their changes
+                    for (PendingBatch member : group) {
+                        try {
+                            publish(Collections.singletonList(member));
+                        } catch (RuntimeException memberFailure) {
+                            member.failure = memberFailure;
+                        }
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            // even an Error such as OutOfMemoryError, which copying the edge arrays can well throw, must reach
+            // every writer still waiting: their batches have left the queue, so nothing else would tell them
+            // their changes were lost
+            for (PendingBatch member : group) {
+                if (member.publishedIn == 0 && member.failure == null) {
+                    member.failure = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the provided batches together in one new version, or throws without publishing anything
+     */
+    private void publish(List<PendingBatch> members) {
+        List<EdgeBatch> batches = new ArrayList<>(members.size());
+        for (PendingBatch member : members) {
+            batches.add(member.batch);
+        }
+
+        Version next = new Version(buildVersion(current.graph, batches), current.number + 1);
+        current = next;
+        for (PendingBatch member : members) {
+            member.publishedIn = next.number;
+        }
+    }
+
+    /**
+     * Builds the version following the provided one; package-private so tests can make publishing fail
+     */
+    CsrGraph buildVersion(CsrGraph base, List<EdgeBatch> batches) {
+        return new CsrGraphUpdate(base).apply(batches);
+    }
+}
@@ -0,0 +1,942 @@
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An immutable snapshot of a WeightedGraph in compressed sparse row (CSR) form, obtained from
+ * WeightedGraph.freeze().  Each vertex is given a dense int id, and all of the graph's edges are laid out
+ * in three flat arrays: the outgoing edges of vertex v are the entries from offsets[v] up to (but not
+ * including) offsets[v + 1] of targets (the id of the vertex each edge leads to) and weights.  As in
+ * WeightedGraph every edge is stored once in each direction.
+ *
+ * The arrays cost 4 bytes per vertex plus 8 per edge direction, rather than an Edge object and a list node per
+ * direction, and a traversal scans contiguous int arrays instead of chasing pointers.  The searches and
+ * spanning forest offered here return the same shapes as their WeightedGraph counterparts.
+ *
+ * A graph written out with writeTo() can be opened again by mapping the file straight into memory, without
+ * building a WeightedGraph or parsing anything; the three arrays are then read from the mapped file.
+ */
+public class CsrGraph {
+
+    private final int vertexCount;
+    private final VertexTable vertices;
+    // a graph built in memory keeps its edges in int arrays, which are the fastest to scan, while a graph
+    // mapped from a file reads them from the mapped buffers instead and leaves the arrays null
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final IntBuffer mappedOffsets;
+    private final IntBuffer mappedTargets;
+    private final IntBuffer mappedWeights;
+    private final boolean hasNegativeWeights;
+
+    /**
+     * An estimate of the distance between two vertices, given by their dense ids, used to guide an A*
+     * search.  For the search to find shortest paths the estimate must never exceed the true distance
+     */
+    @FunctionalInterface
+    public interface Heuristic {
+        long estimateDistance(int fromId, int toId);
+    }
+
+    /**
+     * Builds a snapshot from a WeightedGraph's internal storage.  The dense ids are the graph's own vertex
+     * indexes, so its id map can be copied rather than rebuilt
+     */
+    CsrGraph(List<WeightedGraph.Vertex> graphVertices, List<List<WeightedGraph.Edge>> adjacencyLists, LongIntHashMap vertexIndexes) {
+        vertexCount = graphVertices.size();
+        LongIntHashMap vertexIds = new LongIntHashMap(vertexIndexes);
+        vertices = new ArrayVertexTable(graphVertices.toArray(new WeightedGraph.Vertex[0]), vertexIds);
+
+        int[] edgeOffsets = new int[vertexCount + 1];
+        for (int id = 0; id < vertexCount; id++) {
+            edgeOffsets[id + 1] = Math.addExact(edgeOffsets[id], adjacencyLists.get(id).size());
+        }
+
+        int[] edgeTargets = new int[edgeOffsets[vertexCount]];
+        int[] edgeWeights = new int[edgeOffsets[vertexCount]];
+        boolean negativeWeightFound = false;
+        for (int id = 0; id < vertexCount; id++) {
+            int edgeIndex = edgeOffsets[id];
+            for (WeightedGraph.Edge edge : adjacencyLists.get(id)) {
+                edgeTargets[edgeIndex] = vertexIds.get(edge.getEndVertex().getId());
+                edgeWeights[edgeIndex] = edge.getWeight();
+                negativeWeightFound |= (edge.getWeight() < 0);
+                edgeIndex++;
+            }
+        }
+
+        offsets = edgeOffsets;
+        targets = edgeTargets;
+        weights = edgeWeights;
+        mappedOffsets = null;
+        mappedTargets = null;
+        mappedWeights = null;
+        hasNegativeWeights = negativeWeightFound;
+    }
+
+    /**
+     * Wraps the buffers CsrGraphFile has mapped a graph file's sections into
+     */
+    CsrGraph(VertexTable vertices, IntBuffer offsets, IntBuffer targets, IntBuffer weights, boolean hasNegativeWeights) {
+        this.vertexCount = vertices.size();
+        this.vertices = vertices;
+        this.offsets = null;
+        this.targets = null;
+        this.weights = null;
+        this.mappedOffsets = offsets;
+        this.mappedTargets = targets;
+        this.mappedWeights = weights;
+        this.hasNegativeWeights = hasNegativeWeights;
+    }
+
+    /**
+     * Wraps arrays laid out as described above, which the new graph takes ownership of
+     */
+    CsrGraph(VertexTable vertices, int[] offsets, int[] targets, int[] weights, boolean hasNegativeWeights) {
+        this.vertexCount = vertices.size();
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.mappedOffsets = null;
+        this.mappedTargets = null;
+        this.mappedWeights = null;
+        this.hasNegativeWeights = hasNegativeWeights;
+    }
+
+    /**
+     * Builds a graph straight from an edge list text file in the format EdgeListReader reads, never creating
+     * a WeightedGraph or an object per edge
+     */
+    public static CsrGraph fromEdgeList(Path edgeList) throws IOException {
+        long[] startIds = new long[1 << 16];
+        long[] endIds = new long[1 << 16];
+        int[] edgeWeights = new int[1 << 16];
+        int edgeCount = 0;
+        try (EdgeListReader reader = EdgeListReader.open(edgeList)) {
+            int read;
+            while ((read = reader.read(startIds, endIds, edgeWeights, edgeCount, startIds.length - edgeCount)) > 0) {
+                edgeCount += read;
+                if (edgeCount == startIds.length) {
+                    int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * edgeCount);
+                    Preconditions.checkState(capacity > edgeCount, "%s holds too many edges for a CsrGraph", edgeList);
+                    startIds = Arrays.copyOf(startIds, capacity);
+                    endIds = Arrays.copyOf(endIds, capacity);
+                    edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+                }
+            }
+        }
+        return fromEdges(startIds, endIds, edgeWeights, edgeCount);
+    }
+
+    /**
+     * Builds a graph from the first edgeCount entries of parallel arrays holding each edge's end vertex ids
+     * and weight.  Vertices get their dense ids in order of first appearance and each vertex's edges keep the
+     * order they are listed in, so the result is laid out exactly as freeze() would lay out a WeightedGraph
+     * the same edges had been added to one at a time
+     */
+    public static CsrGraph fromEdges(long[] startIds, long[] endIds, int[] edgeWeights, int edgeCount) {
+        Preconditions.checkArgument(startIds != null && endIds != null && edgeWeights != null, "arrays cannot be NULL");
+        Preconditions.checkArgument(edgeCount >= 0 && edgeCount <= startIds.length && edgeCount <= endIds.length
+                && edgeCount <= edgeWeights.length, "edgeCount must be between 0 and the length of the arrays");
+        LongIntHashMap vertexIds = new LongIntHashMap(16);
+        long[] ids = new long[16];
+        int vertexCount = 0;
+        int[] endpoints = new int[2 * edgeCount]; // the dense ids of each edge's start and then its end
+        for (int i = 0; i < endpoints.length; i++) {
+            long id = (i % 2 == 0) ? startIds[i / 2] : endIds[i / 2];
+            int denseId = vertexIds.get(id);
+            if (denseId < 0) {
+                denseId = vertexCount;
+                vertexIds.put(id, denseId);
+                if (vertexCount == ids.length) {
+                    ids = Arrays.copyOf(ids, 2 * vertexCount);
+                }
+                ids[vertexCount++] = id;
+            }
+            endpoints[i] = denseId;
+        }
+
+        int[] edgeOffsets = new int[vertexCount + 1];
+        for (int denseId : endpoints) {
+            edgeOffsets[denseId + 1]++;
+        }
+        for (int id = 0; id < vertexCount; id++) {
+            edgeOffsets[id + 1] = Math.addExact(edgeOffsets[id + 1], edgeOffsets[id]);
+        }
+
+        int[] edgeTargets = new int[endpoints.length];
+        int[] sortedWeights = new int[endpoints.length];
+        int[] nextEdgeIndexes = Arrays.copyOf(edgeOffsets, vertexCount);
+        boolean negativeWeightFound = false;
+        for (int i = 0; i < edgeCount; i++) {
+            int start = endpoints[2 * i];
+            int end = endpoints[2 * i + 1];
+            edgeTargets[nextEdgeIndexes[start]] = end;
+            sortedWeights[nextEdgeIndexes[start]++] = edgeWeights[i];
+            edgeTargets[nextEdgeIndexes[end]] = start;
+            sortedWeights[nextEdgeIndexes[end]++] = edgeWeights[i];
+            negativeWeightFound |= (edgeWeights[i] < 0);
+        }
+
+        WeightedGraph.Vertex[] vertices = new WeightedGraph.Vertex[vertexCount];
+        for (int id = 0; id < vertexCount; id++) {
+            vertices[id] = new WeightedGraph.Vertex(ids[id]);
+        }
+        return new CsrGraph(new ArrayVertexTable(vertices, vertexIds), edgeOffsets, edgeTargets, sortedWeights,
+                negativeWeightFound);
+    }
+
+    /**
+     * Opens a graph file written by writeTo(), or by EdgeListConverter, by mapping it into memory.  Nothing
+     * is parsed or copied, so queries can start at once and pages of the file are only read as they are
+     * touched.  See CsrGraphFile for the layout of the file
+     */
+    public static CsrGraph open(Path file) throws IOException {
+        return CsrGraphFile.open(file);
+    }
+
+    /**
+     * Writes the graph to the provided file in the binary format read by open(), replacing the file if it
+     * already exists
+     */
+    public void writeTo(Path file) throws IOException {
+        CsrGraphFile.write(this, file);
+    }
+
+    VertexTable getVertexTable() {
+        return vertices;
+    }
+
+    boolean hasNegativeWeights() {
+        return hasNegativeWeights;
+    }
+
+    /**
+     * Copies the targets and weights of length edges, starting from the provided edge index, into the
+     * provided arrays
+     */
+    void copyEdges(int edgeIndex, int[] edgeTargets, int[] edgeWeights, int destinationIndex, int length) {
+        if (targets != null) {
+            System.arraycopy(targets, edgeIndex, edgeTargets, destinationIndex, length);
+            System.arraycopy(weights, edgeIndex, edgeWeights, destinationIndex, length);
+        } else {
+            IntBuffer targetsFrom = mappedTargets.duplicate();
+            targetsFrom.position(edgeIndex);
+            targetsFrom.get(edgeTargets, destinationIndex, length);
+            IntBuffer weightsFrom = mappedWeights.duplicate();
+            weightsFrom.position(edgeIndex);
+            weightsFrom.get(edgeWeights, destinationIndex, length);
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of edges in the graph, counting each direction separately
+     */
+    public int getEdgeCount() {
+        return getEdgeOffset(vertexCount);
+    }
+
+    public WeightedGraph.Vertex getVertex(int id) {
+        return vertices.getVertex(id);
+    }
+
+    /**
+     * Returns the dense id of the provided vertex, or -1 if it isn't part of the graph
+     */
+    public int getVertexId(WeightedGraph.Vertex vertex) {
+        return (vertex == null) ? -1 : vertices.getVertexId(vertex.getId());
+    }
+
+    /**
+     * Returns the index of the first outgoing edge of the vertex with the provided id.  Its outgoing edges
+     * run up to, but not including, getEdgeOffset(id + 1)
+     */
+    public int getEdgeOffset(int id) {
+        return (offsets != null) ? offsets[id] : mappedOffsets.get(id);
+    }
+
+    public int getEdgeTarget(int edgeIndex) {
+        return (targets != null) ? targets[edgeIndex] : mappedTargets.get(edgeIndex);
+    }
+
+    public int getEdgeWeight(int edgeIndex) {
+        return (weights != null) ? weights[edgeIndex] : mappedWeights.get(edgeIndex);
+    }
+
+    public List<WeightedGraph.Vertex> findPathViaBFS(WeightedGraph.Vertex start, WeightedGraph.Vertex end) {
+        int startId = requireVertexId(start);
+        int endId = requireVertexId(end);
+        if (startId == endId) {
+            return Collections.singletonList(start);
+        }
+
+        // the context records the vertex each vertex was first reached from (start is its own parent).  Each
+        // vertex is queued at most once, so a plain array is big enough to hold the queue
+        TraversalContext context = TraversalContext.forCurrentThread(vertexCount);
+        int[] queue = context.getQueue();
+        int head = 0;
+        int tail = 0;
+        context.visit(startId, startId, 0);
+        queue[tail++] = startId;
+
+        while (head < tail) {
+            int current = queue[head++];
+            for (int edgeIndex = getEdgeOffset(current); edgeIndex < getEdgeOffset(current + 1); edgeIndex++) {
+                int next = getEdgeTarget(edgeIndex);
+                if (!context.isVisited(next)) {
+                    context.visit(next, current, context.getDistance(current) + 1);
+                    if (next == endId) {
+                        return buildPathStartingFromEnd(endId, context);
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    public List<WeightedGraph.Vertex> findPathViaDFS(WeightedGraph.Vertex start, WeightedGraph.Vertex end) {
+        int startId = requireVertexId(start);
+        int endId = requireVertexId(end);
+        if (startId == endId) {
+            return Collections.singletonList(start);
+        }
+
+        // as well as the vertex itself, the stack remembers how far through its edges each vertex has got so
+        // that a vertex's edges are scanned only once in total rather than once per visit
+        TraversalContext context = TraversalContext.forCurrentThread(vertexCount);
+        int[] stack = context.getQueue();
+        int[] nextEdge = context.getCursors();
+        int depth = 0;
+        context.visit(startId, startId, 0);
+        stack[depth] = startId;
+        nextEdge[depth++] = getEdgeOffset(startId);
+
+        while (depth > 0) {
+            int current = stack[depth - 1];
+            int edgeIndex = nextEdge[depth - 1];
+            while (edgeIndex < getEdgeOffset(current + 1) && context.isVisited(getEdgeTarget(edgeIndex))) {
+                edgeIndex++;
+            }
+
+            if (edgeIndex == getEdgeOffset(current + 1)) {
+                depth--;
+            } else {
+                nextEdge[depth - 1] = edgeIndex + 1;
+                int next = getEdgeTarget(edgeIndex);
+                context.visit(next, current, depth);
+                if (next == endId) {
+                    return buildPathStartingFromEnd(endId, context);
+                }
+                stack[depth] = next;
+                nextEdge[depth++] = getEdgeOffset(next);
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Runs a breadth first search from the provided vertex to every vertex reachable from it, spreading the
+     * work of each level across the common fork-join pool
+     */
+    public BreadthFirstTree computeBreadthFirstTree(WeightedGraph.Vertex source) {
+        return computeBreadthFirstTree(source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs a breadth first search from the provided vertex to every vertex reachable from it, spreading the
+     * work of each level across the provided fork-join pool.  See ParallelBreadthFirstSearch for how the
+     * levels are expanded
+     */
+    public BreadthFirstTree computeBreadthFirstTree(WeightedGraph.Vertex source, ForkJoinPool pool) {
+        int sourceId = requireVertexId(source);
+        Preconditions.checkArgument(pool != null, "pool cannot be NULL");
+        ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(this, pool);
+        search.run(sourceId, -1);
+        return new BreadthFirstTree(search.getParents(), search.getDistances());
+    }
+
+    /**
+     * Returns a path with the fewest edges between the provided vertices, or an empty list if there is no
+     * path between them, found by searching outwards from both ends at once.  Each step expands a whole level
+     * of whichever search has the smaller frontier, and the searches stop at the end of the first level in
+     * which they meet.  On graphs where the number of vertices within k edges grows quickly with k, two
+     * searches of half the depth visit far fewer vertices than findPathViaBFS() does
+     */
+    public List<WeightedGraph.Vertex> findPathViaBidirectionalBFS(WeightedGraph.Vertex start, WeightedGraph.Vertex end) {
+        int startId = requireVertexId(start);
+        int endId = requireVertexId(end);
+        if (startId == endId) {
+            return Collections.singletonList(start);
+        }
+
+        // each search keeps its own context.  The queues hold each search's vertices in the order they were
+        // reached, so a level is a contiguous run of its queue
+        TraversalContext forwardSearch = TraversalContext.forCurrentThread(vertexCount);
+        TraversalContext backwardSearch = TraversalContext.secondForCurrentThread(vertexCount);
+        int[] forwardQueue = forwardSearch.getQueue();
+        int[] backwardQueue = backwardSearch.getQueue();
+        forwardSearch.visit(startId, startId, 0);
+        backwardSearch.visit(endId, endId, 0);
+        forwardQueue[0] = startId;
+        backwardQueue[0] = endId;
+        int forwardHead = 0;
+        int forwardTail = 1;
+        int backwardHead = 0;
+        int backwardTail = 1;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            boolean forward = (forwardTail - forwardHead) <= (backwardTail - backwardHead);
+            TraversalContext search = forward ? forwardSearch : backwardSearch;
+            TraversalContext otherSearch = forward ? backwardSearch : forwardSearch;
+            int[] queue = search.getQueue();
+            int head = forward ? forwardHead : backwardHead;
+            int tail = forward ? forwardTail : backwardTail;
+
+            // the first edge found between the searches may not be on a shortest path, so the whole level is
+            // expanded and the edge joining the two with the fewest edges on either side is kept
+            int levelEnd = tail;
+            int bestLength = Integer.MAX_VALUE;
+            int meetingFrom = -1; // the ends of that edge, on this search's side and the other's
+            int meetingTo = -1;
+            while (head < levelEnd) {
+                int current = queue[head++];
+                for (int edgeIndex = getEdgeOffset(current); edgeIndex < getEdgeOffset(current + 1); edgeIndex++) {
+                    int next = getEdgeTarget(edgeIndex);
+                    if (otherSearch.isVisited(next)) {
+                        int length = search.getDistance(current) + 1 + otherSearch.getDistance(next);
+                        if (length < bestLength) {
+                            bestLength = length;
+                            meetingFrom = current;
+                            meetingTo = next;
+                        }
+                    } else if (!search.isVisited(next)) {
+                        search.visit(next, current, search.getDistance(current) + 1);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+
+            if (meetingFrom >= 0) {
+                int forwardEnd = forward ? meetingFrom : meetingTo;
+                int backwardStart = forward ? meetingTo : meetingFrom;
+                List<WeightedGraph.Vertex> path = buildPathStartingFromEnd(forwardEnd, forwardSearch);
+                for (int id = backwardStart; id != endId; id = backwardSearch.getParent(id)) {
+                    path.add(getVertex(id));
+                }
+                path.add(getVertex(endId));
+                return path;
+            }
+
+            if (forward) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns a path with the fewest edges between the provided vertices, or an empty list if there is no
+     * path between them, found by a breadth first search run across the common fork-join pool.  The search
+     * stops after the level that reaches the end vertex.  This pays off over findPathViaBFS() on large graphs
+     * whose vertices are many edges apart; for nearby vertices the serial search is cheaper
+     */
+    public List<WeightedGraph.Vertex> findPathViaParallelBFS(WeightedGraph.Vertex start, WeightedGraph.Vertex end) {
+        int startId = requireVertexId(start);
+        int endId = requireVertexId(end);
+        ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(this, ForkJoinPool.commonPool());
+        search.run(startId, endId);
+        int[] parents = search.getParents();
+        return (parents[endId] < 0) ? Collections.emptyList() : buildPathStartingFromEnd(endId, parents);
+    }
+
+    /**
+     * Runs a breadth first search from each of the provided vertices to every vertex reachable from it,
+     * returning their trees in the same order.  The searches are run together, up to 64 at a time, sharing
+     * each scan of a vertex's edges between all of the searches that reach it in the same level; see
+     * MultiSourceBreadthFirstSearch.  This is much cheaper than a computeBreadthFirstTree() per source, but
+     * each tree still takes eight bytes per vertex of the graph, so computeHopDistances() is the better
+     * choice when only the distances to a few vertices are wanted
+     */
+    public List<BreadthFirstTree> computeBreadthFirstTrees(List<WeightedGraph.Vertex> sources) {
+        int[] sourceIds = requireVertexIds(sources, "sources");
+        int[][] parents = new int[sourceIds.length][];
+        int[][] distances = new int[sourceIds.length][];
+        for (int i = 0; i < sourceIds.length; i++) {
+            parents[i] = newVertexArray();
+            distances[i] = newVertexArray();
+        }
+
+        new MultiSourceBreadthFirstSearch(this).run(sourceIds, (batchStart, reached, vertex, parent, level) -> {
+            for (long bits = reached; bits != 0; bits &= bits - 1) {
+                int source = batchStart + Long.numberOfTrailingZeros(bits);
+                parents[source][vertex] = parent;
+                distances[source][vertex] = level;
+            }
+            return false;
+        });
+
+        List<BreadthFirstTree> trees = new ArrayList<>(sourceIds.length);
+        for (int i = 0; i < sourceIds.length; i++) {
+            trees.add(new BreadthFirstTree(parents[i], distances[i]));
+        }
+        return trees;
+    }
+
+    /**
+     * Returns the number of edges on the shortest path from each of the provided sources to each of the
+     * provided targets, indexed [source][target] in the order they were provided, with -1 for a target that
+     * can't be reached from a source.  The searches are run together as in computeBreadthFirstTrees(), and
+     * each batch of them stops after the level in which every target has been reached from every source in
+     * the batch, so the result costs no more memory than the matrix itself
+     */
+    public int[][] computeHopDistances(List<WeightedGraph.Vertex> sources, List<WeightedGraph.Vertex> targets) {
+        int[] sourceIds = requireVertexIds(sources, "sources");
+        int[] targetIds = requireVertexIds(targets, "targets");
+        int[][] distances = new int[sourceIds.length][targetIds.length];
+        if (targetIds.length == 0) {
+            return distances;
+        }
+        for (int[] row : distances) {
+            Arrays.fill(row, -1);
+        }
+
+        // the targets at each vertex, as a linked list through nextTarget since a vertex may be given twice
+        int[] firstTarget = newVertexArray();
+        int[] nextTarget = new int[targetIds.length];
+        for (int target = targetIds.length - 1; target >= 0; target--) {
+            nextTarget[target] = firstTarget[targetIds[target]];
+            firstTarget[targetIds[target]] = target;
+        }
+
+        new MultiSourceBreadthFirstSearch(this).run(sourceIds, new MultiSourceBreadthFirstSearch.Visitor() {
+            private int currentBatch = -1;
+            private long pairsLeft; // the source and target pairs of the current batch not yet reached
+
+            @Override
+            public boolean reached(int batchStart, long reached, int vertex, int parent, int level) {
+                if (batchStart != currentBatch) {
+                    currentBatch = batchStart;
+                    int batchSize = Math.min(MultiSourceBreadthFirstSearch.SOURCES_PER_BATCH, sourceIds.length - batchStart);
+                    pairsLeft = (long) batchSize * targetIds.length;
+                }
+                for (int target = firstTarget[vertex]; target >= 0; target = nextTarget[target]) {
+                    for (long bits = reached; bits != 0; bits &= bits - 1) {
+                        distances[batchStart + Long.numberOfTrailingZeros(bits)][target] = level;
+                    }
+                    pairsLeft -= Long.bitCount(reached);
+                }
+                return pairsLeft == 0;
+            }
+        });
+        return distances;
+    }
+
+    /**
+     * The result of a breadth first search from a single source vertex: the number of edges on the shortest
+     * path to each vertex, and the tree of the vertices each one was first reached from
+     */
+    public class BreadthFirstTree {
+        private final int[] parents;   // the source is its own parent, -1 for vertices not reached
+        private final int[] distances; // -1 for vertices not reached
+
+        private BreadthFirstTree(int[] parents, int[] distances) {
+            this.parents = parents;
+            this.distances = distances;
+        }
+
+        /**
+         * Returns the number of edges on the shortest path to the provided vertex, or -1 if it can't be
+         * reached from the source
+         */
+        public int getDistance(WeightedGraph.Vertex vertex) {
+            return distances[requireVertexId(vertex)];
+        }
+
+        /**
+         * Returns the vertex the provided vertex was reached from, or null if it is the source or can't be
+         * reached
+         */
+        public WeightedGraph.Vertex getParent(WeightedGraph.Vertex vertex) {
+            int id = requireVertexId(vertex);
+            return (parents[id] < 0 || parents[id] == id) ? null : getVertex(parents[id]);
+        }
+
+        /**
+         * Returns a path with the fewest edges from the source to the provided vertex, or an empty list if it
+         * can't be reached
+         */
+        public List<WeightedGraph.Vertex> getPathTo(WeightedGraph.Vertex vertex) {
+            int id = requireVertexId(vertex);
+            return (parents[id] < 0) ? Collections.emptyList() : buildPathStartingFromEnd(id, parents);
+        }
+    }
+
+    /**
+     * Computes the minimum spanning forest of the graph using Prim's algorithm, in the same form as
+     * WeightedGraph.computeMinimumSpanningForest(): one list of edges per connected component.  Rather than
+     * queueing every edge, each vertex not yet in the forest is queued once, keyed by the lightest edge
+     * found to it so far, and that key is lowered as lighter edges turn up
+     */
+    public List<List<WeightedGraph.Edge>> computeMinimumSpanningForest() {
+        List<List<WeightedGraph.Edge>> msf = new ArrayList<>();
+        boolean[] inTheForest = new boolean[vertexCount];
+        int[] parents = new int[vertexCount];       // the vertex in the forest each queued vertex is cheapest to reach from
+        int[] parentEdges = new int[vertexCount];   // and the index of the edge that reaches it
+        IndexedIntHeap heap = new IndexedIntHeap(vertexCount);
+
+        for (int root = 0; root < vertexCount; root++) {
+            if (inTheForest[root]) {
+                continue;
+            }
+
+            // grow a new tree from the first vertex not yet in the forest
+            List<WeightedGraph.Edge> currentMST = new ArrayList<>();
+            msf.add(currentMST);
+            heap.insert(root, 0);
+            parents[root] = root;
+
+            while (!heap.isEmpty()) {
+                int current = heap.removeMin();
+                inTheForest[current] = true;
+                if (current != root) {
+                    currentMST.add(new WeightedGraph.Edge(getVertex(parents[current]), getVertex(current),
+                            getEdgeWeight(parentEdges[current])));
+                }
+
+                for (int edgeIndex = getEdgeOffset(current); edgeIndex < getEdgeOffset(current + 1); edgeIndex++) {
+                    int next = getEdgeTarget(edgeIndex);
+                    if (inTheForest[next]) {
+                        continue;
+                    }
+
+                    int weight = getEdgeWeight(edgeIndex);
+                    if (!heap.contains(next) || weight < heap.getKey(next)) {
+                        heap.insertOrDecreaseKey(next, weight);
+                        parents[next] = current;
+                        parentEdges[next] = edgeIndex;
+                    }
+                }
+            }
+        }
+
+        return msf;
+    }
+
+    /**
+     * Computes the minimum spanning forest of the graph using Kruskal's algorithm: every edge is sorted by
+     * weight with a parallel sort, then added in that order unless a union-find over the vertices shows its
+     * ends are already joined.  Returns the same shape as computeMinimumSpanningForest()
+     */
+    public List<List<WeightedGraph.Edge>> computeMinimumSpanningForestViaKruskal() {
+        int[] sources = new int[getEdgeCount()];
+        int undirectedEdgeCount = 0;
+        for (int id = 0; id < vertexCount; id++) {
+            for (int edgeIndex = getEdgeOffset(id); edgeIndex < getEdgeOffset(id + 1); edgeIndex++) {
+                sources[edgeIndex] = id;
+                if (getEdgeTarget(edgeIndex) > id) {
+                    undirectedEdgeCount++;
+                }
+            }
+        }
+
+        // each edge is sorted once, in the direction leading to the higher id, as its weight in the high half
+        // of a long and its index in the low half, so a primitive sort orders them by weight
+        long[] sortedEdges = new long[undirectedEdgeCount];
+        int count = 0;
+        for (int edgeIndex = 0; edgeIndex < sources.length; edgeIndex++) {
+            if (getEdgeTarget(edgeIndex) > sources[edgeIndex]) {
+                sortedEdges[count++] = ((long) getEdgeWeight(edgeIndex) << 32) | edgeIndex;
+            }
+        }
+        Arrays.parallelSort(sortedEdges);
+
+        UnionFind trees = new UnionFind(vertexCount);
+        int[] forestStarts = new int[Math.max(0, vertexCount - 1)];
+        int[] forestEdges = new int[Math.max(0, vertexCount - 1)];
+        int forestSize = 0;
+        for (int i = 0; i < sortedEdges.length && forestSize < vertexCount - 1; i++) {
+            int edgeIndex = (int) sortedEdges[i];
+            if (trees.union(sources[edgeIndex], getEdgeTarget(edgeIndex))) {
+                forestStarts[forestSize] = sources[edgeIndex];
+                forestEdges[forestSize++] = edgeIndex;
+            }
+        }
+
+        return buildForest(trees, forestStarts, forestEdges, forestSize);
+    }
+
+    /**
+     * Computes the minimum spanning forest of the graph using Boruvka's algorithm, spreading the work of each
+     * round across the common fork-join pool.  Returns the same shape as computeMinimumSpanningForest()
+     */
+    public List<List<WeightedGraph.Edge>> computeMinimumSpanningForestViaBoruvka() {
+        return computeMinimumSpanningForestViaBoruvka(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the minimum spanning forest of the graph using Boruvka's algorithm, spreading the work of each
+     * round across the provided fork-join pool.  See ParallelBoruvka for how the rounds are run
+     */
+    public List<List<WeightedGraph.Edge>> computeMinimumSpanningForestViaBoruvka(ForkJoinPool pool) {
+        Preconditions.checkArgument(pool != null, "pool cannot be NULL");
+        ParallelBoruvka boruvka = new ParallelBoruvka(this, pool);
+        boruvka.run();
+        return buildForest(boruvka.getTrees(), boruvka.getForestStarts(), boruvka.getForestEdges(), boruvka.getForestSize());
+    }
+
+    /**
+     * Computes the weighted shortest paths from the provided vertex to every vertex reachable from it,
+     * using Dijkstra's algorithm.  Edge weights must not be negative
+     */
+    public ShortestPaths computeShortestPaths(WeightedGraph.Vertex source) {
+        ShortestPaths paths = new ShortestPaths(requireVertexId(source));
+        search(paths, -1, null);
+        return paths;
+    }
+
+    /**
+     * Returns the path between the provided vertices with the smallest total weight, or an empty list if
+     * there is no path between them, using Dijkstra's algorithm.  The search stops as soon as the end vertex
+     * is settled rather than exploring the whole graph.  Edge weights must not be negative
+     */
+    public List<WeightedGraph.Vertex> findShortestPath(WeightedGraph.Vertex start, WeightedGraph.Vertex end) {
+        return findShortestPath(start, end, null);
+    }
+
+    /**
+     * Returns the path between the provided vertices with the smallest total weight, or an empty list if
+     * there is no path between them, using an A* search guided by the provided heuristic.  The closer the
+     * heuristic's estimates are to the true distances the fewer vertices the search has to visit, but it
+     * must never overestimate them or the path returned may not be the shortest.  Edge weights must not be
+     * negative
+     * @param heuristic estimate of the distance from any vertex to the end vertex, or null to fall back to
+     *                  Dijkstra's algorithm
+     */
+    public List<WeightedGraph.Vertex> findShortestPath(WeightedGraph.Vertex start, WeightedGraph.Vertex end, Heuristic heuristic) {
+        ShortestPaths paths = new ShortestPaths(requireVertexId(start));
+        int endId = requireVertexId(end);
+        search(paths, endId, heuristic);
+        return paths.getPathTo(end);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm, or A* if a heuristic is provided, from the source of the provided paths,
+     * stopping early once the target (if there is one, i.e. targetId >= 0) is settled.  Each vertex is
+     * queued under its distance so far plus its heuristic estimate, and a vertex whose distance improves is
+     * queued again even if it was already settled, so an inconsistent (but admissible) heuristic still
+     * yields shortest paths
+     */
+    private void search(ShortestPaths paths, int targetId, Heuristic heuristic) {
+        Preconditions.checkState(!hasNegativeWeights, "shortest paths can't be computed for a graph with negative edge weights");
+
+        long[] distances = paths.distances;
+        int[] parents = paths.parents;
+        IndexedIntHeap heap = new IndexedIntHeap(vertexCount);
+        heap.insert(paths.sourceId, (heuristic == null) ? 0 : heuristic.estimateDistance(paths.sourceId, targetId));
+
+        while (!heap.isEmpty()) {
+            int current = heap.removeMin();
+            if (current == targetId) {
+                return;
+            }
+
+            long currentDistance = distances[current];
+            for (int edgeIndex = getEdgeOffset(current); edgeIndex < getEdgeOffset(current + 1); edgeIndex++) {
+                int next = getEdgeTarget(edgeIndex);
+                long distance = currentDistance + getEdgeWeight(edgeIndex);
+                if (distance < distances[next]) {
+                    distances[next] = distance;
+                    parents[next] = current;
+                    long key = (heuristic == null) ? distance : distance + heuristic.estimateDistance(next, targetId);
+                    heap.insertOrDecreaseKey(next, key);
+                }
+            }
+        }
+    }
+
+    /**
+     * The result of a shortest path search from a single source vertex: the weight of the shortest path
+     * found to each vertex, and the shortest path tree that lets the paths themselves be rebuilt
+     */
+    public class ShortestPaths {
+        private final int sourceId;
+        private final long[] distances; // Long.MAX_VALUE for vertices not reached
+        private final int[] parents;    // the previous vertex on the path to each vertex, or -1 if not reached
+
+        private ShortestPaths(int sourceId) {
+            this.sourceId = sourceId;
+            this.distances = new long[vertexCount];
+            this.parents = newVertexArray();
+            Arrays.fill(distances, Long.MAX_VALUE);
+            distances[sourceId] = 0;
+            parents[sourceId] = sourceId;
+        }
+
+        /**
+         * Returns the total weight of the shortest path to the provided vertex, or Long.MAX_VALUE if it can't
+         * be reached from the source
+         */
+        public long getDistance(WeightedGraph.Vertex vertex) {
+            return distances[requireVertexId(vertex)];
+        }
+
+        /**
+         * Returns the shortest path from the source to the provided vertex, or an empty list if it can't be
+         * reached
+         */
+        public List<WeightedGraph.Vertex> getPathTo(WeightedGraph.Vertex vertex) {
+            int id = requireVertexId(vertex);
+            return (parents[id] < 0) ? Collections.emptyList() : buildPathStartingFromEnd(id, parents);
+        }
+    }
+
+    /**
+     * Groups the provided forest edges into one list per tree, ordered by the lowest vertex id in each tree as
+     * computeMinimumSpanningForest() orders them.  A vertex with no edges in the forest is a tree of its own
+     */
+    private List<List<WeightedGraph.Edge>> buildForest(UnionFind trees, int[] starts, int[] edgeIndexes, int edgeCount) {
+        int[] treeIndexes = new int[vertexCount];
+        Arrays.fill(treeIndexes, -1);
+        List<List<WeightedGraph.Edge>> msf = new ArrayList<>();
+        for (int id = 0; id < vertexCount; id++) {
+            int root = trees.find(id);
+            if (treeIndexes[root] < 0) {
+                treeIndexes[root] = msf.size();
+                msf.add(new ArrayList<>());
+            }
+        }
+
+        for (int i = 0; i < edgeCount; i++) {
+            int edgeIndex = edgeIndexes[i];
+            msf.get(treeIndexes[trees.find(starts[i])]).add(new WeightedGraph.Edge(getVertex(starts[i]),
+                    getVertex(getEdgeTarget(edgeIndex)), getEdgeWeight(edgeIndex)));
+        }
+        return msf;
+    }
+
+    /**
+     * The vertices of a graph built in memory: an array of the Vertex objects, and the id map copied from the
+     * WeightedGraph they came from
+     */
+    static class ArrayVertexTable implements VertexTable {
+        private final WeightedGraph.Vertex[] vertices;
+        private final LongIntHashMap vertexIds; // from each Vertex's own id to its dense id
+
+        ArrayVertexTable(WeightedGraph.Vertex[] vertices, LongIntHashMap vertexIds) {
+            this.vertices = vertices;
+            this.vertexIds = vertexIds;
+        }
+
+        /**
+         * Returns a table holding the provided table's vertices followed by new vertices with the first
+         * addedCount of the provided ids, leaving the provided table unchanged
+         */
+        static ArrayVertexTable extend(VertexTable table, long[] addedIds, int addedCount) {
+            int size = table.size();
+            WeightedGraph.Vertex[] vertices = new WeightedGraph.Vertex[size + addedCount];
+            LongIntHashMap vertexIds;
+            if (table instanceof ArrayVertexTable) {
+                System.arraycopy(((ArrayVertexTable) table).vertices, 0, vertices, 0, size);
+                vertexIds = new LongIntHashMap(((ArrayVertexTable) table).vertexIds);
+            } else {
+                vertexIds = new LongIntHashMap(size + addedCount);
+                for (int id = 0; id < size; id++) {
+                    vertices[id] = table.getVertex(id);
+                    vertexIds.put(vertices[id].getId(), id);
+                }
+            }
+
+            for (int i = 0; i < addedCount; i++) {
+                vertices[size + i] = new WeightedGraph.Vertex(addedIds[i]);
+                vertexIds.put(addedIds[i], size + i);
+            }
+            return new ArrayVertexTable(vertices, vertexIds);
+        }
+
+        @Override
+        public int size() {
+            return vertices.length;
+        }
+
+        @Override
+        public WeightedGraph.Vertex getVertex(int id) {
+            return vertices[id];
+        }
+
+        @Override
+        public int getVertexId(long vertexId) {
+            return vertexIds.get(vertexId);
+        }
+    }
+
+    private int requireVertexId(WeightedGraph.Vertex vertex) {
+        int id = getVertexId(vertex);
+        Preconditions.checkArgument(id >= 0, "The provided vertex must be non-null and a part of this graph");
+        return id;
+    }
+
+    private int[] requireVertexIds(List<WeightedGraph.Vertex> vertices, String name) {
+        Preconditions.checkArgument(vertices != null, "%s cannot be NULL", name);
+        int[] ids = new int[vertices.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = requireVertexId(vertices.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Returns an array with an entry for each vertex, all -1
+     */
+    private int[] newVertexArray() {
+        int[] array = new int[vertexCount];
+        Arrays.fill(array, -1);
+        return array;
+    }
+
+    private List<WeightedGraph.Vertex> buildPathStartingFromEnd(int endId, TraversalContext context) {
+        List<WeightedGraph.Vertex> path = new ArrayList<>(context.getDistance(endId) + 1);
+        for (int id = endId; ; id = context.getParent(id)) {
+            path.add(getVertex(id));
+            if (context.getParent(id) == id) {
+                break;
+            }
+        }
+
+        Collections.reverse(path);
+        return path;
+    }
+
+    private List<WeightedGraph.Vertex> buildPathStartingFromEnd(int endId, int[] parents) {
+        List<WeightedGraph.Vertex> path = new ArrayList<>();
+        int id = endId;
+        while (parents[id] != id) {
+            path.add(getVertex(id));
+            id = parents[id];
+        }
+        path.add(getVertex(id));
+
+        Collections.reverse(path);
+        return path;
+    }
+}
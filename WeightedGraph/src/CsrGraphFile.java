@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads and writes the binary graph files behind CsrGraph.writeTo() and CsrGraph.open().  A file is laid out
+ * so that every section can be mapped into memory and used as it is, with nothing to parse:
+ *
+ *   header          64 bytes: magic, format version, vertex count, edge count and flags as ints, then zeroes
+ *   vertex ids      long per vertex: the own id of the vertex with each dense id
+ *   sorted ids      long per vertex: the same ids in ascending order, to binary search for a vertex
+ *   labelled        long per 64 vertices: a bitset of the vertices created from a char label
+ *   sorted indexes  int per vertex: the dense id of the vertex with each sorted id
+ *   offsets         int per vertex, plus one: as in CsrGraph
+ *   targets         int per edge direction: as in CsrGraph
+ *   weights         int per edge direction: as in CsrGraph
+ *
+ * All values are little-endian, and every section starts at a multiple of the size of its values.  The
+ * edge count, like CsrGraph.getEdgeCount(), counts each direction separately.
+ */
+class CsrGraphFile {
+
+    private static final int MAGIC = 0x52534347; // "GCSR" read as a little-endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int NEGATIVE_WEIGHTS_FLAG = 1;
+
+    private CsrGraphFile() {
+    }
+
+    static void write(CsrGraph graph, Path file) throws IOException {
+        int vertexCount = graph.getVertexCount();
+        int edgeCount = graph.getEdgeCount();
+        VertexTable vertices = graph.getVertexTable();
+
+        long[] ids = new long[vertexCount];
+        long[] labelled = new long[wordsFor(vertexCount)];
+        for (int id = 0; id < vertexCount; id++) {
+            WeightedGraph.Vertex vertex = vertices.getVertex(id);
+            ids[id] = vertex.getId();
+            if (vertex.isLabelled()) {
+                labelled[id >>> 6] |= 1L << id;
+            }
+        }
+        long[] sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SectionWriter out = new SectionWriter(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(vertexCount);
+            out.putInt(edgeCount);
+            out.putInt(graph.hasNegativeWeights() ? NEGATIVE_WEIGHTS_FLAG : 0);
+            for (int i = 5 * Integer.BYTES; i < HEADER_BYTES; i += Integer.BYTES) {
+                out.putInt(0);
+            }
+
+            for (long id : ids) {
+                out.putLong(id);
+            }
+            for (long id : sortedIds) {
+                out.putLong(id);
+            }
+            for (long word : labelled) {
+                out.putLong(word);
+            }
+            for (long id : sortedIds) {
+                out.putInt(vertices.getVertexId(id));
+            }
+            for (int id = 0; id <= vertexCount; id++) {
+                out.putInt(graph.getEdgeOffset(id));
+            }
+            for (int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++) {
+                out.putInt(graph.getEdgeTarget(edgeIndex));
+            }
+            for (int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++) {
+                out.putInt(graph.getEdgeWeight(edgeIndex));
+            }
+            out.flush();
+        }
+    }
+
+    static CsrGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(file + " is not a graph file");
+            }
+
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a graph file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + " has unsupported format version " + header.getInt(4));
+            }
+            int vertexCount = header.getInt(8);
+            int edgeCount = header.getInt(12);
+            int flags = header.getInt(16);
+
+            long idsStart = HEADER_BYTES;
+            long sortedIdsStart = idsStart + (long) vertexCount * Long.BYTES;
+            long labelledStart = sortedIdsStart + (long) vertexCount * Long.BYTES;
+            long sortedIndexesStart = labelledStart + (long) wordsFor(vertexCount) * Long.BYTES;
+            long offsetsStart = sortedIndexesStart + (long) vertexCount * Integer.BYTES;
+            long targetsStart = offsetsStart + (vertexCount + 1L) * Integer.BYTES;
+            long weightsStart = targetsStart + (long) edgeCount * Integer.BYTES;
+            long end = weightsStart + (long) edgeCount * Integer.BYTES;
+            if (vertexCount < 0 || edgeCount < 0 || channel.size() != end) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+
+            MappedVertexTable vertices = new MappedVertexTable(
+                    map(channel, idsStart, sortedIdsStart - idsStart).asLongBuffer(),
+                    map(channel, sortedIdsStart, labelledStart - sortedIdsStart).asLongBuffer(),
+                    map(channel, labelledStart, sortedIndexesStart - labelledStart).asLongBuffer(),
+                    map(channel, sortedIndexesStart, offsetsStart - sortedIndexesStart).asIntBuffer());
+            return new CsrGraph(vertices,
+                    map(channel, offsetsStart, targetsStart - offsetsStart).asIntBuffer(),
+                    map(channel, targetsStart, weightsStart - targetsStart).asIntBuffer(),
+                    map(channel, weightsStart, end - weightsStart).asIntBuffer(),
+                    (flags & NEGATIVE_WEIGHTS_FLAG) != 0);
+        }
+    }
+
+    /**
+     * Maps a section of the file.  Each section is mapped on its own since a single mapping can't be larger
+     * than 2GB, which limits a file to a little over 500 million edge directions
+     */
+    private static ByteBuffer map(FileChannel channel, long start, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("graph file section of " + bytes + " bytes is too large to map");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int wordsFor(int vertexCount) {
+        return (int) ((vertexCount + Long.SIZE - 1L) / Long.SIZE);
+    }
+
+    /**
+     * Writes little-endian values to a channel through a reusable buffer
+     */
+    private static class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * The vertices of a mapped graph file.  Vertex objects are created as they are asked for, and a vertex's
+     * dense id is found by binary searching the sorted ids
+     */
+    private static class MappedVertexTable implements VertexTable {
+        private final LongBuffer ids;
+        private final LongBuffer sortedIds;
+        private final LongBuffer labelled;
+        private final IntBuffer sortedIndexes;
+
+        MappedVertexTable(LongBuffer ids, LongBuffer sortedIds, LongBuffer labelled, IntBuffer sortedIndexes) {
+            this.ids = ids;
+            this.sortedIds = sortedIds;
+            this.labelled = labelled;
+            this.sortedIndexes = sortedIndexes;
+        }
+
+        @Override
+        public int size() {
+            return ids.limit();
+        }
+
+        @Override
+        public WeightedGraph.Vertex getVertex(int id) {
+            long vertexId = ids.get(id);
+            boolean isLabelled = (labelled.get(id >>> 6) & (1L << id)) != 0;
+            return isLabelled ? new WeightedGraph.Vertex((char) vertexId) : new WeightedGraph.Vertex(vertexId);
+        }
+
+        @Override
+        public int getVertexId(long vertexId) {
+            int low = 0;
+            int high = sortedIds.limit() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long id = sortedIds.get(middle);
+                if (id < vertexId) {
+                    low = middle + 1;
+                } else if (id > vertexId) {
+                    high = middle - 1;
+                } else {
+                    return sortedIndexes.get(middle);
+                }
+            }
+            return -1;
+        }
+    }
+}
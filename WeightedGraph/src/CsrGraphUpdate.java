@@ -0,0 +1,235 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a new CsrGraph from an existing one and a list of EdgeBatches, used by ConcurrentWeightedGraph to
+ * publish each new version of its graph.  The existing graph is left untouched, so it can go on being read
+ * while the new one is built.
+ *
+ * The edges of each vertex a batch touches are first copied out of the existing graph into a growable list
+ * of their own, where the batch's changes are applied in order.  The new arrays are then laid out with the
+ * vertices in the same order: each run of untouched vertices between two touched ones is copied across with
+ * a single arraycopy (their edges stay contiguous, only shifted), and each touched vertex's list is copied
+ * in after it.  Vertices the batches add get the dense ids following the existing ones, and the existing
+ * graph's vertex table is shared if there are none.  Building a new version therefore costs one copy of the
+ * edge arrays plus work in proportion to the edges of the vertices changed, rather than a rebuild of the
+ * whole graph.
+ *
+ * An instance holds the state of a single update and is discarded afterwards.
+ */
+class CsrGraphUpdate {
+
+    private final CsrGraph base;
+    private final VertexTable baseVertices;
+    private final int baseVertexCount;
+
+    // the vertices the batches add, which follow the base graph's vertices
+    private final LongIntHashMap addedVertexIds = new LongIntHashMap(16);
+    private long[] addedIds = new long[16];
+    private int addedCount;
+
+    // the edges of each touched vertex, found through touchedIndexes by the vertex's dense id
+    private final LongIntHashMap touchedIndexes = new LongIntHashMap(16);
+    private int[] touchedVertices = new int[16];
+    private int[][] touchedTargets = new int[16][];
+    private int[][] touchedWeights = new int[16][];
+    private int[] touchedSizes = new int[16];
+    private int touchedCount;
+
+    private boolean negativeWeightAdded;
+    private boolean edgesRemovedOrReweighted;
+
+    CsrGraphUpdate(CsrGraph base) {
+        this.base = base;
+        this.baseVertices = base.getVertexTable();
+        this.baseVertexCount = base.getVertexCount();
+    }
+
+    CsrGraph apply(List<EdgeBatch> batches) {
+        for (EdgeBatch batch : batches) {
+            for (int i = 0; i < batch.size(); i++) {
+                applyChange(batch, i);
+            }
+        }
+        return build();
+    }
+
+    private void applyChange(EdgeBatch batch, int index) {
+        long startId = batch.getStartId(index);
+        long endId = batch.getEndId(index);
+        int weight = batch.getWeight(index);
+        switch (batch.getKind(index)) {
+            case EdgeBatch.ADD_VERTEX:
+                resolve(startId, true);
+                break;
+            case EdgeBatch.ADD_EDGE: {
+                int start = resolve(startId, true);
+                int end = resolve(endId, true);
+                appendEdge(touch(start), end, weight);
+                appendEdge(touch(end), start, weight);
+                negativeWeightAdded |= (weight < 0);
+                break;
+            }
+            case EdgeBatch.REMOVE_EDGE: {
+                int start = resolve(startId, false);
+                int end = resolve(endId, false);
+                if (start >= 0 && end >= 0) {
+                    removeEdges(touch(start), end);
+                    removeEdges(touch(end), start);
+                    edgesRemovedOrReweighted = true;
+                }
+                break;
+            }
+            case EdgeBatch.UPDATE_EDGE_WEIGHT: {
+                int start = resolve(startId, false);
+                int end = resolve(endId, false);
+                if (start >= 0 && end >= 0) {
+                    reweighEdges(touch(start), end, weight);
+                    reweighEdges(touch(end), start, weight);
+                    negativeWeightAdded |= (weight < 0);
+                    edgesRemovedOrReweighted = true;
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("unknown change kind " + batch.getKind(index));
+        }
+    }
+
+    /**
+     * Returns the dense id the vertex with the provided id has in the new graph, adding the vertex if create
+     * is true and it isn't there yet, or returning -1 if it is false
+     */
+    private int resolve(long vertexId, boolean create) {
+        int id = baseVertices.getVertexId(vertexId);
+        if (id < 0) {
+            id = addedVertexIds.get(vertexId);
+            if (id < 0 && create) {
+                id = baseVertexCount + addedCount;
+                addedVertexIds.put(vertexId, id);
+                if (addedCount == addedIds.length) {
+                    addedIds = Arrays.copyOf(addedIds, 2 * addedCount);
+                }
+                addedIds[addedCount++] = vertexId;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the index of the list of the provided vertex's edges, copying them out of the base graph the
+     * first time the vertex is touched
+     */
+    private int touch(int vertex) {
+        int index = touchedIndexes.get(vertex);
+        if (index >= 0) {
+            return index;
+        }
+
+        index = touchedCount++;
+        touchedIndexes.put(vertex, index);
+        if (index == touchedVertices.length) {
+            touchedVertices = Arrays.copyOf(touchedVertices, 2 * index);
+            touchedTargets = Arrays.copyOf(touchedTargets, 2 * index);
+            touchedWeights = Arrays.copyOf(touchedWeights, 2 * index);
+            touchedSizes = Arrays.copyOf(touchedSizes, 2 * index);
+        }
+
+        int degree = (vertex < baseVertexCount) ? base.getEdgeOffset(vertex + 1) - base.getEdgeOffset(vertex) : 0;
+        touchedVertices[index] = vertex;
+        touchedTargets[index] = new int[Math.max(4, degree + degree / 4)];
+        touchedWeights[index] = new int[touchedTargets[index].length];
+        touchedSizes[index] = degree;
+        if (degree > 0) {
+            base.copyEdges(base.getEdgeOffset(vertex), touchedTargets[index], touchedWeights[index], 0, degree);
+        }
+        return index;
+    }
+
+    private void appendEdge(int index, int target, int weight) {
+        int size = touchedSizes[index];
+        if (size == touchedTargets[index].length) {
+            touchedTargets[index] = Arrays.copyOf(touchedTargets[index], 2 * size);
+            touchedWeights[index] = Arrays.copyOf(touchedWeights[index], 2 * size);
+        }
+        touchedTargets[index][size] = target;
+        touchedWeights[index][size] = weight;
+        touchedSizes[index] = size + 1;
+    }
+
+    private void removeEdges(int index, int target) {
+        int[] targets = touchedTargets[index];
+        int[] weights = touchedWeights[index];
+        int kept = 0;
+        for (int i = 0; i < touchedSizes[index]; i++) {
+            if (targets[i] != target) {
+                targets[kept] = targets[i];
+                weights[kept++] = weights[i];
+            }
+        }
+        touchedSizes[index] = kept;
+    }
+
+    private void reweighEdges(int index, int target, int weight) {
+        int[] targets = touchedTargets[index];
+        for (int i = 0; i < touchedSizes[index]; i++) {
+            if (targets[i] == target) {
+                touchedWeights[index][i] = weight;
+            }
+        }
+    }
+
+    private CsrGraph build() {
+        int vertexCount = baseVertexCount + addedCount;
+        int[] offsets = new int[vertexCount + 1];
+        for (int vertex = 0; vertex < baseVertexCount; vertex++) {
+            offsets[vertex + 1] = base.getEdgeOffset(vertex + 1) - base.getEdgeOffset(vertex);
+        }
+        for (int index = 0; index < touchedCount; index++) {
+            offsets[touchedVertices[index] + 1] = touchedSizes[index];
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] = Math.addExact(offsets[vertex + 1], offsets[vertex]);
+        }
+
+        int[] targets = new int[offsets[vertexCount]];
+        int[] weights = new int[offsets[vertexCount]];
+        long[] touchedOrder = new long[touchedCount]; // each touched vertex with its list index, to be sorted
+        for (int index = 0; index < touchedCount; index++) {
+            touchedOrder[index] = ((long) touchedVertices[index] << 32) | index;
+        }
+        Arrays.sort(touchedOrder);
+
+        int runStart = 0; // the first vertex of the current run of untouched vertices
+        for (long touched : touchedOrder) {
+            int vertex = (int) (touched >>> 32);
+            int index = (int) touched;
+            copyRun(runStart, vertex, offsets, targets, weights);
+            System.arraycopy(touchedTargets[index], 0, targets, offsets[vertex], touchedSizes[index]);
+            System.arraycopy(touchedWeights[index], 0, weights, offsets[vertex], touchedSizes[index]);
+            runStart = vertex + 1;
+        }
+        copyRun(runStart, vertexCount, offsets, targets, weights);
+
+        // a negative weight may have gone with the edges removed or reweighted, including ones added earlier in
+        // the same batches, which only a scan can tell; otherwise no weight has been lost since the flags were set
+        boolean hasNegativeWeights = edgesRemovedOrReweighted ? Arrays.stream(weights).anyMatch(weight -> weight < 0)
+                : negativeWeightAdded || base.hasNegativeWeights();
+
+        VertexTable vertices = (addedCount == 0) ? baseVertices
+                : CsrGraph.ArrayVertexTable.extend(baseVertices, addedIds, addedCount);
+        return new CsrGraph(vertices, offsets, targets, weights, hasNegativeWeights);
+    }
+
+    /**
+     * Copies the edges of the untouched vertices from runStart up to runEnd, which are contiguous in both the
+     * base graph and the new one.  Vertices added by the batches have no edges in the base graph
+     */
+    private void copyRun(int runStart, int runEnd, int[] offsets, int[] targets, int[] weights) {
+        int baseEnd = Math.min(runEnd, baseVertexCount);
+        if (runStart < baseEnd) {
+            int from = base.getEdgeOffset(runStart);
+            base.copyEdges(from, targets, weights, offsets[runStart], base.getEdgeOffset(baseEnd) - from);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * A list of changes to a graph's vertices and edges, recorded to be applied together, in order, by
+ * ConcurrentWeightedGraph.apply().  The changes are kept in flat primitive arrays, so a batch of many
+ * thousands of edges costs a few bytes per change.
+ *
+ * A batch is recorded before it is known what the graph will look like when it is applied, so removing or
+ * reweighting an edge the graph doesn't have when the batch is applied is not an error; the change is
+ * simply skipped.  As in WeightedGraph, adding an edge adds any end vertex the graph doesn't have yet,
+ * removing an edge removes every edge between its two vertices, and reweighting an edge reweights all of
+ * them.
+ */
+public class EdgeBatch {
+
+    static final byte ADD_VERTEX = 0;
+    static final byte ADD_EDGE = 1;
+    static final byte REMOVE_EDGE = 2;
+    static final byte UPDATE_EDGE_WEIGHT = 3;
+
+    private byte[] kinds;
+    private long[] startIds;
+    private long[] endIds; // unused by ADD_VERTEX
+    private int[] weights; // only used by ADD_EDGE and UPDATE_EDGE_WEIGHT
+    private int size;
+
+    public EdgeBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        kinds = new byte[capacity];
+        startIds = new long[capacity];
+        endIds = new long[capacity];
+        weights = new int[capacity];
+    }
+
+    public EdgeBatch() {
+        this(16);
+    }
+
+    public EdgeBatch addVertex(long vertexId) {
+        return record(ADD_VERTEX, vertexId, 0, 0);
+    }
+
+    public EdgeBatch addEdge(long v1Id, long v2Id) {
+        return record(ADD_EDGE, v1Id, v2Id, Integer.MAX_VALUE);
+    }
+
+    public EdgeBatch addEdge(long v1Id, long v2Id, int weight) {
+        return record(ADD_EDGE, v1Id, v2Id, weight);
+    }
+
+    public EdgeBatch removeEdge(long v1Id, long v2Id) {
+        return record(REMOVE_EDGE, v1Id, v2Id, 0);
+    }
+
+    public EdgeBatch updateEdgeWeight(long v1Id, long v2Id, int weight) {
+        return record(UPDATE_EDGE_WEIGHT, v1Id, v2Id, weight);
+    }
+
+    /**
+     * Returns the number of changes recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every recorded change so the batch can be reused
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    byte getKind(int index) {
+        return kinds[index];
+    }
+
+    long getStartId(int index) {
+        return startIds[index];
+    }
+
+    long getEndId(int index) {
+        return endIds[index];
+    }
+
+    int getWeight(int index) {
+        return weights[index];
+    }
+
+    private EdgeBatch record(byte kind, long startId, long endId, int weight) {
+        if (size == kinds.length) {
+            int capacity = 2 * size;
+            kinds = Arrays.copyOf(kinds, capacity);
+            startIds = Arrays.copyOf(startIds, capacity);
+            endIds = Arrays.copyOf(endIds, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        kinds[size] = kind;
+        startIds[size] = startId;
+        endIds[size] = endId;
+        weights[size++] = weight;
+        return this;
+    }
+}
@@ -0,0 +1,27 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts a text file listing a graph's edges into the binary graph file CsrGraph.open() maps, without
+ * going through WeightedGraph.addEdge() for every edge.  From the command line:
+ *
+ *   java EdgeListConverter edges.txt graph.bin
+ *
+ * The text is read by EdgeListReader, which describes the format.  The graph written is the one freeze()
+ * would produce from a WeightedGraph the edges had been added to in the order they are listed.
+ */
+public class EdgeListConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java EdgeListConverter <edge list text file> <graph file>");
+            System.exit(1);
+        }
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    public static void convert(Path edgeList, Path graphFile) throws IOException {
+        CsrGraph.fromEdgeList(edgeList).writeTo(graphFile);
+    }
+}
@@ -0,0 +1,118 @@
+import com.google.common.base.Preconditions;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the edges of an edge list text into primitive arrays, a batch at a time, so that a graph of any
+ * size can be loaded through WeightedGraph.addEdges() without an object per edge or the whole file in
+ * memory.  Each line holds one edge: the ids of its two end vertices and optionally its weight, separated by
+ * spaces or tabs.  Blank lines and lines starting with '#' are skipped.  An edge without a weight gets the
+ * same weight WeightedGraph.addEdge() gives an edge added without one.
+ */
+public class EdgeListReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final String sourceName; // used in error messages
+    private int lineNumber;
+
+    public EdgeListReader(Reader reader) {
+        this(reader, "input");
+    }
+
+    private EdgeListReader(Reader reader, String sourceName) {
+        Preconditions.checkArgument(reader != null, "reader cannot be NULL");
+        this.reader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        this.sourceName = sourceName;
+    }
+
+    public static EdgeListReader open(Path edgeList) throws IOException {
+        Preconditions.checkArgument(edgeList != null, "edgeList cannot be NULL");
+        return new EdgeListReader(Files.newBufferedReader(edgeList, StandardCharsets.UTF_8), edgeList.toString());
+    }
+
+    /**
+     * Reads edges into the provided arrays, which must all be the same length, until they are full or the
+     * input runs out
+     * @return the number of edges read, which is 0 once the input has run out
+     */
+    public int read(long[] startIds, long[] endIds, int[] weights) throws IOException {
+        Preconditions.checkArgument(startIds != null, "arrays cannot be NULL");
+        return read(startIds, endIds, weights, 0, startIds.length);
+    }
+
+    /**
+     * Reads up to length edges into the provided arrays, starting at the provided offset in each of them
+     * @return the number of edges read, which is 0 once the input has run out (or if length is 0)
+     */
+    public int read(long[] startIds, long[] endIds, int[] weights, int offset, int length) throws IOException {
+        Preconditions.checkArgument(startIds != null && endIds != null && weights != null, "arrays cannot be NULL");
+        Preconditions.checkArgument(offset >= 0 && length >= 0 && offset + length <= startIds.length
+                && offset + length <= endIds.length && offset + length <= weights.length,
+                "offset and length must lie within the arrays");
+
+        int index = offset;
+        String line;
+        while (index < offset + length && (line = reader.readLine()) != null) {
+            lineNumber++;
+            int position = skipWhitespace(line, 0);
+            if (position == line.length() || line.charAt(position) == '#') {
+                continue;
+            }
+
+            try {
+                int end = skipToken(line, position);
+                startIds[index] = Long.parseLong(line.substring(position, end));
+                position = skipWhitespace(line, end);
+                if (position == line.length()) {
+                    throw malformedLine();
+                }
+
+                end = skipToken(line, position);
+                endIds[index] = Long.parseLong(line.substring(position, end));
+                position = skipWhitespace(line, end);
+                if (position == line.length()) {
+                    weights[index] = Integer.MAX_VALUE;
+                } else {
+                    end = skipToken(line, position);
+                    weights[index] = Integer.parseInt(line.substring(position, end));
+                    if (skipWhitespace(line, end) != line.length()) {
+                        throw malformedLine();
+                    }
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(sourceName + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+            index++;
+        }
+        return index - offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private IOException malformedLine() {
+        return new IOException(sourceName + ":" + lineNumber + ": expected two vertex ids and an optional weight");
+    }
+
+    private static int skipWhitespace(String line, int position) {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipToken(String line, int position) {
+        while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of dense int ids (e.g. CsrGraph vertex ids) in the range [0, capacity), each with a long
+ * key, that supports lowering the key of an id already in the heap.  The position of every id is kept in an
+ * int array rather than a map, so no operation allocates or boxes anything.
+ */
+class IndexedIntHeap {
+
+    private final int[] heap;       // ids, in heap order
+    private final int[] positions;  // positions[id] is the index of id in heap, or -1 if it isn't in the heap
+    private final long[] keys;      // keys[id] is only meaningful while id is in the heap
+    private int size;
+
+    IndexedIntHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    long getKey(int id) {
+        return keys[id];
+    }
+
+    void insert(int id, long key) {
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        bubbleUp(size++);
+    }
+
+    /**
+     * Lowers the key of an id that is already in the heap; a key that isn't lower is ignored
+     */
+    void decreaseKey(int id, long key) {
+        if (key < keys[id]) {
+            keys[id] = key;
+            bubbleUp(positions[id]);
+        }
+    }
+
+    /**
+     * Inserts the id with the provided key if it isn't in the heap, or otherwise lowers its key if the
+     * provided one is lower
+     */
+    void insertOrDecreaseKey(int id, long key) {
+        if (contains(id)) {
+            decreaseKey(id, key);
+        } else {
+            insert(id, key);
+        }
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.  The heap must not be empty
+     */
+    int removeMin() {
+        int result = heap[0];
+        positions[result] = -1;
+
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            positions[last] = 0;
+            bubbleDown(0);
+        }
+        return result;
+    }
+
+    private void bubbleUp(int index) {
+        // shift parents down into the hole as long as their keys are larger, then drop the id into place
+        int id = heap[index];
+        long key = keys[id];
+
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[index] = parent;
+            positions[parent] = index;
+            index = parentIndex;
+        }
+
+        heap[index] = id;
+        positions[id] = index;
+    }
+
+    private void bubbleDown(int index) {
+        int id = heap[index];
+        long key = keys[id];
+
+        int childIndex = (2 * index) + 1;
+        while (childIndex < size) {
+            int rightChildIndex = childIndex + 1;
+            if (rightChildIndex < size && keys[heap[rightChildIndex]] < keys[heap[childIndex]]) {
+                childIndex = rightChildIndex;
+            }
+
+            int child = heap[childIndex];
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[index] = child;
+            positions[child] = index;
+            index = childIndex;
+            childIndex = (2 * index) + 1;
+        }
+
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from long keys to non-negative int values, used to map vertex ids to the
+ * dense indexes WeightedGraph and CsrGraph store their vertices under.  Keys and values live in two flat
+ * primitive arrays probed linearly, so lookups neither box nor allocate, and each entry costs 12 bytes
+ * times the inverse of the load factor instead of a HashMap node plus a boxed key and value.
+ */
+class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int NO_VALUE = -1;
+
+    private long[] keys;
+    private int[] values; // NO_VALUE marks an empty slot
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    LongIntHashMap(LongIntHashMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        mask = other.mask;
+        size = other.size;
+        resizeThreshold = other.resizeThreshold;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to the provided key, or -1 if there isn't one
+     */
+    int get(long key) {
+        int slot = slotFor(key);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Maps the provided key to the provided value, replacing any value it was already mapped to
+     */
+    void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("LongIntHashMap values cannot be negative");
+        }
+
+        int slot = slotFor(key);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    private int slotFor(long key) {
+        // spread the key's bits (the finalizer from MurmurHash3) so that sequential ids don't cluster
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int slot = slotFor(oldKeys[i]);
+                while (values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * 0.7);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // the smallest power of two that keeps the expected number of entries under the load factor
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.7));
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+}
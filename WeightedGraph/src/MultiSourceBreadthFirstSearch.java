@@ -0,0 +1,104 @@
+import java.util.Arrays;
+
+/**
+ * Breadth first searches from many sources at once over a CsrGraph, sharing each scan of a vertex's edges
+ * between all of the searches that reach the vertex in the same level; used by
+ * CsrGraph.computeBreadthFirstTrees() and computeHopDistances().
+ *
+ * This is the multi-source BFS of Then et al. ("The More the Merrier: Efficient Multi-Source Graph
+ * Traversal").  The sources are taken 64 at a time, each given one bit of a long, and every vertex has three
+ * such masks: the searches that have seen it, the searches whose frontier it is in, and the searches whose
+ * next frontier it will be in.  A level scans the edges of every vertex in any frontier once, passing the
+ * vertex's frontier mask, less the searches that have already seen the neighbour, on to each neighbour with
+ * a couple of bitwise operations.  On graphs where many searches reach the same vertices in the same levels,
+ * as they do in small-world graphs, this reads the edge arrays once per level for up to 64 searches instead
+ * of once per search.
+ *
+ * An instance holds the masks of a run and is discarded afterwards.
+ */
+class MultiSourceBreadthFirstSearch {
+
+    static final int SOURCES_PER_BATCH = Long.SIZE;
+
+    /**
+     * Told about the vertices a batch of searches reaches
+     */
+    @FunctionalInterface
+    interface Visitor {
+        /**
+         * Called for each edge by which a level reaches a vertex some searches haven't seen yet, with those
+         * searches as bits of sources: bit i stands for the search from sourceIds[batchStart + i].  A vertex
+         * may be reported several times in one level, from different parents, but each search reaches it
+         * only once, so the masks of those calls never overlap.  The sources themselves are reported at
+         * level 0 with themselves as their parent
+         * @return true if the visitor needs nothing more from this batch, which stops it after the level
+         */
+        boolean reached(int batchStart, long sources, int vertex, int parent, int level);
+    }
+
+    private final CsrGraph graph;
+    private final int vertexCount;
+    private final long[] seen;
+    private long[] visit;
+    private long[] visitNext;
+
+    MultiSourceBreadthFirstSearch(CsrGraph graph) {
+        this.graph = graph;
+        this.vertexCount = graph.getVertexCount();
+        this.seen = new long[vertexCount];
+        this.visit = new long[vertexCount];
+        this.visitNext = new long[vertexCount];
+    }
+
+    void run(int[] sourceIds, Visitor visitor) {
+        for (int batchStart = 0; batchStart < sourceIds.length; batchStart += SOURCES_PER_BATCH) {
+            runBatch(sourceIds, batchStart, Math.min(SOURCES_PER_BATCH, sourceIds.length - batchStart), visitor);
+        }
+    }
+
+    private void runBatch(int[] sourceIds, int batchStart, int batchSize, Visitor visitor) {
+        // visitNext is always all zero between levels, but visit still holds the last frontier of a previous
+        // batch the visitor stopped early
+        Arrays.fill(seen, 0);
+        Arrays.fill(visit, 0);
+        boolean finished = false;
+        for (int i = 0; i < batchSize; i++) {
+            int source = sourceIds[batchStart + i];
+            seen[source] |= 1L << i;
+            visit[source] |= 1L << i;
+        }
+        for (int vertex = 0; vertex < vertexCount && !finished; vertex++) {
+            if (visit[vertex] != 0) {
+                finished = visitor.reached(batchStart, visit[vertex], vertex, vertex, 0);
+            }
+        }
+
+        boolean frontierEmpty = false;
+        for (int level = 1; !finished && !frontierEmpty; level++) {
+            frontierEmpty = true;
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                long sources = visit[vertex];
+                if (sources == 0) {
+                    continue;
+                }
+
+                visit[vertex] = 0; // so that visit is all zero again by the time it becomes visitNext
+                int edgeEnd = graph.getEdgeOffset(vertex + 1);
+                for (int edgeIndex = graph.getEdgeOffset(vertex); edgeIndex < edgeEnd; edgeIndex++) {
+                    int neighbour = graph.getEdgeTarget(edgeIndex);
+                    long reached = sources & ~seen[neighbour];
+                    if (reached != 0) {
+                        seen[neighbour] |= reached;
+                        visitNext[neighbour] |= reached;
+                        frontierEmpty = false;
+                        finished |= visitor.reached(batchStart, reached, neighbour, vertex, level);
+                    }
+                }
+            }
+
+            long[] swap = visit;
+            visit = visitNext;
+            visitNext = swap;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An open-addressing hash index from the dense index of a neighbour to the slots in a vertex's adjacency list
+ * holding edges to it, which WeightedGraph keeps for vertices with many edges so that finding, removing and
+ * reweighting an edge doesn't have to scan the whole list.  A neighbour joined by parallel edges has one
+ * entry per edge, so keys may repeat; entries are probed linearly and removed by shifting the rest of their
+ * run back, which needs no tombstones and works the same with repeated keys.
+ */
+class NeighbourIndex {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int EMPTY = -1;
+
+    private int[] neighbours;
+    private int[] slots; // EMPTY marks an empty entry
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    NeighbourIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a slot holding an edge to the provided neighbour, or -1 if there isn't one
+     */
+    int find(int neighbour) {
+        for (int entry = entryFor(neighbour); slots[entry] != EMPTY; entry = (entry + 1) & mask) {
+            if (neighbours[entry] == neighbour) {
+                return slots[entry];
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Passes every slot holding an edge to the provided neighbour to the provided action, which mustn't
+     * change the index
+     */
+    void forEachSlot(int neighbour, IntConsumer action) {
+        for (int entry = entryFor(neighbour); slots[entry] != EMPTY; entry = (entry + 1) & mask) {
+            if (neighbours[entry] == neighbour) {
+                action.accept(slots[entry]);
+            }
+        }
+    }
+
+    void add(int neighbour, int slot) {
+        int entry = entryFor(neighbour);
+        while (slots[entry] != EMPTY) {
+            entry = (entry + 1) & mask;
+        }
+        neighbours[entry] = neighbour;
+        slots[entry] = slot;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    /**
+     * Records that the edge to the provided neighbour held in one slot has been moved to another
+     */
+    void move(int neighbour, int fromSlot, int toSlot) {
+        slots[entryOf(neighbour, fromSlot)] = toSlot;
+    }
+
+    void remove(int neighbour, int slot) {
+        int hole = entryOf(neighbour, slot);
+        size--;
+
+        // shift back any later entry of the run that would no longer be found with the hole in front of it
+        for (int entry = (hole + 1) & mask; slots[entry] != EMPTY; entry = (entry + 1) & mask) {
+            int home = entryFor(neighbours[entry]);
+            if (((entry - home) & mask) >= ((entry - hole) & mask)) {
+                neighbours[hole] = neighbours[entry];
+                slots[hole] = slots[entry];
+                hole = entry;
+            }
+        }
+        slots[hole] = EMPTY;
+    }
+
+    private int entryOf(int neighbour, int slot) {
+        int entry = entryFor(neighbour);
+        while (neighbours[entry] != neighbour || slots[entry] != slot) {
+            if (slots[entry] == EMPTY) {
+                throw new IllegalStateException("no entry for slot " + slot + " of neighbour " + neighbour);
+            }
+            entry = (entry + 1) & mask;
+        }
+        return entry;
+    }
+
+    private int entryFor(int neighbour) {
+        int hash = neighbour * 0x9e3779b9; // spread sequential indexes, as LongIntHashMap does for ids
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void resize() {
+        int[] oldNeighbours = neighbours;
+        int[] oldSlots = slots;
+        allocate(slots.length * 2);
+
+        size = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                add(oldNeighbours[i], oldSlots[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        neighbours = new int[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * 0.7);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.7));
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+}
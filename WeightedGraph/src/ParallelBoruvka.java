@@ -0,0 +1,155 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Boruvka's minimum spanning forest algorithm over a CsrGraph, with the edge scanning of each round spread
+ * across a fork-join pool; used by CsrGraph.computeMinimumSpanningForestViaBoruvka().
+ *
+ * Every vertex starts as a component of its own.  In each round the vertices are split into chunks and each
+ * task finds, for each of its vertices, the lightest edge leading out of the vertex's component, then folds
+ * it into the component's lightest edge with an atomic min on an AtomicLongArray (the weight in the high
+ * half of the value and the edge index in the low half).  The lightest edge out of each component is always
+ * part of a minimum spanning forest, so the edges found are joined into the forest and their components
+ * merged before the next round, which at least halves the number of components that still have edges
+ * leaving them.  A component with no edge leading out of it is complete and takes no further part.
+ *
+ * Ties between equally light edges are broken by edge index, which is not the same in both directions of an
+ * edge, so two components may pick different edges of equal weight that would close a cycle; the merge
+ * skips any edge whose ends are already joined, which keeps the result a forest of the same weight.
+ *
+ * An instance holds the state of a single run and is discarded afterwards.
+ */
+class ParallelBoruvka {
+
+    private static final int VERTICES_PER_TASK = 1024;
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    private final CsrGraph graph;
+    private final ForkJoinPool pool;
+    private final int vertexCount;
+
+    private final UnionFind trees;
+    private final int[] forestStarts; // the start vertex and index of each edge added to the forest
+    private final int[] forestEdges;
+    private int forestSize;
+
+    ParallelBoruvka(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.vertexCount = graph.getVertexCount();
+        this.trees = new UnionFind(vertexCount);
+        this.forestStarts = new int[Math.max(0, vertexCount - 1)];
+        this.forestEdges = new int[Math.max(0, vertexCount - 1)];
+    }
+
+    UnionFind getTrees() {
+        return trees;
+    }
+
+    int[] getForestStarts() {
+        return forestStarts;
+    }
+
+    int[] getForestEdges() {
+        return forestEdges;
+    }
+
+    int getForestSize() {
+        return forestSize;
+    }
+
+    void run() {
+        // labels[v] is the component v belongs to, named after one of its vertices (its root in trees)
+        int[] labels = new int[vertexCount];
+        int[] active = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            labels[vertex] = vertex;
+            active[vertex] = vertex;
+        }
+        int activeCount = vertexCount;
+        boolean[] complete = new boolean[vertexCount];
+        AtomicLongArray lightestEdges = new AtomicLongArray(vertexCount);
+        int[] newLabels = new int[vertexCount]; // only the entries for the labels active in a round are used
+        int chunkCount = ParallelChunks.chunksFor(vertexCount, VERTICES_PER_TASK);
+
+        while (activeCount > 0) {
+            for (int i = 0; i < activeCount; i++) {
+                lightestEdges.set(active[i], NO_EDGE);
+            }
+
+            ParallelChunks.forEachChunk(pool, chunkCount, chunk -> {
+                int end = Math.min(vertexCount, (chunk + 1) * VERTICES_PER_TASK);
+                for (int vertex = chunk * VERTICES_PER_TASK; vertex < end; vertex++) {
+                    int label = labels[vertex];
+                    if (complete[label]) {
+                        continue;
+                    }
+
+                    long lightest = NO_EDGE;
+                    for (int edgeIndex = graph.getEdgeOffset(vertex); edgeIndex < graph.getEdgeOffset(vertex + 1); edgeIndex++) {
+                        if (labels[graph.getEdgeTarget(edgeIndex)] != label) {
+                            lightest = Math.min(lightest, ((long) graph.getEdgeWeight(edgeIndex) << 32) | edgeIndex);
+                        }
+                    }
+                    if (lightest != NO_EDGE) {
+                        lightestEdges.getAndAccumulate(label, lightest, Math::min);
+                    }
+                }
+            });
+
+            // join the lightest edges into the forest, then retire the components that had none
+            for (int i = 0; i < activeCount; i++) {
+                long lightest = lightestEdges.get(active[i]);
+                if (lightest == NO_EDGE) {
+                    complete[active[i]] = true;
+                    continue;
+                }
+
+                int edgeIndex = (int) lightest;
+                int start = sourceOf(edgeIndex);
+                if (trees.union(start, graph.getEdgeTarget(edgeIndex))) {
+                    forestStarts[forestSize] = start;
+                    forestEdges[forestSize++] = edgeIndex;
+                }
+            }
+
+            // relabel every vertex with its merged component's root; roots are always former labels, so the
+            // new labels can be looked up by old label, and the components still active are the new roots
+            int newActiveCount = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int label = active[i];
+                newLabels[label] = complete[label] ? label : trees.find(label);
+                if (newLabels[label] == label && !complete[label]) {
+                    active[newActiveCount++] = label;
+                }
+            }
+            activeCount = newActiveCount;
+
+            ParallelChunks.forEachChunk(pool, chunkCount, chunk -> {
+                int end = Math.min(vertexCount, (chunk + 1) * VERTICES_PER_TASK);
+                for (int vertex = chunk * VERTICES_PER_TASK; vertex < end; vertex++) {
+                    if (!complete[labels[vertex]]) {
+                        labels[vertex] = newLabels[labels[vertex]];
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the vertex the provided edge leaves from: the last vertex whose edges start at or before it
+     */
+    private int sourceOf(int edgeIndex) {
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (graph.getEdgeOffset(middle) <= edgeIndex) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,264 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A level-synchronous breadth first search over a CsrGraph that spreads the work of each level across a
+ * fork-join pool, used by CsrGraph.computeBreadthFirstTree() and findPathViaParallelBFS().
+ *
+ * Each level is expanded in one of two directions, following Beamer, Asanovic and Patterson's
+ * direction-optimizing BFS.  Top-down, the vertices of the frontier are split into chunks and each task scans
+ * the edges of its chunk, claiming unvisited neighbours by setting their bit in an atomic visited bitset so
+ * that every vertex joins exactly one task's share of the next frontier.  Bottom-up, the unvisited vertices
+ * are split into chunks and each one looks for any neighbour in the frontier, stopping at the first it finds;
+ * once the frontier covers a large part of the graph this skips most of the edges a top-down step would scan
+ * only to find their ends already visited.  A search starts top-down, switches to bottom-up once the edges
+ * leaving a growing frontier outnumber a fraction of those still unexplored, and switches back once the
+ * frontier has shrunk to a small fraction of the vertices.
+ *
+ * A search object holds the state of a single search and is discarded afterwards.
+ */
+class ParallelBreadthFirstSearch {
+
+    // the switching thresholds suggested by Beamer et al.: go bottom-up once the frontier's edges exceed
+    // 1/ALPHA of the unexplored edges, and back top-down once the frontier holds less than 1/BETA of the vertices
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private static final int VERTICES_PER_TASK = 1024;
+    private static final int WORDS_PER_TASK = VERTICES_PER_TASK / Long.SIZE;
+
+    private final CsrGraph graph;
+    private final ForkJoinPool pool;
+    private final int vertexCount;
+    private final int wordCount;
+
+    private final int[] parents;   // as in CsrGraph's searches: the source is its own parent, -1 if not reached
+    private final int[] distances; // the number of edges on the path from the source, -1 if not reached
+    private final AtomicLongArray visited;
+
+    // the current frontier, kept as a list of vertices while expanding top-down and as a bitset bottom-up
+    private int[] frontier;
+    private AtomicLongArray frontierBits;
+
+    // the totals for the vertices most recently added to the frontier, filled in by each step's tasks
+    private int[] chunkCounts;
+    private long[] chunkDegrees;
+
+    ParallelBreadthFirstSearch(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.vertexCount = graph.getVertexCount();
+        this.wordCount = (vertexCount + Long.SIZE - 1) / Long.SIZE;
+        this.parents = new int[vertexCount];
+        this.distances = new int[vertexCount];
+        this.visited = new AtomicLongArray(wordCount);
+        Arrays.fill(parents, -1);
+        Arrays.fill(distances, -1);
+
+        // the bits past the last vertex are marked visited so that bottom-up steps never look at them
+        if (vertexCount % Long.SIZE != 0) {
+            visited.set(wordCount - 1, -1L << (vertexCount % Long.SIZE));
+        }
+    }
+
+    int[] getParents() {
+        return parents;
+    }
+
+    int[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * Searches outwards from the source until every reachable vertex has been visited or, if targetId is a
+     * vertex (i.e. not negative), until the level that reaches it has been completed
+     */
+    void run(int sourceId, int targetId) {
+        parents[sourceId] = sourceId;
+        distances[sourceId] = 0;
+        visited.getAndAccumulate(sourceId >>> 6, 1L << sourceId, (word, bit) -> word | bit);
+
+        frontier = new int[] { sourceId };
+        int frontierSize = 1;
+        long frontierDegrees = degreeOf(sourceId);
+        long unexploredDegrees = graph.getEdgeCount() - frontierDegrees;
+        int previousSize = 0;
+        boolean bottomUp = false;
+
+        for (int level = 1; frontierSize > 0 && (targetId < 0 || parents[targetId] < 0); level++) {
+            // each switch only happens in the direction the frontier is moving, so that a search doesn't
+            // flip back and forth as the last few vertices are reached
+            if (!bottomUp && frontierDegrees > unexploredDegrees / ALPHA && frontierSize > previousSize) {
+                frontierBits = toBits(frontier);
+                frontier = null;
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < vertexCount / BETA && frontierSize < previousSize) {
+                frontier = toList(frontierBits);
+                frontierBits = null;
+                bottomUp = false;
+            }
+
+            if (bottomUp) {
+                expandBottomUp(level);
+            } else {
+                expandTopDown(level);
+            }
+
+            previousSize = frontierSize;
+            frontierSize = 0;
+            frontierDegrees = 0;
+            for (int chunk = 0; chunk < chunkCounts.length; chunk++) {
+                frontierSize += chunkCounts[chunk];
+                frontierDegrees += chunkDegrees[chunk];
+            }
+            unexploredDegrees -= frontierDegrees;
+        }
+    }
+
+    private void expandTopDown(int level) {
+        int[] current = frontier;
+        int chunkCount = ParallelChunks.chunksFor(current.length, VERTICES_PER_TASK);
+        int[][] found = new int[chunkCount][];
+        chunkCounts = new int[chunkCount];
+        chunkDegrees = new long[chunkCount];
+
+        ParallelChunks.forEachChunk(pool, chunkCount, chunk -> {
+            int[] next = new int[VERTICES_PER_TASK];
+            int count = 0;
+            long degrees = 0;
+            int end = Math.min(current.length, (chunk + 1) * VERTICES_PER_TASK);
+            for (int i = chunk * VERTICES_PER_TASK; i < end; i++) {
+                int vertex = current[i];
+                for (int edgeIndex = graph.getEdgeOffset(vertex); edgeIndex < graph.getEdgeOffset(vertex + 1); edgeIndex++) {
+                    int neighbour = graph.getEdgeTarget(edgeIndex);
+                    if (claim(neighbour)) {
+                        parents[neighbour] = vertex;
+                        distances[neighbour] = level;
+                        if (count == next.length) {
+                            next = Arrays.copyOf(next, 2 * count);
+                        }
+                        next[count++] = neighbour;
+                        degrees += degreeOf(neighbour);
+                    }
+                }
+            }
+            found[chunk] = next;
+            chunkCounts[chunk] = count;
+            chunkDegrees[chunk] = degrees;
+        });
+
+        frontier = concatenate(found, chunkCounts);
+    }
+
+    private void expandBottomUp(int level) {
+        AtomicLongArray current = frontierBits;
+        AtomicLongArray next = new AtomicLongArray(wordCount);
+        int chunkCount = ParallelChunks.chunksFor(wordCount, WORDS_PER_TASK);
+        chunkCounts = new int[chunkCount];
+        chunkDegrees = new long[chunkCount];
+
+        // each task owns whole words of the bitsets, so no other task writes the words it updates
+        ParallelChunks.forEachChunk(pool, chunkCount, chunk -> {
+            int count = 0;
+            long degrees = 0;
+            int endWord = Math.min(wordCount, (chunk + 1) * WORDS_PER_TASK);
+            for (int word = chunk * WORDS_PER_TASK; word < endWord; word++) {
+                long unvisited = ~visited.get(word);
+                long reached = 0;
+                while (unvisited != 0) {
+                    long bit = Long.lowestOneBit(unvisited);
+                    unvisited ^= bit;
+                    int vertex = (word << 6) + Long.numberOfTrailingZeros(bit);
+                    for (int edgeIndex = graph.getEdgeOffset(vertex); edgeIndex < graph.getEdgeOffset(vertex + 1); edgeIndex++) {
+                        int neighbour = graph.getEdgeTarget(edgeIndex);
+                        if ((current.get(neighbour >>> 6) & (1L << neighbour)) != 0) {
+                            parents[vertex] = neighbour;
+                            distances[vertex] = level;
+                            reached |= bit;
+                            count++;
+                            degrees += degreeOf(vertex);
+                            break;
+                        }
+                    }
+                }
+                if (reached != 0) {
+                    next.set(word, reached);
+                    visited.set(word, visited.get(word) | reached);
+                }
+            }
+            chunkCounts[chunk] = count;
+            chunkDegrees[chunk] = degrees;
+        });
+
+        frontierBits = next;
+    }
+
+    private AtomicLongArray toBits(int[] vertices) {
+        AtomicLongArray bits = new AtomicLongArray(wordCount);
+        int chunkCount = ParallelChunks.chunksFor(vertices.length, VERTICES_PER_TASK);
+        ParallelChunks.forEachChunk(pool, chunkCount, chunk -> {
+            int end = Math.min(vertices.length, (chunk + 1) * VERTICES_PER_TASK);
+            for (int i = chunk * VERTICES_PER_TASK; i < end; i++) {
+                bits.getAndAccumulate(vertices[i] >>> 6, 1L << vertices[i], (word, bit) -> word | bit);
+            }
+        });
+        return bits;
+    }
+
+    private int[] toList(AtomicLongArray bits) {
+        int chunkCount = ParallelChunks.chunksFor(wordCount, WORDS_PER_TASK);
+        int[][] found = new int[chunkCount][];
+        int[] counts = new int[chunkCount];
+
+        ParallelChunks.forEachChunk(pool, chunkCount, chunk -> {
+            int[] vertices = new int[VERTICES_PER_TASK];
+            int count = 0;
+            int endWord = Math.min(wordCount, (chunk + 1) * WORDS_PER_TASK);
+            for (int word = chunk * WORDS_PER_TASK; word < endWord; word++) {
+                for (long remaining = bits.get(word); remaining != 0; remaining &= remaining - 1) {
+                    vertices[count++] = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                }
+            }
+            found[chunk] = vertices;
+            counts[chunk] = count;
+        });
+
+        return concatenate(found, counts);
+    }
+
+    /**
+     * Joins the first counts[i] entries of each of the provided arrays into one, each task copying its own
+     * part into place
+     */
+    private int[] concatenate(int[][] parts, int[] counts) {
+        int[] starts = new int[parts.length + 1];
+        for (int i = 0; i < parts.length; i++) {
+            starts[i + 1] = starts[i] + counts[i];
+        }
+
+        int[] joined = new int[starts[parts.length]];
+        ParallelChunks.forEachChunk(pool, parts.length, i -> System.arraycopy(parts[i], 0, joined, starts[i], counts[i]));
+        return joined;
+    }
+
+    /**
+     * Sets the visited bit of the provided vertex, returning true if this call was the one that set it
+     */
+    private boolean claim(int vertex) {
+        int word = vertex >>> 6;
+        long bit = 1L << vertex;
+        long current = visited.get(word);
+        while ((current & bit) == 0) {
+            if (visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+            current = visited.get(word);
+        }
+        return false;
+    }
+
+    private long degreeOf(int vertex) {
+        return graph.getEdgeOffset(vertex + 1) - graph.getEdgeOffset(vertex);
+    }
+}
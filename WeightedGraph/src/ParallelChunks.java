@@ -0,0 +1,54 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a loop body over chunk indexes on a fork-join pool, splitting the range of chunks in half recursively
+ * so that idle workers can steal the larger halves.  Used by the parallel graph algorithms, which cut their
+ * vertices or frontier into fixed-size chunks and give each chunk to one task.
+ */
+class ParallelChunks {
+
+    private ParallelChunks() {
+    }
+
+    static int chunksFor(int items, int itemsPerChunk) {
+        return (items + itemsPerChunk - 1) / itemsPerChunk;
+    }
+
+    /**
+     * Runs the provided body once for each chunk index from 0 to chunkCount - 1, in parallel on the pool
+     * unless there is only a single chunk, in which case it runs directly on the calling thread
+     */
+    static void forEachChunk(ForkJoinPool pool, int chunkCount, IntConsumer body) {
+        if (chunkCount == 1) {
+            body.accept(0);
+        } else if (chunkCount > 1) {
+            pool.invoke(new ChunkTask(body, 0, chunkCount));
+        }
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer body;
+        private final int start;
+        private final int end;
+
+        ChunkTask(IntConsumer body, int start, int end) {
+            this.body = body;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                body.accept(start);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new ChunkTask(body, start, middle), new ChunkTask(body, middle, end));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * The working arrays of a graph search, kept per thread and reused from one search to the next so that a
+ * path query allocates nothing but the path it returns.  Used by the findPathVia...() searches of
+ * WeightedGraph and CsrGraph, which work on dense vertex indexes.
+ *
+ * Rather than clearing a visited set before each search, a context stamps each vertex it visits with the
+ * number of the current search (its epoch) and treats any other stamp as unvisited, so starting a search
+ * costs nothing however large the graph.  A vertex's parent and distance are only meaningful once it has
+ * been visited in the current search, so they need no clearing either.  The arrays grow to fit the largest
+ * graph searched on a thread and are kept for as long as the thread lives.
+ *
+ * A search must not start another search on the same thread while it is using a context, since it would
+ * get the same one; the bidirectional search, which runs two traversals at once, takes the second context.
+ */
+class TraversalContext {
+
+    private static final ThreadLocal<TraversalContext> FIRST = ThreadLocal.withInitial(TraversalContext::new);
+    private static final ThreadLocal<TraversalContext> SECOND = ThreadLocal.withInitial(TraversalContext::new);
+
+    private int[] stamps = new int[0];
+    private int epoch;
+    private int[] parents = new int[0];
+    private int[] distances = new int[0];
+    private int[] queue = new int[0];
+    private int[] cursors = new int[0];
+
+    private TraversalContext() {
+    }
+
+    /**
+     * Returns this thread's context, ready for a new search of a graph with the provided number of vertices
+     */
+    static TraversalContext forCurrentThread(int vertexCount) {
+        return FIRST.get().begin(vertexCount);
+    }
+
+    /**
+     * Returns this thread's second context, for a search that needs two traversals at once
+     */
+    static TraversalContext secondForCurrentThread(int vertexCount) {
+        return SECOND.get().begin(vertexCount);
+    }
+
+    private TraversalContext begin(int vertexCount) {
+        if (stamps.length < vertexCount) {
+            // grown by at least half, so that a thread searching graphs of slowly growing size doesn't
+            // reallocate for every search
+            int capacity = Math.max(vertexCount, stamps.length + (stamps.length >> 1));
+            stamps = new int[capacity];
+            parents = new int[capacity];
+            distances = new int[capacity];
+            queue = new int[capacity];
+            cursors = new int[capacity];
+            epoch = 0;
+        }
+
+        if (++epoch == 0) {
+            // the stamps have wrapped around, so old ones could be taken for the new epoch's
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        return this;
+    }
+
+    boolean isVisited(int vertex) {
+        return stamps[vertex] == epoch;
+    }
+
+    /**
+     * Marks the provided vertex visited, reached from the provided parent (the source of a search is its own
+     * parent) after the provided number of edges
+     */
+    void visit(int vertex, int parent, int distance) {
+        stamps[vertex] = epoch;
+        parents[vertex] = parent;
+        distances[vertex] = distance;
+    }
+
+    /**
+     * Returns the vertex the provided vertex was reached from, or -1 if it hasn't been visited
+     */
+    int getParent(int vertex) {
+        return isVisited(vertex) ? parents[vertex] : -1;
+    }
+
+    /**
+     * Returns the number of edges on the path the provided vertex was reached by, or -1 if it hasn't been
+     * visited
+     */
+    int getDistance(int vertex) {
+        return isVisited(vertex) ? distances[vertex] : -1;
+    }
+
+    /**
+     * Returns an array with room for every vertex, to use as a breadth first search's queue or a depth first
+     * search's stack.  Since a search queues each vertex at most once, it never needs to wrap around
+     */
+    int[] getQueue() {
+        return queue;
+    }
+
+    /**
+     * Returns a second array with room for every vertex, which a depth first search uses to remember how far
+     * through each stacked vertex's edges it has got
+     */
+    int[] getCursors() {
+        return cursors;
+    }
+}
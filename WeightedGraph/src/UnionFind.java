@@ -0,0 +1,50 @@
+/**
+ * A disjoint-set forest over the dense ids [0, size), used to track which vertices the spanning forest
+ * algorithms have joined together.  Sets are merged by size and paths are halved on every find, so any
+ * sequence of operations runs in effectively constant amortized time per operation.  Not thread safe.
+ */
+class UnionFind {
+
+    private final int[] parents; // each id's parent in its set's tree, roots being their own parents
+    private final int[] sizes;   // only meaningful for roots
+
+    UnionFind(int size) {
+        parents = new int[size];
+        sizes = new int[size];
+        for (int id = 0; id < size; id++) {
+            parents[id] = id;
+            sizes[id] = 1;
+        }
+    }
+
+    /**
+     * Returns the root of the set the provided id belongs to, which is the same for every id in the set
+     */
+    int find(int id) {
+        while (parents[id] != id) {
+            parents[id] = parents[parents[id]];
+            id = parents[id];
+        }
+        return id;
+    }
+
+    /**
+     * Merges the sets the provided ids belong to, returning false if they were already in the same set
+     */
+    boolean union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return false;
+        }
+
+        if (sizes[firstRoot] < sizes[secondRoot]) {
+            int swap = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = swap;
+        }
+        parents[secondRoot] = firstRoot;
+        sizes[firstRoot] += sizes[secondRoot];
+        return true;
+    }
+}
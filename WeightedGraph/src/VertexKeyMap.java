@@ -0,0 +1,72 @@
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns vertex ids to arbitrary external keys (user names, URLs, UUIDs, ...) so that graphs keyed by them
+ * can be built through WeightedGraph's id-based methods, e.g.
+ *
+ *   graph.addEdge(keys.getOrAssignId("alice"), keys.getOrAssignId("bob"), 5);
+ *
+ * Ids are handed out sequentially starting from the firstId given at construction, which makes them dense
+ * and lets getKey() map an id back to its key with an array lookup.  A graph that mixes these ids with
+ * char labels or other ids should choose a firstId that keeps them apart; the default of 65,536 starts just
+ * past the range of char labels.
+ */
+public class VertexKeyMap<K> {
+
+    private static final long DEFAULT_FIRST_ID = Character.MAX_VALUE + 1;
+
+    private final long firstId;
+    private final Map<K, Integer> offsets; // each key's id, less firstId
+    private final List<K> keys;
+
+    public VertexKeyMap(long firstId, int expectedKeys) {
+        Preconditions.checkArgument(firstId >= 0, "firstId cannot be negative");
+        Preconditions.checkArgument(expectedKeys >= 0, "expectedKeys cannot be negative");
+        this.firstId = firstId;
+        this.offsets = new HashMap<>(2 * expectedKeys);
+        this.keys = new ArrayList<>(expectedKeys);
+    }
+
+    public VertexKeyMap() {
+        this(DEFAULT_FIRST_ID, 16);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the id already assigned to the provided key, or assigns it the next free id
+     */
+    public long getOrAssignId(K key) {
+        Preconditions.checkArgument(key != null, "key cannot be NULL");
+        Integer offset = offsets.get(key);
+        if (offset == null) {
+            offset = keys.size();
+            offsets.put(key, offset);
+            keys.add(key);
+        }
+        return firstId + offset;
+    }
+
+    /**
+     * Returns the id assigned to the provided key, or -1 if it hasn't been assigned one
+     */
+    public long getId(K key) {
+        Integer offset = offsets.get(key);
+        return (offset == null) ? -1 : firstId + offset;
+    }
+
+    /**
+     * Returns the key the provided id was assigned to, or null if it wasn't assigned by this map
+     */
+    public K getKey(long id) {
+        long offset = id - firstId;
+        return (offset >= 0 && offset < keys.size()) ? keys.get((int) offset) : null;
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * The vertices of a CsrGraph, indexed by their dense ids, along with the map from each vertex's own id back
+ * to its dense id.  A graph built in memory keeps Vertex objects in an array, while a graph mapped from a
+ * file keeps only their ids and creates Vertex objects as they are asked for.
+ */
+interface VertexTable {
+
+    int size();
+
+    WeightedGraph.Vertex getVertex(int id);
+
+    /**
+     * Returns the dense id of the vertex with the provided (own) id, or -1 if there is no such vertex
+     */
+    int getVertexId(long vertexId);
+}
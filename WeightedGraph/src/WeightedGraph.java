@@ -1,16 +1,37 @@
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * A weighted, undirected graph stored as adjacency lists.
+ *
+ * Vertices are identified by a long id.  Each one is also given a dense int index in the order it was
+ * added, and the vertices and their adjacency lists are kept in array-backed lists under that index, with a
+ * primitive hash map from id to index.  Graphs can therefore hold far more than the 65,536 vertices a char
+ * label allows, and looking a vertex up doesn't box anything.  The char-based methods are a convenience
+ * layer over the ids: the vertex labelled 'a' is the vertex with id 97.  Vertices with other kinds of keys
+ * can be added through a VertexKeyMap, which assigns each key an id.
+ */
 public class WeightedGraph {
 
-    private Map<Vertex, List<Edge>> adjacencyLists;
-    private Map<Character, Vertex> vertices;
+    // vertices with fewer edges than this are scanned rather than given a NeighbourIndex
+    private static final int MIN_INDEXED_EDGES = 16;
+
+    private final LongIntHashMap vertexIndexes;
+    private final List<Vertex> vertices;           // indexed by each vertex's dense index
+    private final List<List<Edge>> adjacencyLists; // likewise
+    private final List<NeighbourIndex> neighbourIndexes; // likewise, null until a vertex's edges need one
+    private CsrGraph frozen; // cached result of freeze(), discarded whenever the graph changes
 
     public WeightedGraph(int initialCapacity) {
-        adjacencyLists = new HashMap<>(2*initialCapacity);
-        vertices = new HashMap<>(2*initialCapacity);
+        vertexIndexes = new LongIntHashMap(initialCapacity);
+        vertices = new ArrayList<>(initialCapacity);
+        adjacencyLists = new ArrayList<>(initialCapacity);
+        neighbourIndexes = new ArrayList<>(initialCapacity);
     }
 
     public WeightedGraph() {
@@ -18,26 +39,35 @@ public class WeightedGraph {
     }
 
     public Set<Vertex> getVertices() {
-        return Collections.unmodifiableSet(new HashSet<>(vertices.values()));
+        return Collections.unmodifiableSet(new HashSet<>(vertices));
+    }
+
+    public int getVertexCount() {
+        return vertices.size();
     }
 
     public void addVertex(Vertex newVertex) {
-        if (!vertices.containsKey(newVertex.label)) {
-            adjacencyLists.put(newVertex, new LinkedList<>());
-            vertices.put(newVertex.label, newVertex);
+        if (vertexIndexes.get(newVertex.id) < 0) {
+            appendVertex(newVertex);
         }
     }
 
     public Vertex addVertex(char newVertexLabel) {
-        Vertex newVertex;
-        if (!vertices.containsKey(newVertexLabel)) {
-            newVertex = new Vertex(newVertexLabel);
-            adjacencyLists.put(newVertex, new LinkedList<>());
-            vertices.put(newVertexLabel, newVertex);
-        } else {
-            newVertex = vertices.get(newVertexLabel);
-        }
+        int index = vertexIndexes.get(newVertexLabel);
+        return (index >= 0) ? vertices.get(index) : appendVertex(new Vertex(newVertexLabel));
+    }
+
+    public Vertex addVertex(long newVertexId) {
+        int index = vertexIndexes.get(newVertexId);
+        return (index >= 0) ? vertices.get(index) : appendVertex(new Vertex(newVertexId));
+    }
 
+    private Vertex appendVertex(Vertex newVertex) {
+        vertexIndexes.put(newVertex.id, vertices.size());
+        vertices.add(newVertex);
+        adjacencyLists.add(new ArrayList<>(4));
+        neighbourIndexes.add(null);
+        frozen = null;
         return newVertex;
     }
 
@@ -45,8 +75,7 @@ public class WeightedGraph {
         addVertex(v1);
         addVertex(v2);
 
-        adjacencyLists.get(v1).add(new Edge(v1, v2));
-        adjacencyLists.get(v2).add(new Edge(v2, v1));
+        addEdge(v1, v2, Integer.MAX_VALUE);
     }
 
     public void addEdge(char v1Label, char v2Label) {
@@ -57,166 +86,523 @@ public class WeightedGraph {
         addVertex(v1);
         addVertex(v2);
 
-        adjacencyLists.get(v1).add(new Edge(v1, v2, weight));
-        adjacencyLists.get(v2).add(new Edge(v2, v1, weight));
+        int v1Index = vertexIndexes.get(v1.id);
+        int v2Index = vertexIndexes.get(v2.id);
+        appendEdge(v1Index, v2Index, new Edge(v1, v2, weight));
+        appendEdge(v2Index, v1Index, new Edge(v2, v1, weight));
+        frozen = null;
+    }
+
+    private void appendEdge(int vertexIndex, int neighbourIndex, Edge edge) {
+        List<Edge> edges = adjacencyLists.get(vertexIndex);
+        NeighbourIndex neighbours = neighbourIndexes.get(vertexIndex);
+        if (neighbours != null) {
+            neighbours.add(neighbourIndex, edges.size());
+        }
+        edges.add(edge);
     }
 
     public void addEdge(char v1Label, char v2Label, int weight) {
         addEdge(addVertex(v1Label), addVertex(v2Label), weight);
     }
 
+    public void addEdge(long v1Id, long v2Id) {
+        addEdge(addVertex(v1Id), addVertex(v2Id));
+    }
+
+    public void addEdge(long v1Id, long v2Id, int weight) {
+        addEdge(addVertex(v1Id), addVertex(v2Id), weight);
+    }
+
+    public void addEdges(long[] startIds, long[] endIds, int[] weights) {
+        Preconditions.checkArgument(startIds != null, "arrays cannot be NULL");
+        addEdges(startIds, endIds, weights, startIds.length, null);
+    }
+
+    /**
+     * Adds the first edgeCount edges held in the provided parallel arrays, the same as calling
+     * addEdge(startIds[i], endIds[i], weights[i]) for each in turn but far faster for large batches.  Each
+     * end vertex is looked up (and added if it is new) once, the number of edges each vertex gains is counted
+     * so that its adjacency list is grown to exactly the size it needs, and then the Edge objects are created
+     * and appended.  That last step is split into chunks of vertices run on the provided pool, if there is
+     * one, or otherwise on the calling thread
+     */
+    public void addEdges(long[] startIds, long[] endIds, int[] weights, int edgeCount, ForkJoinPool pool) {
+        Preconditions.checkArgument(startIds != null && endIds != null && weights != null, "arrays cannot be NULL");
+        Preconditions.checkArgument(edgeCount >= 0 && edgeCount <= startIds.length && edgeCount <= endIds.length
+                && edgeCount <= weights.length, "edgeCount must be between 0 and the length of the arrays");
+
+        int[] endpoints = new int[2 * edgeCount]; // the indexes of each edge's start and then its end vertex
+        for (int i = 0; i < endpoints.length; i++) {
+            long id = (i % 2 == 0) ? startIds[i / 2] : endIds[i / 2];
+            int index = vertexIndexes.get(id);
+            if (index < 0) {
+                index = vertices.size();
+                appendVertex(new Vertex(id));
+            }
+            endpoints[i] = index;
+        }
+
+        // lay the new edges out by vertex, as CsrGraph does, keeping each vertex's edges in the order given
+        int vertexCount = vertices.size();
+        int[] offsets = new int[vertexCount + 1];
+        for (int index : endpoints) {
+            offsets[index + 1]++;
+        }
+        for (int index = 0; index < vertexCount; index++) {
+            offsets[index + 1] += offsets[index];
+        }
+        int[] neighbours = new int[endpoints.length];
+        int[] edgeWeights = new int[endpoints.length];
+        int[] nextSlots = Arrays.copyOf(offsets, vertexCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int start = endpoints[2 * i];
+            int end = endpoints[2 * i + 1];
+            neighbours[nextSlots[start]] = end;
+            edgeWeights[nextSlots[start]++] = weights[i];
+            neighbours[nextSlots[end]] = start;
+            edgeWeights[nextSlots[end]++] = weights[i];
+        }
+
+        // each vertex's list is only touched by the one chunk its index falls in
+        int verticesPerChunk = 4096;
+        IntConsumer appendChunk = chunk -> {
+            int end = Math.min(vertexCount, (chunk + 1) * verticesPerChunk);
+            for (int index = chunk * verticesPerChunk; index < end; index++) {
+                int added = offsets[index + 1] - offsets[index];
+                if (added == 0) {
+                    continue;
+                }
+
+                ArrayList<Edge> edges = (ArrayList<Edge>) adjacencyLists.get(index);
+                if (edges.isEmpty()) {
+                    edges = new ArrayList<>(added);
+                    adjacencyLists.set(index, edges);
+                } else {
+                    // grown by at least half, as add() would, so that a list filled over many batches isn't
+                    // copied on every one
+                    edges.ensureCapacity(Math.max(edges.size() + added, edges.size() + (edges.size() >> 1)));
+                }
+                Vertex vertex = vertices.get(index);
+                NeighbourIndex neighbourIndex = neighbourIndexes.get(index);
+                for (int slot = offsets[index]; slot < offsets[index + 1]; slot++) {
+                    if (neighbourIndex != null) {
+                        neighbourIndex.add(neighbours[slot], edges.size());
+                    }
+                    edges.add(new Edge(vertex, vertices.get(neighbours[slot]), edgeWeights[slot]));
+                }
+            }
+        };
+        int chunkCount = ParallelChunks.chunksFor(vertexCount, verticesPerChunk);
+        if (pool != null) {
+            ParallelChunks.forEachChunk(pool, chunkCount, appendChunk);
+        } else {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                appendChunk.accept(chunk);
+            }
+        }
+        frozen = null;
+    }
+
+    public long addEdges(EdgeListReader reader) throws IOException {
+        return addEdges(reader, null);
+    }
+
+    /**
+     * Adds every edge the provided reader has left, a batch at a time, through addEdges()
+     * @return the number of edges added
+     */
+    public long addEdges(EdgeListReader reader, ForkJoinPool pool) throws IOException {
+        Preconditions.checkArgument(reader != null, "reader cannot be NULL");
+        int batchSize = 1 << 22;
+        long[] startIds = new long[batchSize];
+        long[] endIds = new long[batchSize];
+        int[] weights = new int[batchSize];
+        long total = 0;
+        int read;
+        while ((read = reader.read(startIds, endIds, weights)) > 0) {
+            addEdges(startIds, endIds, weights, read, pool);
+            total += read;
+        }
+        return total;
+    }
+
     public List<Edge> getOutgoingEdges(Vertex vertex) {
-        Preconditions.checkArgument(vertex != null && vertices.containsKey(vertex.label),
+        Preconditions.checkArgument(vertex != null && vertexIndexes.get(vertex.id) >= 0,
                 "The provided vertex must be non-null and a part of this graph");
-        return adjacencyLists.get(vertex);
+        return Collections.unmodifiableList(getAdjacencyList(vertex));
     }
     public List<Edge> getOutgoingEdges(char vertexLabel) {
-        return getOutgoingEdges(vertices.get(vertexLabel));
+        return getOutgoingEdges(getVertex(vertexLabel));
+    }
+    public List<Edge> getOutgoingEdges(long vertexId) {
+        return getOutgoingEdges(getVertex(vertexId));
     }
 
     public boolean containsEdge(Vertex startVertex, Vertex endVertex) {
-        return getOutgoingEdges(startVertex).stream().anyMatch(e -> e.endVertex.equals(endVertex));
+        Preconditions.checkArgument(startVertex != null && vertexIndexes.get(startVertex.id) >= 0,
+                "The provided vertex must be non-null and a part of this graph");
+        int endIndex = (endVertex != null) ? vertexIndexes.get(endVertex.id) : -1;
+        return endIndex >= 0 && findEdge(vertexIndexes.get(startVertex.id), endIndex) >= 0;
     }
     public boolean containsEdge(char startVertex, char endVertex) {
-        return containsEdge(vertices.get(startVertex), vertices.get(endVertex));
+        return containsEdge(getVertex(startVertex), getVertex(endVertex));
+    }
+    public boolean containsEdge(long startVertexId, long endVertexId) {
+        return containsEdge(getVertex(startVertexId), getVertex(endVertexId));
     }
 
     public Vertex getVertex(char vertexLabel) {
-        return vertices.get(vertexLabel);
+        return getVertex((long) vertexLabel);
+    }
+
+    /**
+     * Returns the vertex with the provided id, or null if there is no such vertex in this graph
+     */
+    public Vertex getVertex(long vertexId) {
+        int index = vertexIndexes.get(vertexId);
+        return (index >= 0) ? vertices.get(index) : null;
     }
 
     public void removeEdge(Vertex v1, Vertex v2) {
-        Preconditions.checkArgument(v1 != null && vertices.containsKey(v1.label),
+        Preconditions.checkArgument(v1 != null && vertexIndexes.get(v1.id) >= 0,
+                "Argument v1 cannot be null, and must be a Vertex that is part of this graph");
+        Preconditions.checkArgument(v2 != null && vertexIndexes.get(v2.id) >= 0,
+                "Argument v2 cannot be null, and must be a Vertex that is part of this graph");
+
+        int v1Index = vertexIndexes.get(v1.id);
+        int v2Index = vertexIndexes.get(v2.id);
+        removeEdges(v1Index, v2Index);
+        removeEdges(v2Index, v1Index);
+        frozen = null;
+    }
+
+    public void removeEdge(char v1Label, char v2Label) {
+        removeEdge(getVertex(v1Label), getVertex(v2Label));
+    }
+
+    public void removeEdge(long v1Id, long v2Id) {
+        removeEdge(getVertex(v1Id), getVertex(v2Id));
+    }
+
+    /**
+     * Changes the weight of the edge between the provided vertices (of every such edge, if there are
+     * several) to the provided weight
+     * @throws IllegalArgumentException if either vertex is not part of this graph or there is no edge
+     * between them
+     */
+    public void updateEdgeWeight(Vertex v1, Vertex v2, int weight) {
+        Preconditions.checkArgument(v1 != null && vertexIndexes.get(v1.id) >= 0,
                 "Argument v1 cannot be null, and must be a Vertex that is part of this graph");
-        Preconditions.checkArgument(v2 != null && vertices.containsKey(v2.label),
+        Preconditions.checkArgument(v2 != null && vertexIndexes.get(v2.id) >= 0,
                 "Argument v2 cannot be null, and must be a Vertex that is part of this graph");
+        int v1Index = vertexIndexes.get(v1.id);
+        int v2Index = vertexIndexes.get(v2.id);
+        Preconditions.checkArgument(findEdge(v1Index, v2Index) >= 0, "There is no edge between v1 and v2");
+
+        reweighEdges(v1Index, v2Index, weight);
+        reweighEdges(v2Index, v1Index, weight);
+        frozen = null;
+    }
+
+    public void updateEdgeWeight(char v1Label, char v2Label, int weight) {
+        updateEdgeWeight(getVertex(v1Label), getVertex(v2Label), weight);
+    }
+
+    public void updateEdgeWeight(long v1Id, long v2Id, int weight) {
+        updateEdgeWeight(getVertex(v1Id), getVertex(v2Id), weight);
+    }
+
+    /**
+     * Returns the slot in a vertex's adjacency list of an edge to the provided neighbour, or -1 if there
+     * isn't one.  Vertices with few edges are simply scanned; the others are given a NeighbourIndex
+     */
+    private int findEdge(int vertexIndex, int neighbourIndex) {
+        NeighbourIndex neighbours = getNeighbourIndex(vertexIndex);
+        if (neighbours != null) {
+            return neighbours.find(neighbourIndex);
+        }
 
-        List<Edge> v1Edges = adjacencyLists.get(v1);
-        for (int i=0; i<v1Edges.size(); i++) {
-            if (v1Edges.get(i).endVertex == v2) {
-                v1Edges.remove(i);
+        List<Edge> edges = adjacencyLists.get(vertexIndex);
+        Vertex neighbour = vertices.get(neighbourIndex);
+        for (int slot = 0; slot < edges.size(); slot++) {
+            if (edges.get(slot).endVertex.id == neighbour.id) {
+                return slot;
             }
         }
+        return -1;
+    }
 
-        List<Edge> v2Edges = adjacencyLists.get(v2);
-        for (int i=0; i<v2Edges.size(); i++) {
-            if (v2Edges.get(i).endVertex == v1) {
-                v2Edges.remove(i);
+    /**
+     * Removes every edge to the provided neighbour from a vertex's adjacency list, moving the list's last
+     * edge into each hole so that nothing else has to shift
+     */
+    private void removeEdges(int vertexIndex, int neighbourIndex) {
+        List<Edge> edges = adjacencyLists.get(vertexIndex);
+        NeighbourIndex neighbours = getNeighbourIndex(vertexIndex);
+        if (neighbours == null) {
+            long neighbourId = vertices.get(neighbourIndex).id;
+            for (int slot = edges.size() - 1; slot >= 0; slot--) {
+                if (edges.get(slot).endVertex.id == neighbourId) {
+                    Edge last = edges.remove(edges.size() - 1);
+                    if (slot < edges.size()) {
+                        edges.set(slot, last);
+                    }
+                }
+            }
+            return;
+        }
+
+        int slot;
+        while ((slot = neighbours.find(neighbourIndex)) >= 0) {
+            neighbours.remove(neighbourIndex, slot);
+            int lastSlot = edges.size() - 1;
+            Edge last = edges.remove(lastSlot);
+            if (slot < lastSlot) {
+                edges.set(slot, last);
+                neighbours.move(vertexIndexes.get(last.endVertex.id), lastSlot, slot);
             }
         }
     }
 
-    public void removeEdge(char v1Label, char v2Label) {
-        removeEdge(vertices.get(v1Label), vertices.get(v2Label));
+    private void reweighEdges(int vertexIndex, int neighbourIndex, int weight) {
+        List<Edge> edges = adjacencyLists.get(vertexIndex);
+        NeighbourIndex neighbours = getNeighbourIndex(vertexIndex);
+        if (neighbours != null) {
+            neighbours.forEachSlot(neighbourIndex, slot -> {
+                Edge edge = edges.get(slot);
+                edges.set(slot, new Edge(edge.startVertex, edge.endVertex, weight));
+            });
+            return;
+        }
+
+        long neighbourId = vertices.get(neighbourIndex).id;
+        for (int slot = 0; slot < edges.size(); slot++) {
+            Edge edge = edges.get(slot);
+            if (edge.endVertex.id == neighbourId) {
+                edges.set(slot, new Edge(edge.startVertex, edge.endVertex, weight));
+            }
+        }
+    }
+
+    /**
+     * Returns the NeighbourIndex of a vertex with enough edges to be worth one, building it the first time it
+     * is needed, or null for a vertex with fewer edges.  Once built an index is kept up to date by every
+     * change to the vertex's edges
+     */
+    private NeighbourIndex getNeighbourIndex(int vertexIndex) {
+        NeighbourIndex neighbours = neighbourIndexes.get(vertexIndex);
+        List<Edge> edges = adjacencyLists.get(vertexIndex);
+        if (neighbours == null && edges.size() >= MIN_INDEXED_EDGES) {
+            neighbours = new NeighbourIndex(edges.size());
+            for (int slot = 0; slot < edges.size(); slot++) {
+                neighbours.add(vertexIndexes.get(edges.get(slot).endVertex.id), slot);
+            }
+            neighbourIndexes.set(vertexIndex, neighbours);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Returns an immutable compressed sparse row (CSR) snapshot of the graph as it is now, which is far more
+     * compact than the adjacency lists and much faster to search.  The snapshot is cached until the graph is
+     * next changed through one of its add or remove methods, so repeated calls on an unchanged graph are cheap
+     */
+    public CsrGraph freeze() {
+        if (frozen == null) {
+            frozen = new CsrGraph(vertices, adjacencyLists, vertexIndexes);
+        }
+        return frozen;
+    }
+
+    /**
+     * Writes the graph to the provided file in the binary format CsrGraph.open() maps back into memory, which
+     * is much faster than rebuilding the graph edge by edge
+     */
+    public void writeTo(Path file) throws IOException {
+        freeze().writeTo(file);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(100);
         Set<Edge> edgesOutput = new HashSet<>();
-        adjacencyLists.forEach((k,v) -> {
-            sb.append("Vertex: ").append(k.label).append(" has edges to:\n");
-            v.forEach(e -> {
+        for (int i = 0; i < vertices.size(); i++) {
+            sb.append("Vertex: ").append(vertices.get(i)).append(" has edges to:\n");
+            adjacencyLists.get(i).forEach(e -> {
                 if (!edgesOutput.contains(e)) {
                     sb.append("Vertex: ").append(e.endVertex).append("\n");
                 }
                 edgesOutput.add(e);
             });
             sb.append("\n");
-        });
+        }
 
         return sb.toString();
     }
 
     public List<Vertex> findPathViaBFS(Vertex start, Vertex end) {
-        if (start == end) {
+        int startIndex = requireVertexIndex(start);
+        int endIndex = requireVertexIndex(end);
+        if (startIndex == endIndex) {
             return Collections.singletonList(start);
         }
 
-        // need to track how we got to each node so that we can build the path backwards at the end
-        Map<Vertex, Vertex> pathTracker = new HashMap<>(vertices.size()*2);
-        pathTracker.put(start, null);
-
-        Set<Vertex> visited = new HashSet<>(vertices.size()*2);
-        Queue<Vertex> q = new LinkedList<>();
-        q.add(start);
-
-        boolean found = false;
-        while (!found && !q.isEmpty()) {
-            Vertex currentVertex = q.remove();
-            if (!visited.contains(currentVertex)) {
-                if (currentVertex == end) {
-                    found = true;
-                } else {
-                    visited.add(currentVertex);
-                    List<Edge> vertices = getOutgoingEdges(currentVertex);
-                    vertices.stream().filter(e -> !visited.contains(e.endVertex)).map(e -> e.endVertex).forEach(v -> {
-                        q.add(v);
-                        pathTracker.put(v, currentVertex); // i.e., reached vertex v from currentVertex
-                    });
+        // the per-thread context tracks how we got to each vertex, so the path can be built backwards at the
+        // end, without allocating a map or set per search.  Each vertex is queued at most once
+        TraversalContext context = TraversalContext.forCurrentThread(vertices.size());
+        int[] queue = context.getQueue();
+        int head = 0;
+        int tail = 0;
+        context.visit(startIndex, startIndex, 0);
+        queue[tail++] = startIndex;
+
+        while (head < tail) {
+            int current = queue[head++];
+            for (Edge edge : adjacencyLists.get(current)) {
+                int next = vertexIndexes.get(edge.endVertex.id);
+                if (!context.isVisited(next)) {
+                    context.visit(next, current, context.getDistance(current) + 1); // i.e., reached next from current
+                    if (next == endIndex) {
+                        return buildPathStartingFromEnd(endIndex, context);
+                    }
+                    queue[tail++] = next;
                 }
             }
         }
 
-        List<Vertex> path;
-        if (!found) {
-            path = Collections.emptyList();
-        } else {
-            // found a path, so reconstruct it beginning from the end and moving backward towards the start
-            path = buildPathStartingFromEnd(end, pathTracker);
-        }
-
-        return path;
+        return Collections.emptyList();
     }
 
     public List<Vertex> findPathViaBFS(char start, char end) {
-        return findPathViaBFS(vertices.get(start), vertices.get(end));
+        return findPathViaBFS(getVertex(start), getVertex(end));
+    }
+
+    public List<Vertex> findPathViaBFS(long startId, long endId) {
+        return findPathViaBFS(getVertex(startId), getVertex(endId));
     }
 
     public List<Vertex> findPathViaDFS(char start, char end) {
-        return findPathViaDFS(vertices.get(start), vertices.get(end));
+        return findPathViaDFS(getVertex(start), getVertex(end));
+    }
+
+    public List<Vertex> findPathViaDFS(long startId, long endId) {
+        return findPathViaDFS(getVertex(startId), getVertex(endId));
     }
 
     public List<Vertex> findPathViaDFS(Vertex start, Vertex end) {
-        if (start == end) {
+        int startIndex = requireVertexIndex(start);
+        int endIndex = requireVertexIndex(end);
+        if (startIndex == endIndex) {
             return Collections.singletonList(start);
         }
 
-        // need to track how we got to each node so that we can build the path backwards at the end
-        Map<Vertex, Vertex> pathTracker = new HashMap<>(vertices.size() * 2);
-        pathTracker.put(start, null);
-
-        Set<Vertex> visited = new HashSet<>(vertices.size() * 2);
-        Stack<Vertex> s = new Stack<>();
-        s.push(start);
-
-        boolean found = false;
-        visited.add(start);
+        // as well as each vertex, the stack remembers how far through its edges the vertex has got, so that
+        // going back to a vertex carries on from its next unvisited neighbour instead of rescanning its edges
+        TraversalContext context = TraversalContext.forCurrentThread(vertices.size());
+        int[] stack = context.getQueue();
+        int[] nextEdge = context.getCursors();
+        int depth = 0;
+        context.visit(startIndex, startIndex, 0);
+        stack[depth] = startIndex;
+        nextEdge[depth++] = 0;
+
+        while (depth > 0) {
+            int current = stack[depth - 1];
+            List<Edge> edges = adjacencyLists.get(current);
+            int next = -1;
+            int edgeIndex = nextEdge[depth - 1];
+            while (edgeIndex < edges.size()) {
+                next = vertexIndexes.get(edges.get(edgeIndex).endVertex.id);
+                if (!context.isVisited(next)) {
+                    break;
+                }
+                edgeIndex++;
+            }
 
-        while (!found && !s.isEmpty()) {
-            Vertex currentVertex = s.peek();
-            Vertex adjacentVertex = getAdjacentUnvisitedVertex(currentVertex, visited);
-            if (adjacentVertex == null) {
-                s.pop();
+            if (edgeIndex == edges.size()) {
+                depth--;
             } else {
-                visited.add(adjacentVertex);
-                if (adjacentVertex == end) {
-                    found = true;
-                } else {
-                    s.push(adjacentVertex);
+                nextEdge[depth - 1] = edgeIndex + 1;
+                context.visit(next, current, depth);
+                if (next == endIndex) {
+                    return buildPathStartingFromEnd(endIndex, context);
                 }
-                pathTracker.put(adjacentVertex, currentVertex);
+                stack[depth] = next;
+                nextEdge[depth++] = 0;
             }
         }
 
-        List<Vertex> path;
-        if (!found) {
-            path = Collections.emptyList();
-        } else {
-            path = buildPathStartingFromEnd(end, pathTracker);
-        }
+        return Collections.emptyList();
+    }
 
-        return path;
+    /**
+     * Returns a path with the fewest edges between the provided vertices, or an empty list if there is no
+     * path between them, found by a breadth first search from both ends over the CSR snapshot returned by
+     * freeze().  On large graphs with short paths between most vertices this visits a small fraction of the
+     * vertices findPathViaBFS() does
+     */
+    public List<Vertex> findPathViaBidirectionalBFS(Vertex start, Vertex end) {
+        return freeze().findPathViaBidirectionalBFS(start, end);
+    }
+
+    public List<Vertex> findPathViaBidirectionalBFS(char start, char end) {
+        return findPathViaBidirectionalBFS(getVertex(start), getVertex(end));
+    }
+
+    public List<Vertex> findPathViaBidirectionalBFS(long startId, long endId) {
+        return findPathViaBidirectionalBFS(getVertex(startId), getVertex(endId));
+    }
+
+    /**
+     * Runs a breadth first search from each of the provided vertices over the CSR snapshot returned by
+     * freeze(), sharing each scan of a vertex's edges between the searches; see
+     * CsrGraph.computeBreadthFirstTrees()
+     */
+    public List<CsrGraph.BreadthFirstTree> computeBreadthFirstTrees(List<Vertex> sources) {
+        return freeze().computeBreadthFirstTrees(sources);
+    }
+
+    /**
+     * Returns the number of edges on the shortest path from each of the provided sources to each of the
+     * provided targets, indexed [source][target], with -1 where there is no path; see
+     * CsrGraph.computeHopDistances()
+     */
+    public int[][] computeHopDistances(List<Vertex> sources, List<Vertex> targets) {
+        return freeze().computeHopDistances(sources, targets);
+    }
+
+    /**
+     * Returns a path with the fewest edges between the provided vertices, or an empty list if there is no
+     * path between them, found by a parallel breadth first search over the CSR snapshot returned by freeze()
+     */
+    public List<Vertex> findPathViaParallelBFS(Vertex start, Vertex end) {
+        return freeze().findPathViaParallelBFS(start, end);
+    }
+
+    public List<Vertex> findPathViaParallelBFS(char start, char end) {
+        return findPathViaParallelBFS(getVertex(start), getVertex(end));
+    }
+
+    public List<Vertex> findPathViaParallelBFS(long startId, long endId) {
+        return findPathViaParallelBFS(getVertex(startId), getVertex(endId));
+    }
+
+    /**
+     * Returns the path between the provided vertices with the smallest total weight, or an empty list if
+     * there is no path between them.  The search runs Dijkstra's algorithm over the CSR snapshot returned by
+     * freeze(), so it is cheapest when several queries are made between changes to the graph
+     */
+    public List<Vertex> findShortestPath(Vertex start, Vertex end) {
+        return freeze().findShortestPath(start, end);
+    }
+
+    public List<Vertex> findShortestPath(char start, char end) {
+        return findShortestPath(getVertex(start), getVertex(end));
+    }
+
+    public List<Vertex> findShortestPath(long startId, long endId) {
+        return findShortestPath(getVertex(startId), getVertex(endId));
     }
 
     public List<List<Edge>> computeMinimumSpanningForest() {
@@ -235,20 +621,22 @@ public class WeightedGraph {
         Set<Vertex> inTheForest = new HashSet<>();
         PriorityQueue<Edge> pq = new PriorityQueue<>(numVertices*2, (e1,e2) -> Integer.compare(e1.weight, e2.weight));
 
-        Vertex currentVertex = vertices.values().iterator().next();
+        Vertex currentVertex = vertices.get(0);
         inTheForest.add(currentVertex);
+        int nextRoot = 1;
 
         List<Edge> currentMST = new LinkedList<>();
         msf.add(currentMST);
 
         do {
             while (inTheForest.size() < numVertices) {
-                List<Edge> outboundEdges = adjacencyLists.get(currentVertex);
+                List<Edge> outboundEdges = getAdjacencyList(currentVertex);
                 outboundEdges.stream().filter(e -> !inTheForest.contains(e.endVertex)).forEach(e -> pq.offer(e));
-                Edge newEdgeForMST = null;
-                do {
-                    newEdgeForMST = (!pq.isEmpty()) ? pq.remove() : null;
-                } while (!pq.isEmpty() && inTheForest.contains(newEdgeForMST.endVertex));
+                // skip edges queued before their end vertex joined the forest by some other edge
+                Edge newEdgeForMST = pq.poll();
+                while (newEdgeForMST != null && inTheForest.contains(newEdgeForMST.endVertex)) {
+                    newEdgeForMST = pq.poll();
+                }
 
                 if (newEdgeForMST == null) {
                     //no edges in the tree are to vertices that are not already part of the mst
@@ -261,9 +649,13 @@ public class WeightedGraph {
             }
 
             if (inTheForest.size() < numVertices) {
-                // graph must not be fully connected, so pick a vertex not yet in the MSF and restart from there
-                Sets.SetView<Vertex> verticesNotYetInForest = Sets.difference(getVertices(), inTheForest);
-                currentVertex = verticesNotYetInForest.iterator().next();
+                // graph must not be fully connected, so pick a vertex not yet in the MSF and restart from there.
+                // Vertices before nextRoot are all in the forest already, so the scan never goes over them again
+                while (inTheForest.contains(vertices.get(nextRoot))) {
+                    nextRoot++;
+                }
+                currentVertex = vertices.get(nextRoot);
+                inTheForest.add(currentVertex);
                 currentMST = new LinkedList<>();
                 msf.add(currentMST);
                 pq.clear();
@@ -273,27 +665,43 @@ public class WeightedGraph {
         return msf;
     }
 
-    private List<Vertex> buildPathStartingFromEnd(Vertex end, Map<Vertex, Vertex> pathTrackerMap) {
-        List<Vertex> path = new LinkedList<>();
-        Vertex v = end;
+    /**
+     * Computes the minimum spanning forest in the same form as computeMinimumSpanningForest(), using Kruskal's
+     * algorithm with a parallel edge sort over the CSR snapshot returned by freeze()
+     */
+    public List<List<Edge>> computeMinimumSpanningForestViaKruskal() {
+        return freeze().computeMinimumSpanningForestViaKruskal();
+    }
 
-        while (v != null) {
-            path.add(0, v);
-            v = pathTrackerMap.get(v);
-        }
-        return path;
+    /**
+     * Computes the minimum spanning forest in the same form as computeMinimumSpanningForest(), using a parallel
+     * version of Boruvka's algorithm over the CSR snapshot returned by freeze()
+     */
+    public List<List<Edge>> computeMinimumSpanningForestViaBoruvka() {
+        return freeze().computeMinimumSpanningForestViaBoruvka();
     }
 
-    private Vertex getAdjacentUnvisitedVertex(Vertex currentVertex, Set<Vertex> visited) {
-        List<Edge> adjacentVertices = adjacencyLists.get(currentVertex);
-        for (Edge edge : adjacentVertices) {
-            Vertex endVertex = edge.endVertex;
-            if (!visited.contains(endVertex)) {
-                return endVertex;
+    private List<Vertex> buildPathStartingFromEnd(int endIndex, TraversalContext context) {
+        List<Vertex> path = new ArrayList<>(context.getDistance(endIndex) + 1);
+        for (int index = endIndex; ; index = context.getParent(index)) {
+            path.add(vertices.get(index));
+            if (context.getParent(index) == index) {
+                break;
             }
         }
 
-        return null;
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int requireVertexIndex(Vertex vertex) {
+        int index = (vertex != null) ? vertexIndexes.get(vertex.id) : -1;
+        Preconditions.checkArgument(index >= 0, "The provided vertex must be non-null and a part of this graph");
+        return index;
+    }
+
+    private List<Edge> getAdjacencyList(Vertex vertex) {
+        return adjacencyLists.get(vertexIndexes.get(vertex.id));
     }
 
     static class Edge implements Comparable<Edge> {
@@ -350,29 +758,48 @@ public class WeightedGraph {
     }
 
     static class Vertex {
-        private char label;
+        private final long id;
+        private final boolean labelled; // i.e. created from a char label, which only affects toString()
+
+        public long getId() {
+            return id;
+        }
 
+        /**
+         * Returns the char label of a vertex created from one; for other vertices this is just the low 16
+         * bits of the id
+         */
         public char getLabel() {
-            return label;
+            return (char) id;
+        }
+
+        boolean isLabelled() {
+            return labelled;
         }
 
         public Vertex(char label) {
-            this.label = label;
+            this.id = label;
+            this.labelled = true;
+        }
+
+        public Vertex(long id) {
+            this.id = id;
+            this.labelled = false;
         }
 
         @Override
         public boolean equals(Object obj) {
-            return ((obj instanceof Vertex) && (this.label == ((Vertex) obj).label));
+            return ((obj instanceof Vertex) && (this.id == ((Vertex) obj).id));
         }
 
         @Override
         public int hashCode() {
-            return Character.hashCode(this.label);
+            return Long.hashCode(this.id);
         }
 
         @Override
         public String toString() {
-            return Character.toString(this.label);
+            return labelled ? Character.toString((char) id) : Long.toString(id);
         }
     }
 }
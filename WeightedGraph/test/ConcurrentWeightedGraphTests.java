@@ -0,0 +1,329 @@
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentWeightedGraphTests {
+    @Test
+    public void batchesMatchSameChangesToWeightedGraphTest() throws Exception {
+        Random r = new Random(5);
+        WeightedGraph expected = new WeightedGraph();
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+
+        for (int round = 0; round < 20; round++) {
+            EdgeBatch batch = new EdgeBatch();
+            for (int i = 0; i < 200; i++) {
+                long v1 = r.nextInt(150);
+                long v2 = (r.nextInt(10) == 0) ? v1 : r.nextInt(150);
+                int change = r.nextInt(10);
+                if (change < 6) {
+                    int weight = r.nextInt(50) - 5;
+                    batch.addEdge(v1, v2, weight);
+                    expected.addEdge(v1, v2, weight);
+                } else if (change < 8) {
+                    batch.removeEdge(v1, v2);
+                    if (expected.getVertex(v1) != null && expected.getVertex(v2) != null) {
+                        expected.removeEdge(v1, v2);
+                    }
+                } else if (change < 9) {
+                    int weight = r.nextInt(50);
+                    batch.updateEdgeWeight(v1, v2, weight);
+                    if (expected.getVertex(v1) != null && expected.getVertex(v2) != null && expected.containsEdge(v1, v2)) {
+                        expected.updateEdgeWeight(v1, v2, weight);
+                    }
+                } else {
+                    batch.addVertex(1_000 + v1);
+                    expected.addVertex(1_000 + v1);
+                }
+            }
+
+            assertEquals(round + 1, graph.apply(batch));
+            assertSameGraph(expected.freeze(), graph.getSnapshot());
+        }
+    }
+
+    @Test
+    public void snapshotsAreUnchangedByLaterVersionsTest() throws Exception {
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+        graph.apply(new EdgeBatch().addEdge(1, 2, 3).addEdge(2, 3, 4).addEdge(3, 4, 5));
+        CsrGraph before = graph.getSnapshot();
+
+        assertEquals(2, graph.removeEdge(2, 3));
+        assertEquals(3, graph.addEdge(1, 4, 1));
+        assertEquals(3, graph.getVersion());
+
+        assertEquals(4, before.findPathViaBFS(before.getVertex(0), before.getVertex(3)).size());
+        assertEquals(6, before.getEdgeCount());
+        List<WeightedGraph.Vertex> path = graph.findPathViaBFS(1, 4);
+        assertEquals(2, path.size());
+        assertEquals(4, path.get(1).getId());
+    }
+
+    @Test
+    public void changesToMissingEdgesAreSkippedTest() throws Exception {
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+        graph.addEdge(1, 2, 3);
+        graph.apply(new EdgeBatch().removeEdge(1, 3).updateEdgeWeight(7, 8, 1).removeEdge(9, 9));
+
+        CsrGraph snapshot = graph.getSnapshot();
+        assertEquals(2, snapshot.getVertexCount());
+        assertEquals(2, snapshot.getEdgeCount());
+        assertEquals(3, snapshot.getEdgeWeight(0));
+    }
+
+    @Test
+    public void negativeWeightsAreTrackedAcrossVersionsTest() throws Exception {
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+        graph.apply(new EdgeBatch().addEdge(1, 2, 3).addEdge(2, 3, -1));
+        assertTrue(graph.getSnapshot().hasNegativeWeights());
+
+        graph.addEdge(3, 4, 2);
+        assertTrue(graph.getSnapshot().hasNegativeWeights());
+
+        graph.updateEdgeWeight(3, 2, 1);
+        assertFalse(graph.getSnapshot().hasNegativeWeights());
+        assertEquals(4, graph.getSnapshot().findShortestPath(vertex(graph, 1), vertex(graph, 4)).size());
+    }
+
+    @Test
+    public void negativeWeightRemovedInSameBatchIsNotTrackedTest() throws Exception {
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+        graph.apply(new EdgeBatch().addEdge(1, 2, 3).addEdge(2, 3, 4).addEdge(1, 3, -1).removeEdge(1, 3));
+        assertFalse(graph.getSnapshot().hasNegativeWeights());
+
+        graph.apply(new EdgeBatch().addEdge(3, 4, 1));
+        assertFalse(graph.getSnapshot().hasNegativeWeights());
+        assertEquals(4, graph.getSnapshot().findShortestPath(vertex(graph, 1), vertex(graph, 4)).size());
+    }
+
+    @Test
+    public void startsFromMappedGraphTest() throws Exception {
+        WeightedGraph wg = new WeightedGraph();
+        wg.addEdge('a', 'b', 2);
+        wg.addEdge('b', 'c', 3);
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            wg.writeTo(file);
+            ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph(CsrGraph.open(file));
+            graph.apply(new EdgeBatch().addEdge('c', 'd', 4).removeEdge('a', 'b'));
+            wg.addEdge('c', 'd', 4);
+            wg.removeEdge('a', 'b');
+
+            assertSameGraph(wg.freeze(), graph.getSnapshot());
+            assertEquals("a", graph.getSnapshot().getVertex(0).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void concurrentWritersAndReadersTest() throws Exception {
+        ConcurrentWeightedGraph graph = new ConcurrentWeightedGraph();
+        int writers = 4;
+        int edgesPerWriter = 300;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch writersDone = new CountDownLatch(writers);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            long first = w * 10_000L;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (long v = first; v < first + edgesPerWriter; v++) {
+                        graph.addEdge(v, v + 1, 1);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    writersDone.countDown();
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            try {
+                start.await();
+                long lastVersion = -1;
+                while (writersDone.getCount() > 0 && failure.get() == null) {
+                    // every version a reader sees must be whole: each chain is a prefix of its writer's edges
+                    CsrGraph snapshot = graph.getSnapshot();
+                    assertEquals(2 * (snapshot.getVertexCount() - countChains(snapshot)), snapshot.getEdgeCount());
+                    assertTrue(graph.getVersion() >= lastVersion);
+                    lastVersion = graph.getVersion();
+                    Thread.yield();
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }));
+
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        CsrGraph snapshot = graph.getSnapshot();
+        assertEquals(writers * (edgesPerWriter + 1), snapshot.getVertexCount());
+        assertEquals(2 * writers * edgesPerWriter, snapshot.getEdgeCount());
+        assertTrue(graph.getVersion() <= writers * edgesPerWriter);
+        assertEquals(edgesPerWriter + 1, graph.findPathViaBFS(30_000, 30_000 + edgesPerWriter).size());
+    }
+
+    @Test
+    public void failedPublishReachesEveryWriterInTheGroupTest() throws Exception {
+        Error failure = new OutOfMemoryError("simulated");
+        EdgeBatch poison = new EdgeBatch().addEdge(7, 8, 1);
+        FailingGraph graph = new FailingGraph(poison, failure);
+        Object[] results = applyAsOneGroup(graph, new EdgeBatch().addEdge(5, 6, 1), new EdgeBatch().addEdge(1, 2, 1),
+                poison, new EdgeBatch().addEdge(3, 4, 1));
+
+        assertEquals(1L, results[0]);
+        for (int i = 1; i < results.length; i++) {
+            assertSame(failure, results[i]);
+        }
+        assertEquals(1, graph.getVersion());
+    }
+
+    @Test
+    public void failedBatchDoesNotFailTheRestOfItsGroupTest() throws Exception {
+        RuntimeException failure = new IllegalStateException("simulated");
+        EdgeBatch poison = new EdgeBatch().addEdge(7, 8, 1);
+        FailingGraph graph = new FailingGraph(poison, failure);
+        Object[] results = applyAsOneGroup(graph, new EdgeBatch().addEdge(5, 6, 1), new EdgeBatch().addEdge(1, 2, 1),
+                poison, new EdgeBatch().addEdge(3, 4, 1));
+
+        assertEquals(1L, results[0]);
+        assertSame(failure, results[2]);
+        assertTrue(results[1] instanceof Long && results[3] instanceof Long);
+        assertEquals(3, graph.getVersion());
+        CsrGraph snapshot = graph.getSnapshot();
+        assertEquals(6, snapshot.getVertexCount());
+        assertEquals(-1, snapshot.getVertexTable().getVertexId(7));
+        assertEquals(2, graph.findPathViaBFS(3, 4).size());
+    }
+
+    /**
+     * A graph that fails to build any version containing the poison batch.  The first version it builds
+     * waits until released, so that batches applied meanwhile are all queued for the next one
+     */
+    private static class FailingGraph extends ConcurrentWeightedGraph {
+        private final EdgeBatch poison;
+        private final Throwable failure;
+        private final CountDownLatch firstBuildStarted = new CountDownLatch(1);
+        private final CountDownLatch firstBuildReleased = new CountDownLatch(1);
+
+        FailingGraph(EdgeBatch poison, Throwable failure) {
+            this.poison = poison;
+            this.failure = failure;
+        }
+
+        @Override
+        CsrGraph buildVersion(CsrGraph base, List<EdgeBatch> batches) {
+            if (firstBuildStarted.getCount() > 0) {
+                firstBuildStarted.countDown();
+                awaitUninterruptibly(firstBuildReleased);
+            }
+            if (batches.contains(poison)) {
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw (RuntimeException) failure;
+            }
+            return super.buildVersion(base, batches);
+        }
+    }
+
+    /**
+     * Applies the first batch on a thread of its own and, while its version is being built, the others on
+     * one thread each, so that they are all applied together.  Returns each writer's version number or the
+     * Throwable it got, in batch order
+     */
+    private static Object[] applyAsOneGroup(FailingGraph graph, EdgeBatch... batches) throws Exception {
+        Object[] results = new Object[batches.length];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < batches.length; i++) {
+            int index = i;
+            threads.add(new Thread(() -> {
+                try {
+                    results[index] = graph.apply(batches[index]);
+                } catch (Throwable t) {
+                    results[index] = t;
+                }
+            }));
+        }
+
+        threads.get(0).start();
+        graph.firstBuildStarted.await();
+        List<Thread> others = threads.subList(1, threads.size());
+        others.forEach(Thread::start);
+        // a writer waiting for the write lock has already queued its batch
+        for (Thread thread : others) {
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+        graph.firstBuildReleased.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return results;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int countChains(CsrGraph snapshot) {
+        int chains = 0;
+        for (int id = 0; id < snapshot.getVertexCount(); id++) {
+            long vertexId = snapshot.getVertex(id).getId();
+            if (vertexId % 10_000 == 0) {
+                chains++;
+            }
+        }
+        return chains;
+    }
+
+    private static WeightedGraph.Vertex vertex(ConcurrentWeightedGraph graph, long vertexId) {
+        CsrGraph snapshot = graph.getSnapshot();
+        return snapshot.getVertex(snapshot.getVertexTable().getVertexId(vertexId));
+    }
+
+    /**
+     * Checks the graphs have the same vertices in the same order, and the same edges to and weights on each
+     * vertex in any order (WeightedGraph.removeEdge() doesn't keep the order of a vertex's edges)
+     */
+    private static void assertSameGraph(CsrGraph expected, CsrGraph actual) {
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        assertEquals(expected.hasNegativeWeights(), actual.hasNegativeWeights());
+        for (int id = 0; id < expected.getVertexCount(); id++) {
+            assertEquals(expected.getVertex(id), actual.getVertex(id));
+            assertEquals(edgesOf(expected, id), edgesOf(actual, id));
+        }
+    }
+
+    private static List<Long> edgesOf(CsrGraph graph, int id) {
+        List<Long> edges = new ArrayList<>();
+        for (int edgeIndex = graph.getEdgeOffset(id); edgeIndex < graph.getEdgeOffset(id + 1); edgeIndex++) {
+            edges.add(((long) graph.getEdgeTarget(edgeIndex) << 32) | (graph.getEdgeWeight(edgeIndex) & 0xffffffffL));
+        }
+        Collections.sort(edges);
+        return edges;
+    }
+}
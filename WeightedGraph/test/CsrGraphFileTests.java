@@ -0,0 +1,139 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CsrGraphFileTests {
+    @Test
+    public void openedGraphMatchesWrittenGraphTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge(10_000_000_000L, 'a', -3);
+        wg.addVertex(42L);
+        CsrGraph csr = wg.freeze();
+
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            wg.writeTo(file);
+            CsrGraph opened = CsrGraph.open(file);
+
+            assertEquals(csr.getVertexCount(), opened.getVertexCount());
+            assertEquals(csr.getEdgeCount(), opened.getEdgeCount());
+            for (int id = 0; id < csr.getVertexCount(); id++) {
+                assertEquals(csr.getVertex(id), opened.getVertex(id));
+                assertEquals(csr.getVertex(id).toString(), opened.getVertex(id).toString());
+                assertEquals(id, opened.getVertexId(csr.getVertex(id)));
+                assertEquals(csr.getEdgeOffset(id + 1), opened.getEdgeOffset(id + 1));
+            }
+            for (int edgeIndex = 0; edgeIndex < csr.getEdgeCount(); edgeIndex++) {
+                assertEquals(csr.getEdgeTarget(edgeIndex), opened.getEdgeTarget(edgeIndex));
+                assertEquals(csr.getEdgeWeight(edgeIndex), opened.getEdgeWeight(edgeIndex));
+            }
+            assertEquals(-1, opened.getVertexId(new WeightedGraph.Vertex('z')));
+
+            List<WeightedGraph.Vertex> path = opened.findPathViaBFS(wg.getVertex('a'), wg.getVertex('k'));
+            assertEquals(csr.findPathViaBFS(wg.getVertex('a'), wg.getVertex('k')), path);
+            assertEquals(totalWeight(csr.computeMinimumSpanningForest()), totalWeight(opened.computeMinimumSpanningForest()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void openedGraphKeepsNegativeWeightCheckTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            wg.writeTo(file);
+            CsrGraph opened = CsrGraph.open(file);
+            assertEquals(wg.findShortestPath('a', 'g'), opened.findShortestPath(wg.getVertex('a'), wg.getVertex('g')));
+
+            wg.addEdge('a', 'z', -1);
+            wg.writeTo(file);
+            opened = CsrGraph.open(file);
+
+            boolean threwAsExpected = false;
+            try {
+                opened.findShortestPath(wg.getVertex('a'), wg.getVertex('g'));
+            } catch (IllegalStateException e) {
+                threwAsExpected = true;
+            }
+            assertTrue("call to findShortestPath() did not throw the expected exception", threwAsExpected);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void emptyGraphRoundTripsTest() throws Exception {
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            new WeightedGraph().writeTo(file);
+            CsrGraph opened = CsrGraph.open(file);
+            assertEquals(0, opened.getVertexCount());
+            assertEquals(0, opened.getEdgeCount());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void openingTruncatedOrForeignFileThrowsIOException() throws Exception {
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            buildComplexGraph().writeTo(file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            assertOpenThrowsIOException(file);
+
+            Files.write(file, "a b 1\n".getBytes());
+            assertOpenThrowsIOException(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertOpenThrowsIOException(Path file) {
+        boolean threwAsExpected = false;
+        try {
+            CsrGraph.open(file);
+        } catch (IOException e) {
+            threwAsExpected = true;
+        }
+        assertTrue("call to open() did not throw the expected exception", threwAsExpected);
+    }
+
+    private static long totalWeight(List<List<WeightedGraph.Edge>> msf) {
+        return msf.stream().flatMap(List::stream).mapToLong(WeightedGraph.Edge::getWeight).sum();
+    }
+
+    private WeightedGraph buildComplexGraph() {
+        WeightedGraph wg = new WeightedGraph(12);
+        wg.addEdge('a', 'b', 13);
+        wg.addEdge('a', 'c', 6);
+        wg.addEdge('b', 'c', 7);
+        wg.addEdge('b', 'd', 1);
+        wg.addEdge('c', 'd', 14);
+        wg.addEdge('c', 'e', 8);
+        wg.addEdge('c', 'h', 20);
+        wg.addEdge('d', 'e', 9);
+        wg.addEdge('d', 'f', 3);
+        wg.addEdge('e', 'f', 2);
+        wg.addEdge('e', 'j', 18);
+        wg.addEdge('g', 'h', 15);
+        wg.addEdge('g', 'i', 5);
+        wg.addEdge('g', 'j', 19);
+        wg.addEdge('g', 'k', 10);
+        wg.addEdge('h', 'j', 17);
+        wg.addEdge('i', 'k', 11);
+        wg.addEdge('j', 'k', 16);
+        wg.addEdge('j', 'l', 4);
+        wg.addEdge('k', 'l', 12);
+
+        return wg;
+    }
+}
@@ -0,0 +1,478 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.core.IsCollectionContaining.*;
+import static org.junit.Assert.*;
+
+public class CsrGraphTests {
+    @Test
+    public void freezeIsCachedUntilGraphChangesTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        CsrGraph csr = wg.freeze();
+        assertSame(csr, wg.freeze());
+        assertEquals(12, csr.getVertexCount());
+        assertEquals(40, csr.getEdgeCount());
+
+        wg.addEdge('a', 'm', 3);
+        CsrGraph refrozen = wg.freeze();
+        assertNotSame(csr, refrozen);
+        assertEquals(13, refrozen.getVertexCount());
+        assertEquals(42, refrozen.getEdgeCount());
+        assertEquals(12, csr.getVertexCount());
+    }
+
+    @Test
+    public void edgesMatchAdjacencyListsTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        CsrGraph csr = wg.freeze();
+
+        for (WeightedGraph.Vertex vertex : wg.getVertices()) {
+            int id = csr.getVertexId(vertex);
+            assertEquals(vertex, csr.getVertex(id));
+
+            List<WeightedGraph.Edge> edges = wg.getOutgoingEdges(vertex);
+            assertEquals(edges.size(), csr.getEdgeOffset(id + 1) - csr.getEdgeOffset(id));
+            int edgeIndex = csr.getEdgeOffset(id);
+            for (WeightedGraph.Edge edge : edges) {
+                assertEquals(edge.getEndVertex(), csr.getVertex(csr.getEdgeTarget(edgeIndex)));
+                assertEquals(edge.getWeight(), csr.getEdgeWeight(edgeIndex));
+                edgeIndex++;
+            }
+        }
+    }
+
+    @Test
+    public void findPathViaBFSReturnsShortestPathTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        List<WeightedGraph.Vertex> path = wg.freeze().findPathViaBFS(wg.getVertex('a'), wg.getVertex('k'));
+
+        assertEquals(5, path.size());
+        assertValidPath(wg, path, 'a', 'k');
+    }
+
+    @Test
+    public void findPathViaDFSMatchesWeightedGraphTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        List<WeightedGraph.Vertex> path = wg.freeze().findPathViaDFS(wg.getVertex('a'), wg.getVertex('k'));
+
+        assertValidPath(wg, path, 'a', 'k');
+        assertEquals(wg.findPathViaDFS('a', 'k'), path);
+    }
+
+    @Test
+    public void findPathBetweenDisconnectedVerticesReturnsEmptyListTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+        CsrGraph csr = wg.freeze();
+
+        assertTrue(csr.findPathViaBFS(wg.getVertex('a'), wg.getVertex('y')).isEmpty());
+        assertTrue(csr.findPathViaDFS(wg.getVertex('a'), wg.getVertex('y')).isEmpty());
+    }
+
+    @Test
+    public void findPathWithVertexNotInGraphThrowsIAE() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+
+        boolean threwAsExpected = false;
+        try {
+            wg.freeze().findPathViaBFS(wg.getVertex('a'), new WeightedGraph.Vertex('z'));
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to findPathViaBFS() did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void computeBreadthFirstTreeReturnsHopDistancesTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+        CsrGraph.BreadthFirstTree tree = wg.freeze().computeBreadthFirstTree(wg.getVertex('a'));
+
+        assertEquals(0, tree.getDistance(wg.getVertex('a')));
+        assertEquals(1, tree.getDistance(wg.getVertex('c')));
+        assertEquals(3, tree.getDistance(wg.getVertex('j')));
+        assertEquals(4, tree.getDistance(wg.getVertex('k')));
+        assertEquals(-1, tree.getDistance(wg.getVertex('y')));
+        assertNull(tree.getParent(wg.getVertex('a')));
+        assertNull(tree.getParent(wg.getVertex('y')));
+        assertEquals(wg.getVertex('c'), tree.getParent(wg.getVertex('h')));
+        assertTrue(tree.getPathTo(wg.getVertex('y')).isEmpty());
+        assertValidPath(wg, tree.getPathTo(wg.getVertex('k')), 'a', 'k');
+    }
+
+    @Test
+    public void computeBreadthFirstTreeMatchesSerialSearchOnLargeGraphTest() throws Exception {
+        // big enough to split each level into many tasks and for the search to switch to bottom-up and back
+        Random r = new Random(7);
+        WeightedGraph wg = new WeightedGraph(20_000);
+        for (long v = 0; v < 20_000; v++) {
+            wg.addVertex(v);
+        }
+        for (int e = 0; e < 60_000; e++) {
+            wg.addEdge(r.nextInt(20_000), r.nextInt(20_000), 1);
+        }
+        CsrGraph csr = wg.freeze();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsrGraph.BreadthFirstTree tree = csr.computeBreadthFirstTree(wg.getVertex(0L), pool);
+            CsrGraph.ShortestPaths expected = csr.computeShortestPaths(wg.getVertex(0L));
+            for (WeightedGraph.Vertex vertex : wg.getVertices()) {
+                long distance = expected.getDistance(vertex);
+                assertEquals(distance == Long.MAX_VALUE ? -1 : distance, tree.getDistance(vertex));
+
+                WeightedGraph.Vertex parent = tree.getParent(vertex);
+                if (parent != null) {
+                    assertTrue(wg.containsEdge(parent, vertex));
+                    assertEquals(tree.getDistance(vertex) - 1, tree.getDistance(parent));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<WeightedGraph.Vertex> path = csr.findPathViaParallelBFS(wg.getVertex(0L), wg.getVertex(19_999L));
+        assertEquals(csr.findPathViaBFS(wg.getVertex(0L), wg.getVertex(19_999L)).size(), path.size());
+    }
+
+    @Test
+    public void computeHopDistancesReturnsDistanceBetweenEachPairTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+        List<WeightedGraph.Vertex> sources = Arrays.asList(wg.getVertex('a'), wg.getVertex('y'), wg.getVertex('a'));
+        List<WeightedGraph.Vertex> targets = Arrays.asList(wg.getVertex('k'), wg.getVertex('a'), wg.getVertex('x'),
+                wg.getVertex('k'));
+
+        int[][] distances = wg.computeHopDistances(sources, targets);
+        assertArrayEquals(new int[] { 4, 0, -1, 4 }, distances[0]);
+        assertArrayEquals(new int[] { -1, -1, 1, -1 }, distances[1]);
+        assertArrayEquals(new int[] { 4, 0, -1, 4 }, distances[2]);
+        assertEquals(0, wg.computeHopDistances(Collections.emptyList(), targets).length);
+        assertEquals(0, wg.computeHopDistances(sources, Collections.emptyList())[1].length);
+
+        boolean threwAsExpected = false;
+        try {
+            wg.computeHopDistances(sources, Arrays.asList(wg.getVertex('a'), null));
+        } catch (IllegalArgumentException e) {
+            threwAsExpected = true;
+        }
+        assertTrue("call to computeHopDistances() did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void multiSourceSearchesMatchSingleSourceSearchesTest() throws Exception {
+        // more sources than fit in one batch, with the same source twice, and vertices no source can reach
+        Random r = new Random(5);
+        WeightedGraph wg = new WeightedGraph(5_000);
+        for (long v = 0; v < 5_000; v++) {
+            wg.addVertex(v);
+        }
+        for (int e = 0; e < 9_000; e++) {
+            wg.addEdge(r.nextInt(5_000), r.nextInt(5_000), 1);
+        }
+        CsrGraph csr = wg.freeze();
+        List<WeightedGraph.Vertex> sources = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            sources.add(wg.getVertex((long) r.nextInt(5_000)));
+        }
+        sources.add(sources.get(3));
+        List<WeightedGraph.Vertex> targets = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            targets.add(wg.getVertex((long) r.nextInt(5_000)));
+        }
+
+        List<CsrGraph.BreadthFirstTree> trees = csr.computeBreadthFirstTrees(sources);
+        int[][] distances = csr.computeHopDistances(sources, targets);
+        assertEquals(sources.size(), trees.size());
+        for (int source = 0; source < sources.size(); source++) {
+            CsrGraph.BreadthFirstTree tree = trees.get(source);
+            CsrGraph.BreadthFirstTree expected = csr.computeBreadthFirstTree(sources.get(source));
+            for (WeightedGraph.Vertex vertex : wg.getVertices()) {
+                assertEquals(expected.getDistance(vertex), tree.getDistance(vertex));
+                WeightedGraph.Vertex parent = tree.getParent(vertex);
+                if (parent != null) {
+                    assertTrue(wg.containsEdge(parent, vertex));
+                    assertEquals(tree.getDistance(vertex) - 1, tree.getDistance(parent));
+                }
+            }
+            for (int target = 0; target < targets.size(); target++) {
+                assertEquals(expected.getDistance(targets.get(target)), distances[source][target]);
+            }
+        }
+        assertEquals(sources.get(3), trees.get(150).getPathTo(sources.get(3)).get(0));
+    }
+
+    @Test
+    public void findPathViaBidirectionalBFSReturnsShortestPathTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+
+        List<WeightedGraph.Vertex> path = wg.findPathViaBidirectionalBFS('a', 'k');
+        assertEquals(5, path.size());
+        assertValidPath(wg, path, 'a', 'k');
+        assertEquals(2, wg.findPathViaBidirectionalBFS('b', 'd').size());
+        assertEquals(Collections.singletonList(wg.getVertex('a')), wg.findPathViaBidirectionalBFS('a', 'a'));
+        assertTrue(wg.findPathViaBidirectionalBFS('a', 'y').isEmpty());
+    }
+
+    @Test
+    public void findPathViaBidirectionalBFSMatchesSerialSearchTest() throws Exception {
+        // sparse enough that many pairs are far apart, with some vertices left unreachable
+        Random r = new Random(13);
+        WeightedGraph wg = new WeightedGraph(5_000);
+        for (long v = 0; v < 5_000; v++) {
+            wg.addVertex(v);
+        }
+        for (int e = 0; e < 6_000; e++) {
+            wg.addEdge(r.nextInt(5_000), r.nextInt(5_000), 1);
+        }
+        CsrGraph csr = wg.freeze();
+
+        for (int i = 0; i < 500; i++) {
+            WeightedGraph.Vertex start = wg.getVertex((long) r.nextInt(5_000));
+            WeightedGraph.Vertex end = wg.getVertex((long) r.nextInt(5_000));
+            List<WeightedGraph.Vertex> path = csr.findPathViaBidirectionalBFS(start, end);
+            assertEquals(csr.findPathViaBFS(start, end).size(), path.size());
+            if (!path.isEmpty()) {
+                assertEquals(start, path.get(0));
+                assertEquals(end, path.get(path.size() - 1));
+                for (int v = 1; v < path.size(); v++) {
+                    assertTrue(wg.containsEdge(path.get(v - 1), path.get(v)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findPathViaParallelBFSReturnsShortestPathTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+
+        List<WeightedGraph.Vertex> path = wg.findPathViaParallelBFS('a', 'k');
+        assertEquals(5, path.size());
+        assertValidPath(wg, path, 'a', 'k');
+        assertEquals(Collections.singletonList(wg.getVertex('a')), wg.findPathViaParallelBFS('a', 'a'));
+        assertTrue(wg.findPathViaParallelBFS('a', 'y').isEmpty());
+    }
+
+    @Test
+    public void findShortestPathReturnsLightestPathTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        List<WeightedGraph.Vertex> path = wg.freeze().findShortestPath(wg.getVertex('a'), wg.getVertex('g'));
+
+        assertEquals(Arrays.asList(wg.getVertex('a'), wg.getVertex('c'), wg.getVertex('h'), wg.getVertex('g')), path);
+        assertEquals(path, wg.findShortestPath('a', 'g'));
+        assertEquals(48, pathWeight(wg, wg.findShortestPath('a', 'k')));
+    }
+
+    @Test
+    public void computeShortestPathsReturnsDistancesToAllVerticesTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+        CsrGraph.ShortestPaths paths = wg.freeze().computeShortestPaths(wg.getVertex('a'));
+
+        assertEquals(0, paths.getDistance(wg.getVertex('a')));
+        assertEquals(13, paths.getDistance(wg.getVertex('b')));
+        assertEquals(16, paths.getDistance(wg.getVertex('f')));
+        assertEquals(41, paths.getDistance(wg.getVertex('g')));
+        assertEquals(48, paths.getDistance(wg.getVertex('k')));
+        assertEquals(Long.MAX_VALUE, paths.getDistance(wg.getVertex('y')));
+        assertTrue(paths.getPathTo(wg.getVertex('y')).isEmpty());
+        assertEquals(wg.findShortestPath('a', 'f'), paths.getPathTo(wg.getVertex('f')));
+    }
+
+    @Test
+    public void findShortestPathWithHeuristicMatchesDijkstraTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        CsrGraph csr = wg.freeze();
+
+        for (WeightedGraph.Vertex end : wg.getVertices()) {
+            // exact distances make a perfect heuristic; zeroing every other one keeps it admissible but makes
+            // it inconsistent, which forces settled vertices to be reopened
+            CsrGraph.ShortestPaths fromEnd = csr.computeShortestPaths(end);
+            CsrGraph.Heuristic exact = (fromId, toId) -> fromEnd.getDistance(csr.getVertex(fromId));
+            CsrGraph.Heuristic inconsistent = (fromId, toId) -> (fromId % 2 == 0) ? exact.estimateDistance(fromId, toId) : 0;
+
+            long expected = fromEnd.getDistance(wg.getVertex('a'));
+            assertEquals(expected, pathWeight(wg, csr.findShortestPath(wg.getVertex('a'), end, exact)));
+            assertEquals(expected, pathWeight(wg, csr.findShortestPath(wg.getVertex('a'), end, inconsistent)));
+            assertEquals(expected, pathWeight(wg, csr.findShortestPath(wg.getVertex('a'), end, null)));
+        }
+    }
+
+    @Test
+    public void findShortestPathBetweenDisconnectedVerticesReturnsEmptyListTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('x', 'y', 1);
+
+        assertTrue(wg.findShortestPath('a', 'y').isEmpty());
+        assertEquals(Collections.singletonList(wg.getVertex('x')), wg.findShortestPath('x', 'x'));
+    }
+
+    @Test
+    public void findShortestPathWithNegativeWeightsThrowsISE() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('a', 'z', -1);
+
+        boolean threwAsExpected = false;
+        try {
+            wg.findShortestPath('a', 'k');
+        } catch (IllegalStateException e) {
+            threwAsExpected = true;
+        }
+
+        assertTrue("call to findShortestPath() did not throw the expected exception", threwAsExpected);
+    }
+
+    @Test
+    public void buildMSFForDisconnectedGraphTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('g', 'z', 4);
+        wg.addEdge('x', 'y', 1);
+        wg.addEdge('y', 'w', 2);
+        wg.addEdge('w', 'x', 3);
+
+        List<List<WeightedGraph.Edge>> msf = wg.freeze().computeMinimumSpanningForest();
+
+        assertEquals(2, msf.size());
+        assertEquals(wg.getVertices().size() - msf.size(), msf.stream().mapToInt(List::size).sum());
+        assertEquals(83 + 4 + 3, totalWeight(msf));
+
+        List<WeightedGraph.Edge> mst = msf.stream().filter(tree -> tree.size() > 2).findFirst().get();
+        assertThat(mst, hasItems(
+                new WeightedGraph.Edge(wg.getVertex('a'), wg.getVertex('c')),
+                new WeightedGraph.Edge(wg.getVertex('c'), wg.getVertex('b')),
+                new WeightedGraph.Edge(wg.getVertex('b'), wg.getVertex('d')),
+                new WeightedGraph.Edge(wg.getVertex('d'), wg.getVertex('f')),
+                new WeightedGraph.Edge(wg.getVertex('f'), wg.getVertex('e')),
+                new WeightedGraph.Edge(wg.getVertex('e'), wg.getVertex('j')),
+                new WeightedGraph.Edge(wg.getVertex('j'), wg.getVertex('l')),
+                new WeightedGraph.Edge(wg.getVertex('l'), wg.getVertex('k')),
+                new WeightedGraph.Edge(wg.getVertex('k'), wg.getVertex('g')),
+                new WeightedGraph.Edge(wg.getVertex('g'), wg.getVertex('i')),
+                new WeightedGraph.Edge(wg.getVertex('g'), wg.getVertex('h')),
+                new WeightedGraph.Edge(wg.getVertex('g'), wg.getVertex('z'))
+        ));
+    }
+
+    @Test
+    public void buildMSFForEmptyGraphReturnsEmptyListTest() throws Exception {
+        assertTrue(new WeightedGraph().freeze().computeMinimumSpanningForest().isEmpty());
+        assertTrue(new WeightedGraph().freeze().computeMinimumSpanningForestViaKruskal().isEmpty());
+        assertTrue(new WeightedGraph().freeze().computeMinimumSpanningForestViaBoruvka().isEmpty());
+    }
+
+    @Test
+    public void kruskalAndBoruvkaMatchPrimForDisconnectedGraphTest() throws Exception {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addEdge('g', 'z', 4);
+        wg.addEdge('x', 'y', 1);
+        wg.addEdge('y', 'w', 2);
+        wg.addEdge('w', 'x', 3);
+        wg.addVertex('v');
+        CsrGraph csr = wg.freeze();
+
+        List<List<WeightedGraph.Edge>> prim = csr.computeMinimumSpanningForest();
+        for (List<List<WeightedGraph.Edge>> msf : Arrays.asList(csr.computeMinimumSpanningForestViaKruskal(),
+                csr.computeMinimumSpanningForestViaBoruvka(), wg.computeMinimumSpanningForestViaKruskal(),
+                wg.computeMinimumSpanningForestViaBoruvka())) {
+            assertEquals(3, msf.size());
+            assertEquals(83 + 4 + 3, totalWeight(msf));
+            for (int tree = 0; tree < msf.size(); tree++) {
+                assertEquals(prim.get(tree).size(), msf.get(tree).size());
+                assertTrue(prim.get(tree).containsAll(msf.get(tree)));
+            }
+        }
+    }
+
+    @Test
+    public void kruskalAndBoruvkaMatchPrimForLargeGraphTest() throws Exception {
+        // the second graph's equal weights make ties between edges, and so candidate cycles, common
+        for (int maxWeight : new int[] { 1000, 1 }) {
+            Random r = new Random(11);
+            WeightedGraph wg = new WeightedGraph(5_000);
+            for (long v = 0; v < 5_000; v++) {
+                wg.addVertex(v);
+            }
+            for (int e = 0; e < 12_000; e++) {
+                wg.addEdge(r.nextInt(5_000), r.nextInt(5_000), 1 + r.nextInt(maxWeight));
+            }
+            CsrGraph csr = wg.freeze();
+
+            List<List<WeightedGraph.Edge>> prim = csr.computeMinimumSpanningForest();
+            List<List<WeightedGraph.Edge>> kruskal = csr.computeMinimumSpanningForestViaKruskal();
+            List<List<WeightedGraph.Edge>> boruvka;
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                boruvka = csr.computeMinimumSpanningForestViaBoruvka(pool);
+            } finally {
+                pool.shutdown();
+            }
+
+            for (List<List<WeightedGraph.Edge>> msf : Arrays.asList(kruskal, boruvka)) {
+                assertEquals(prim.size(), msf.size());
+                assertEquals(totalWeight(prim), totalWeight(msf));
+                for (int tree = 0; tree < msf.size(); tree++) {
+                    assertEquals(prim.get(tree).size(), msf.get(tree).size());
+                }
+            }
+            assertEquals(totalWeight(prim), totalWeight(wg.computeMinimumSpanningForest()));
+        }
+    }
+
+    private static void assertValidPath(WeightedGraph wg, List<WeightedGraph.Vertex> path, char start, char end) {
+        assertEquals(start, path.get(0).getLabel());
+        assertEquals(end, path.get(path.size() - 1).getLabel());
+        for (int i = 1; i < path.size(); i++) {
+            assertTrue(wg.containsEdge(path.get(i - 1), path.get(i)));
+        }
+    }
+
+    private static long pathWeight(WeightedGraph wg, List<WeightedGraph.Vertex> path) {
+        long weight = 0;
+        for (int i = 1; i < path.size(); i++) {
+            WeightedGraph.Vertex start = path.get(i - 1);
+            WeightedGraph.Vertex end = path.get(i);
+            weight += wg.getOutgoingEdges(start).stream().filter(e -> e.getEndVertex().equals(end))
+                    .mapToInt(WeightedGraph.Edge::getWeight).min().getAsInt();
+        }
+        return weight;
+    }
+
+    private static long totalWeight(List<List<WeightedGraph.Edge>> msf) {
+        return msf.stream().flatMap(List::stream).mapToLong(WeightedGraph.Edge::getWeight).sum();
+    }
+
+    private WeightedGraph buildComplexGraph() {
+        WeightedGraph wg = new WeightedGraph(12);
+        wg.addEdge('a', 'b', 13);
+        wg.addEdge('a', 'c', 6);
+        wg.addEdge('b', 'c', 7);
+        wg.addEdge('b', 'd', 1);
+        wg.addEdge('c', 'd', 14);
+        wg.addEdge('c', 'e', 8);
+        wg.addEdge('c', 'h', 20);
+        wg.addEdge('d', 'e', 9);
+        wg.addEdge('d', 'f', 3);
+        wg.addEdge('e', 'f', 2);
+        wg.addEdge('e', 'j', 18);
+        wg.addEdge('g', 'h', 15);
+        wg.addEdge('g', 'i', 5);
+        wg.addEdge('g', 'j', 19);
+        wg.addEdge('g', 'k', 10);
+        wg.addEdge('h', 'j', 17);
+        wg.addEdge('i', 'k', 11);
+        wg.addEdge('j', 'k', 16);
+        wg.addEdge('j', 'l', 4);
+        wg.addEdge('k', 'l', 12);
+
+        return wg;
+    }
+}
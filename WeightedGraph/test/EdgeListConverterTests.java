@@ -0,0 +1,69 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EdgeListConverterTests {
+    @Test
+    public void convertedGraphMatchesGraphBuiltByAddEdgeTest() throws Exception {
+        Path edgeList = Files.createTempFile("edges", ".txt");
+        Path graphFile = Files.createTempFile("graph", ".bin");
+        try {
+            Files.write(edgeList, Arrays.asList(
+                    "# a comment, then a blank line",
+                    "",
+                    "1 2 5",
+                    "  2\t3   7  ",
+                    "30000000000 1",
+                    "3 3 2",
+                    "2 1 -4"));
+            WeightedGraph wg = new WeightedGraph();
+            wg.addEdge(1L, 2L, 5);
+            wg.addEdge(2L, 3L, 7);
+            wg.addEdge(30_000_000_000L, 1L);
+            wg.addEdge(3L, 3L, 2);
+            wg.addEdge(2L, 1L, -4);
+            CsrGraph expected = wg.freeze();
+
+            EdgeListConverter.convert(edgeList, graphFile);
+            CsrGraph converted = CsrGraph.open(graphFile);
+
+            assertEquals(expected.getVertexCount(), converted.getVertexCount());
+            assertEquals(expected.getEdgeCount(), converted.getEdgeCount());
+            for (int id = 0; id < expected.getVertexCount(); id++) {
+                assertEquals(expected.getVertex(id), converted.getVertex(id));
+                assertEquals(expected.getEdgeOffset(id + 1), converted.getEdgeOffset(id + 1));
+            }
+            for (int edgeIndex = 0; edgeIndex < expected.getEdgeCount(); edgeIndex++) {
+                assertEquals(expected.getEdgeTarget(edgeIndex), converted.getEdgeTarget(edgeIndex));
+                assertEquals(expected.getEdgeWeight(edgeIndex), converted.getEdgeWeight(edgeIndex));
+            }
+        } finally {
+            Files.deleteIfExists(edgeList);
+            Files.deleteIfExists(graphFile);
+        }
+    }
+
+    @Test
+    public void malformedLineThrowsIOException() throws Exception {
+        Path edgeList = Files.createTempFile("edges", ".txt");
+        try {
+            for (String line : Arrays.asList("1", "1 2 3 4", "1 x 3", "1 2 3.5")) {
+                Files.write(edgeList, Arrays.asList("1 2", line));
+                boolean threwAsExpected = false;
+                try {
+                    EdgeListConverter.convert(edgeList, edgeList);
+                } catch (IOException e) {
+                    threwAsExpected = e.getMessage().contains(":2:");
+                }
+                assertTrue("reading '" + line + "' did not throw the expected exception", threwAsExpected);
+            }
+        } finally {
+            Files.deleteIfExists(edgeList);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class EdgeListReaderTests {
+    @Test
+    public void readsEdgesInBatchesTest() throws Exception {
+        EdgeListReader reader = new EdgeListReader(new StringReader("# comment\n1 2 5\n\n  2\t3   7  \n30000000000 1\n3 3 -2\n"));
+        long[] startIds = new long[3];
+        long[] endIds = new long[3];
+        int[] weights = new int[3];
+
+        assertEquals(3, reader.read(startIds, endIds, weights));
+        assertArrayEquals(new long[] { 1, 2, 30_000_000_000L }, startIds);
+        assertArrayEquals(new long[] { 2, 3, 1 }, endIds);
+        assertArrayEquals(new int[] { 5, 7, Integer.MAX_VALUE }, weights);
+
+        assertEquals(1, reader.read(startIds, endIds, weights, 1, 2));
+        assertEquals(3, startIds[1]);
+        assertEquals(3, endIds[1]);
+        assertEquals(-2, weights[1]);
+
+        assertEquals(0, reader.read(startIds, endIds, weights));
+        reader.close();
+    }
+
+    @Test
+    public void malformedLineReportsLineNumberTest() throws Exception {
+        EdgeListReader reader = new EdgeListReader(new StringReader("1 2\n\n1 x 3\n"));
+        try {
+            reader.read(new long[4], new long[4], new int[4]);
+            fail("expected the third line to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("input:3:"));
+        }
+    }
+
+    @Test
+    public void lineWithOneIdIsRejectedTest() throws Exception {
+        EdgeListReader reader = new EdgeListReader(new StringReader("7\n"));
+        try {
+            reader.read(new long[1], new long[1], new int[1]);
+            fail("expected the line to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("input:1:"));
+        }
+    }
+}
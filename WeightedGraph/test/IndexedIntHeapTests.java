@@ -0,0 +1,51 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedIntHeapTests {
+    @Test
+    public void RemovesIdsInKeyOrderTest() throws Exception {
+        Random r = new Random();
+        int capacity = 1000;
+        long[] keys = new long[capacity];
+        IndexedIntHeap heap = new IndexedIntHeap(capacity);
+
+        for (int id = 0; id < capacity; id++) {
+            keys[id] = r.nextInt(1_000_000);
+            heap.insert(id, keys[id]);
+        }
+        for (int i = 0; i < 2000; i++) {
+            int id = r.nextInt(capacity);
+            long newKey = r.nextInt(1_000_000);
+            heap.decreaseKey(id, newKey);
+            keys[id] = Math.min(keys[id], newKey);
+        }
+
+        long lastKey = Long.MIN_VALUE;
+        int removed = 0;
+        while (!heap.isEmpty()) {
+            int id = heap.removeMin();
+            assertFalse(heap.contains(id));
+            assertTrue("ids were removed out of key order", keys[id] >= lastKey);
+            lastKey = keys[id];
+            removed++;
+        }
+        assertEquals(capacity, removed);
+    }
+
+    @Test
+    public void InsertOrDecreaseKeyOnlyLowersKeysTest() throws Exception {
+        IndexedIntHeap heap = new IndexedIntHeap(10);
+        heap.insert(3, 30);
+        heap.insertOrDecreaseKey(7, 70);
+        heap.insertOrDecreaseKey(7, 10);
+        heap.insertOrDecreaseKey(7, 50);
+        assertEquals(10, heap.getKey(7));
+
+        assertEquals(7, heap.removeMin());
+        assertEquals(3, heap.removeMin());
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,39 @@
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongIntHashMapTests {
+    @Test
+    public void matchesHashMapThroughResizesTest() throws Exception {
+        Random r = new Random();
+        LongIntHashMap map = new LongIntHashMap(0);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            long key = r.nextLong() % 5000;
+            int value = r.nextInt(Integer.MAX_VALUE);
+            map.put(key, value);
+            expected.put(key, value);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals((int) value, map.get(key)));
+        assertEquals(-1, map.get(5000));
+    }
+
+    @Test
+    public void copyIsIndependentTest() throws Exception {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(1, 10);
+        LongIntHashMap copy = new LongIntHashMap(map);
+        map.put(2, 20);
+
+        assertEquals(10, copy.get(1));
+        assertEquals(-1, copy.get(2));
+        assertEquals(20, map.get(2));
+    }
+}
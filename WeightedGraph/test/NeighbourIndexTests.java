@@ -0,0 +1,58 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NeighbourIndexTests {
+    @Test
+    public void matchesListThroughAddsMovesAndRemovesTest() throws Exception {
+        // mirrors how WeightedGraph uses the index: slot i of the list holds an edge to neighbours.get(i)
+        Random r = new Random(7);
+        NeighbourIndex index = new NeighbourIndex(0);
+        List<Integer> neighbours = new ArrayList<>();
+
+        for (int step = 0; step < 50_000; step++) {
+            if (neighbours.isEmpty() || r.nextInt(3) != 0) {
+                int neighbour = r.nextInt(500); // small enough that many neighbours repeat
+                index.add(neighbour, neighbours.size());
+                neighbours.add(neighbour);
+            } else {
+                int slot = r.nextInt(neighbours.size());
+                int lastSlot = neighbours.size() - 1;
+                index.remove(neighbours.get(slot), slot);
+                int last = neighbours.remove(lastSlot);
+                if (slot < lastSlot) {
+                    neighbours.set(slot, last);
+                    index.move(last, lastSlot, slot);
+                }
+            }
+        }
+
+        assertEquals(neighbours.size(), index.size());
+        for (int neighbour = 0; neighbour < 500; neighbour++) {
+            List<Integer> expectedSlots = new ArrayList<>();
+            for (int slot = 0; slot < neighbours.size(); slot++) {
+                if (neighbours.get(slot) == neighbour) {
+                    expectedSlots.add(slot);
+                }
+            }
+
+            List<Integer> slots = new ArrayList<>();
+            index.forEachSlot(neighbour, slots::add);
+            assertEquals(expectedSlots.size(), slots.size());
+            assertTrue(slots.containsAll(expectedSlots));
+            int found = index.find(neighbour);
+            assertTrue(expectedSlots.isEmpty() ? found == -1 : expectedSlots.contains(found));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removingMissingEntryFailsTest() throws Exception {
+        NeighbourIndex index = new NeighbourIndex(4);
+        index.add(3, 0);
+        index.remove(3, 1);
+    }
+}
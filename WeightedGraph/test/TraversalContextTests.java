@@ -0,0 +1,58 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TraversalContextTests {
+    @Test
+    public void newSearchForgetsPreviousVisitsTest() throws Exception {
+        TraversalContext context = TraversalContext.forCurrentThread(10);
+        context.visit(3, 3, 0);
+        context.visit(7, 3, 1);
+        assertTrue(context.isVisited(7));
+        assertEquals(3, context.getParent(7));
+        assertEquals(1, context.getDistance(7));
+
+        TraversalContext next = TraversalContext.forCurrentThread(10);
+        assertSame(context, next);
+        assertFalse(next.isVisited(3));
+        assertFalse(next.isVisited(7));
+        assertEquals(-1, next.getParent(7));
+        assertEquals(-1, next.getDistance(7));
+    }
+
+    @Test
+    public void growsForLargerGraphsTest() throws Exception {
+        TraversalContext context = TraversalContext.forCurrentThread(4);
+        context.visit(2, 2, 0);
+
+        context = TraversalContext.forCurrentThread(1_000);
+        assertTrue(context.getQueue().length >= 1_000);
+        assertTrue(context.getCursors().length >= 1_000);
+        assertFalse(context.isVisited(2));
+        context.visit(999, 2, 5);
+        assertEquals(5, context.getDistance(999));
+    }
+
+    @Test
+    public void secondContextIsIndependentTest() throws Exception {
+        TraversalContext first = TraversalContext.forCurrentThread(10);
+        TraversalContext second = TraversalContext.secondForCurrentThread(10);
+        assertNotSame(first, second);
+
+        first.visit(1, 1, 0);
+        assertFalse(second.isVisited(1));
+        second.visit(2, 2, 0);
+        assertTrue(first.isVisited(1));
+        assertFalse(first.isVisited(2));
+    }
+
+    @Test
+    public void threadsHaveTheirOwnContextsTest() throws Exception {
+        TraversalContext mine = TraversalContext.forCurrentThread(10);
+        TraversalContext[] theirs = new TraversalContext[1];
+        Thread thread = new Thread(() -> theirs[0] = TraversalContext.forCurrentThread(10));
+        thread.start();
+        thread.join();
+        assertNotSame(mine, theirs[0]);
+    }
+}
@@ -0,0 +1,49 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UnionFindTests {
+    @Test
+    public void UnionJoinsSetsTest() throws Exception {
+        UnionFind sets = new UnionFind(6);
+        assertTrue(sets.union(0, 1));
+        assertTrue(sets.union(2, 3));
+        assertTrue(sets.union(1, 3));
+        assertFalse(sets.union(0, 2));
+
+        assertEquals(sets.find(0), sets.find(3));
+        assertTrue(sets.find(0) != sets.find(4));
+        assertEquals(5, sets.find(5));
+    }
+
+    @Test
+    public void MatchesNaiveLabellingTest() throws Exception {
+        Random r = new Random();
+        int size = 1000;
+        UnionFind sets = new UnionFind(size);
+        int[] labels = new int[size];
+        for (int id = 0; id < size; id++) {
+            labels[id] = id;
+        }
+
+        for (int i = 0; i < 700; i++) {
+            int first = r.nextInt(size);
+            int second = r.nextInt(size);
+            int oldLabel = labels[second];
+            assertEquals(labels[first] != oldLabel, sets.union(first, second));
+            for (int id = 0; id < size; id++) {
+                if (labels[id] == oldLabel) {
+                    labels[id] = labels[first];
+                }
+            }
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            int first = r.nextInt(size);
+            int second = r.nextInt(size);
+            assertEquals(labels[first] == labels[second], sets.find(first) == sets.find(second));
+        }
+    }
+}
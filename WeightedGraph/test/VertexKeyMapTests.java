@@ -0,0 +1,34 @@
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VertexKeyMapTests {
+    @Test
+    public void assignsDenseIdsStartingPastCharLabelsTest() throws Exception {
+        VertexKeyMap<String> keys = new VertexKeyMap<>();
+        long alice = keys.getOrAssignId("alice");
+        long bob = keys.getOrAssignId("bob");
+
+        assertEquals(Character.MAX_VALUE + 1, alice);
+        assertEquals(alice + 1, bob);
+        assertEquals(alice, keys.getOrAssignId("alice"));
+        assertEquals(2, keys.size());
+        assertEquals("bob", keys.getKey(bob));
+        assertNull(keys.getKey(bob + 1));
+        assertEquals(-1, keys.getId("carol"));
+    }
+
+    @Test
+    public void buildsGraphKeyedByStringsTest() throws Exception {
+        VertexKeyMap<String> keys = new VertexKeyMap<>(0, 4);
+        WeightedGraph wg = new WeightedGraph();
+        wg.addEdge(keys.getOrAssignId("alice"), keys.getOrAssignId("bob"), 3);
+        wg.addEdge(keys.getOrAssignId("bob"), keys.getOrAssignId("carol"), 4);
+
+        List<WeightedGraph.Vertex> path = wg.findPathViaBFS(keys.getId("alice"), keys.getId("carol"));
+        assertEquals(3, path.size());
+        assertEquals("carol", keys.getKey(path.get(2).getId()));
+    }
+}
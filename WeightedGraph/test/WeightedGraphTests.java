@@ -2,8 +2,9 @@ import com.google.common.collect.Lists;
 import org.hamcrest.CustomMatcher;
 import org.junit.Test;
 
-import java.util.List;
-import java.util.Set;
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.core.IsCollectionContaining.*;
@@ -92,6 +93,24 @@ public class WeightedGraphTests {
         }
     }
 
+    @Test
+    public void repeatedSearchesOfDifferentGraphsTest() throws Exception {
+        // each search reuses this thread's traversal context, whatever graph it last searched
+        WeightedGraph complex = buildComplexGraph();
+        WeightedGraph deep = buildDeepGraph();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(5, complex.findPathViaBFS('a', 'k').size());
+            assertEquals(4, deep.findPathViaBFS('a', 'h').size());
+            List<WeightedGraph.Vertex> path = deep.findPathViaDFS('a', 'i');
+            assertEquals(Lists.newArrayList(deep.getVertex('a'), deep.getVertex('d'), deep.getVertex('g'), deep.getVertex('i')), path);
+        }
+
+        deep.addVertex('z');
+        assertTrue(deep.findPathViaBFS('a', 'z').isEmpty());
+        assertTrue(deep.findPathViaDFS('a', 'z').isEmpty());
+        assertEquals(Collections.singletonList(deep.getVertex('z')), deep.findPathViaDFS('z', 'z'));
+    }
+
     @Test
     public void buildMSFForSimpleGraphTest() {
         WeightedGraph wg = buildSimpleGraph();
@@ -158,6 +177,18 @@ public class WeightedGraphTests {
         ));
     }
 
+    @Test
+    public void buildMSFWithIsolatedVertexMatchesKruskalTest() {
+        WeightedGraph wg = buildComplexGraph();
+        wg.addVertex('z');
+
+        List<List<WeightedGraph.Edge>> msf = wg.computeMinimumSpanningForest();
+        assertEquals(2, msf.size());
+        assertTrue(msf.get(1).isEmpty());
+        assertEquals(83, msf.get(0).stream().mapToInt(WeightedGraph.Edge::getWeight).sum());
+        assertEquals(83, wg.computeMinimumSpanningForestViaKruskal().get(0).stream().mapToInt(WeightedGraph.Edge::getWeight).sum());
+    }
+
     @Test
     public void buildMSFForEmptyGraphReturnsEmptyListTest() throws Exception {
         WeightedGraph wg = new WeightedGraph();
@@ -165,6 +196,177 @@ public class WeightedGraphTests {
         assertTrue(msf.isEmpty());
     }
 
+    @Test
+    public void longIdsBeyondCharRangeTest() throws Exception {
+        WeightedGraph wg = new WeightedGraph();
+        long base = 10_000_000_000L;
+        for (long id = base; id < base + 100_000; id++) {
+            wg.addEdge(id, id + 1, 1);
+        }
+
+        assertEquals(100_001, wg.getVertexCount());
+        assertTrue(wg.containsEdge(base + 99_999, base + 100_000));
+        assertEquals("10000000005", wg.getVertex(base + 5).toString());
+
+        List<WeightedGraph.Vertex> path = wg.findPathViaBFS(base + 10, base + 15);
+        assertEquals(6, path.size());
+        assertEquals(base + 15, path.get(5).getId());
+    }
+
+    @Test
+    public void charLabelsAreVertexIdsTest() throws Exception {
+        WeightedGraph wg = new WeightedGraph();
+        WeightedGraph.Vertex vA = wg.addVertex('a');
+
+        assertSame(vA, wg.addVertex((long) 'a'));
+        assertSame(vA, wg.getVertex(97L));
+        assertEquals(97, vA.getId());
+        assertEquals("a", vA.toString());
+        assertNull(wg.getVertex(98L));
+    }
+
+    @Test
+    public void addEdgesMatchesAddEdgeTest() throws Exception {
+        long[] startIds = { 1, 2, 30_000_000_000L, 3, 2, 4, 1 };
+        long[] endIds = { 2, 3, 1, 3, 1, 5, 4 };
+        int[] weights = { 5, 7, 1, 2, -4, 9, 3 };
+
+        WeightedGraph expected = new WeightedGraph();
+        expected.addEdge(1L, 6L, 8);
+        for (int i = 0; i < startIds.length; i++) {
+            expected.addEdge(startIds[i], endIds[i], weights[i]);
+        }
+
+        WeightedGraph serial = new WeightedGraph();
+        serial.addEdge(1L, 6L, 8);
+        serial.addEdges(startIds, endIds, weights);
+        assertSameAdjacency(expected, serial);
+
+        WeightedGraph parallel = new WeightedGraph();
+        parallel.addEdge(1L, 6L, 8);
+        parallel.addEdges(startIds, endIds, weights, 5, ForkJoinPool.commonPool());
+        parallel.addEdges(Arrays.copyOfRange(startIds, 5, 7), Arrays.copyOfRange(endIds, 5, 7),
+                Arrays.copyOfRange(weights, 5, 7), 2, ForkJoinPool.commonPool());
+        assertSameAdjacency(expected, parallel);
+
+        WeightedGraph streamed = new WeightedGraph();
+        streamed.addEdge(1L, 6L, 8);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < startIds.length; i++) {
+            text.append(startIds[i]).append(' ').append(endIds[i]).append(' ').append(weights[i]).append('\n');
+        }
+        assertEquals(7, streamed.addEdges(new EdgeListReader(new StringReader(text.toString()))));
+        assertSameAdjacency(expected, streamed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addEdgesRejectsShortArraysTest() throws Exception {
+        new WeightedGraph().addEdges(new long[2], new long[1], new int[2]);
+    }
+
+    @Test
+    public void removeEdgeRemovesEveryParallelEdgeTest() throws Exception {
+        WeightedGraph wg = buildSimpleGraph();
+        wg.addEdge('c', 'e', 9);
+        wg.addEdge('e', 'e', 3);
+
+        wg.removeEdge('e', 'c');
+        assertFalse(wg.containsEdge('c', 'e'));
+        assertFalse(wg.containsEdge('e', 'c'));
+        assertEquals(2, wg.getOutgoingEdges('c').size());
+        assertTrue(wg.containsEdge('e', 'e'));
+
+        wg.removeEdge('e', 'e');
+        assertFalse(wg.containsEdge('e', 'e'));
+        assertEquals(3, wg.getOutgoingEdges('e').size());
+        assertTrue(wg.containsEdge('e', 'f'));
+    }
+
+    @Test
+    public void updateEdgeWeightChangesBothDirectionsTest() throws Exception {
+        WeightedGraph wg = buildSimpleGraph();
+        wg.updateEdgeWeight('c', 'e', 1);
+
+        assertTrue(wg.getOutgoingEdges('c').stream().filter(e -> e.getEndVertex().getLabel() == 'e').allMatch(e -> e.getWeight() == 1));
+        assertTrue(wg.getOutgoingEdges('e').stream().filter(e -> e.getEndVertex().getLabel() == 'c').allMatch(e -> e.getWeight() == 1));
+        assertEquals(1, wg.freeze().computeMinimumSpanningForestViaKruskal().get(0).stream()
+                .filter(e -> e.getStartVertex().getLabel() == 'c' || e.getEndVertex().getLabel() == 'c').mapToInt(WeightedGraph.Edge::getWeight).min().getAsInt());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateEdgeWeightRejectsMissingEdgeTest() throws Exception {
+        buildSimpleGraph().updateEdgeWeight('a', 'f', 1);
+    }
+
+    @Test
+    public void hubVertexEdgeChangesMatchModelTest() throws Exception {
+        // enough edges on the hub for it to be indexed, with repeated neighbours and a self-loop
+        Random r = new Random(11);
+        WeightedGraph wg = new WeightedGraph();
+        Map<Long, List<Integer>> expected = new HashMap<>(); // the weights of the hub's edges to each neighbour
+        for (int i = 0; i < 5_000; i++) {
+            long neighbour = r.nextInt(2_000);
+            int weight = r.nextInt(100);
+            wg.addEdge(0L, neighbour, weight);
+            expected.computeIfAbsent(neighbour, n -> new ArrayList<>()).add(weight);
+            if (neighbour == 0) {
+                expected.get(0L).add(weight); // a self-loop appears twice in the hub's list
+            }
+        }
+        long[] batchEnds = { 5, 6, 2_500 };
+        wg.addEdges(new long[] { 0, 0, 0 }, batchEnds, new int[] { 1, 2, 3 });
+        for (int i = 0; i < batchEnds.length; i++) {
+            expected.computeIfAbsent(batchEnds[i], n -> new ArrayList<>()).add(i + 1);
+        }
+
+        for (int i = 0; i < 3_000; i++) {
+            long neighbour = r.nextInt(2_600);
+            boolean present = expected.containsKey(neighbour);
+            assertEquals(present, wg.getVertex(neighbour) != null && wg.containsEdge(0L, neighbour));
+            if (!present || wg.getVertex(neighbour) == null) {
+                continue;
+            }
+            if (r.nextBoolean()) {
+                wg.removeEdge(0L, neighbour);
+                expected.remove(neighbour);
+            } else {
+                int weight = r.nextInt(100);
+                wg.updateEdgeWeight(0L, neighbour, weight);
+                expected.get(neighbour).replaceAll(w -> weight);
+            }
+        }
+
+        Map<Long, List<Integer>> actual = new HashMap<>();
+        for (WeightedGraph.Edge edge : wg.getOutgoingEdges(0L)) {
+            actual.computeIfAbsent(edge.getEndVertex().getId(), n -> new ArrayList<>()).add(edge.getWeight());
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((neighbour, weights) -> {
+            Collections.sort(weights);
+            List<Integer> actualWeights = actual.get(neighbour);
+            Collections.sort(actualWeights);
+            assertEquals(weights, actualWeights);
+        });
+        for (long neighbour = 1; neighbour < 2_600; neighbour++) {
+            if (wg.getVertex(neighbour) != null) {
+                assertEquals(expected.containsKey(neighbour), wg.containsEdge(neighbour, 0L));
+            }
+        }
+    }
+
+    private void assertSameAdjacency(WeightedGraph expected, WeightedGraph actual) {
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        for (WeightedGraph.Vertex vertex : expected.getVertices()) {
+            List<WeightedGraph.Edge> expectedEdges = expected.getOutgoingEdges(vertex);
+            List<WeightedGraph.Edge> actualEdges = actual.getOutgoingEdges(actual.getVertex(vertex.getId()));
+            assertEquals(expectedEdges.size(), actualEdges.size());
+            for (int i = 0; i < expectedEdges.size(); i++) {
+                assertEquals(expectedEdges.get(i).getEndVertex(), actualEdges.get(i).getEndVertex());
+                assertEquals(expectedEdges.get(i).getWeight(), actualEdges.get(i).getWeight());
+            }
+        }
+    }
+
 
     private WeightedGraph buildSimpleGraph() {
         WeightedGraph wg = new WeightedGraph();